@@ -0,0 +1,17 @@
+#!/usr/bin/env bash
+# Собирает backend и бенчмарки, гоняет JMH и печатает JSON-отчёт.
+# Аргументы передаются в JMH как есть, например:
+#   backend-bench/run.sh MasterScheduleValueParser -f 1 -wi 3 -i 5
+# Отчёт: backend-bench/target/jmh-result.json (или JMH_RESULT=path).
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+RESULT="${JMH_RESULT:-$ROOT/backend-bench/target/jmh-result.json}"
+
+mvn -B -q -f "$ROOT/backend/pom.xml" -DskipTests install
+mvn -B -q -f "$ROOT/backend-bench/pom.xml" package
+
+java -cp "$ROOT/backend-bench/target/classes:$ROOT/backend-bench/target/lib/*" \
+  org.openjdk.jmh.Main -rf json -rff "$RESULT" "$@"
+
+cat "$RESULT"
@@ -0,0 +1,63 @@
+package ru.staffly.bench;
+
+import org.openjdk.jmh.annotations.*;
+import ru.staffly.checklist.model.Checklist;
+import ru.staffly.checklist.model.ChecklistKind;
+import ru.staffly.checklist.service.ChecklistServiceImpl;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сортировка чек-листов при выдаче списка: сравнение по названию через русский Collator.
+ * size=20 — типичный ресторан, 200 — крупный; kind=null — общий список с группировкой.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChecklistSortBenchmark {
+
+    private static final MethodHandle SORT_CHECKLISTS = Fixtures.privateMethod(
+            ChecklistServiceImpl.class, "sortChecklists", List.class, ChecklistKind.class);
+
+    @Param({"20", "200"})
+    public int size;
+
+    @Param({"TRACKABLE", "ALL"})
+    public String kind;
+
+    private ChecklistServiceImpl service;
+    private ChecklistKind kindFilter;
+    private List<Checklist> checklists;
+
+    @Setup
+    public void setUp() {
+        service = Fixtures.newService(ChecklistServiceImpl.class);
+        kindFilter = "ALL".equals(kind) ? null : ChecklistKind.valueOf(kind);
+        Random random = Fixtures.random();
+        checklists = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            ChecklistKind itemKind = kindFilter != null ? kindFilter
+                    : (random.nextBoolean() ? ChecklistKind.TRACKABLE : ChecklistKind.INFO);
+            checklists.add(Checklist.builder()
+                    .name(Fixtures.name(random))
+                    .kind(itemKind)
+                    .completed(random.nextInt(3) == 0)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public List<Checklist> sort() throws Throwable {
+        // сортировка на месте — каждый раз на свежей копии
+        List<Checklist> copy = new ArrayList<>(checklists);
+        SORT_CHECKLISTS.invoke(service, copy, kindFilter);
+        return copy;
+    }
+}
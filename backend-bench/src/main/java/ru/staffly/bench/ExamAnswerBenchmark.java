@@ -0,0 +1,89 @@
+package ru.staffly.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.staffly.training.model.TrainingQuestionType;
+import ru.staffly.training.service.ExamServiceImpl;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка ответа при сдаче попытки: по вызову на вопрос, ответ и ключ — JSON из снапшота.
+ * Ответы перемешаны относительно ключа, половина неверные — как у реальных попыток.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExamAnswerBenchmark {
+
+    private static final MethodHandle IS_ANSWER_CORRECT = Fixtures.privateMethod(
+            ExamServiceImpl.class, "isAnswerCorrect", String.class, String.class, TrainingQuestionType.class);
+
+    @Param({"SINGLE", "MULTI", "MATCH", "FILL_SELECT"})
+    public TrainingQuestionType type;
+
+    private ExamServiceImpl service;
+    private String answer;
+    private String correctKey;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        service = Fixtures.newService(ExamServiceImpl.class, mapper);
+        Random random = Fixtures.random();
+
+        List<String> options = new ArrayList<>();
+        for (int i = 0; i < 6; i++) options.add(Fixtures.name(random) + " " + i);
+
+        switch (type) {
+            case SINGLE -> {
+                correctKey = mapper.writeValueAsString(options.get(0));
+                answer = mapper.writeValueAsString(options.get(1));
+            }
+            case MULTI -> {
+                List<String> key = options.subList(0, 3).stream().sorted().toList();
+                List<String> chosen = new ArrayList<>(key);
+                Collections.shuffle(chosen, random);
+                correctKey = mapper.writeValueAsString(key);
+                answer = mapper.writeValueAsString(chosen);
+            }
+            case MATCH -> {
+                List<Map<String, String>> key = new ArrayList<>();
+                for (int i = 0; i < options.size(); i++) {
+                    key.add(Map.of("left", options.get(i), "right", "ответ " + i));
+                }
+                List<Map<String, String>> chosen = new ArrayList<>(key);
+                Collections.shuffle(chosen, random);
+                correctKey = mapper.writeValueAsString(key);
+                answer = mapper.writeValueAsString(chosen);
+            }
+            case FILL_SELECT -> {
+                List<Map<String, Object>> key = new ArrayList<>();
+                List<Map<String, Object>> chosen = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    key.add(Map.of("blankIndex", i + 1, "correct", options.get(i)));
+                    chosen.add(Map.of("blankIndex", i + 1, "value", options.get(i == 3 ? 4 : i)));
+                }
+                Collections.shuffle(chosen, random);
+                correctKey = mapper.writeValueAsString(key);
+                answer = mapper.writeValueAsString(chosen);
+            }
+            default -> throw new IllegalArgumentException("Unsupported type " + type);
+        }
+    }
+
+    @Benchmark
+    public boolean isAnswerCorrect() throws Throwable {
+        return (boolean) IS_ANSWER_CORRECT.invoke(service, answer, correctKey, type);
+    }
+}
@@ -0,0 +1,72 @@
+package ru.staffly.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.util.Random;
+
+/**
+ * Общие заготовки для бенчмарков: фиксированный seed, доступ к приватным методам сервисов
+ * и сборка сервиса без Spring-контекста (неиспользуемые зависимости — null).
+ */
+final class Fixtures {
+
+    static final long SEED = 20240601L;
+
+    private static final String[] WORDS = {
+            "Бар", "кухня", "зал", "открытие", "закрытие", "уборка", "инвентаризация", "приёмка",
+            "Ёлка", "склад", "касса", "мойка", "заготовки", "холодный цех", "горячий цех", "пицца",
+            "десерты", "кофемашина", "стоп-лист", "санобработка"
+    };
+
+    private Fixtures() {
+    }
+
+    static Random random() {
+        return new Random(SEED);
+    }
+
+    /** Название из 1–3 слов, с кириллицей и разным регистром — как в реальных справочниках. */
+    static String name(Random random) {
+        int words = 1 + random.nextInt(3);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) sb.append(' ');
+            String word = WORDS[random.nextInt(WORDS.length)];
+            sb.append(random.nextBoolean() ? word : word.toLowerCase());
+        }
+        return sb.toString();
+    }
+
+    /** Создаёт сервис через его единственный конструктор, подставляя переданные зависимости по типу. */
+    static <T> T newService(Class<T> type, Object... dependencies) {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructors()[0];
+            Class<?>[] params = constructor.getParameterTypes();
+            Object[] args = new Object[params.length];
+            for (int i = 0; i < params.length; i++) {
+                for (Object dependency : dependencies) {
+                    if (params[i].isInstance(dependency)) {
+                        args[i] = dependency;
+                        break;
+                    }
+                }
+            }
+            constructor.setAccessible(true);
+            return type.cast(constructor.newInstance(args));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create " + type.getName(), e);
+        }
+    }
+
+    /** Приватный метод как MethodHandle: в static final поле вызов не дороже прямого. */
+    static MethodHandle privateMethod(Class<?> owner, String name, Class<?>... parameterTypes) {
+        try {
+            var method = owner.getDeclaredMethod(name, parameterTypes);
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No method " + owner.getSimpleName() + "." + name, e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package ru.staffly.bench;
+
+import org.openjdk.jmh.annotations.*;
+import ru.staffly.income.model.IncomePeriod;
+import ru.staffly.income.model.IncomeShift;
+import ru.staffly.income.model.IncomeShiftType;
+import ru.staffly.income.service.IncomeService;
+
+import java.lang.invoke.MethodHandle;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Итоги периода дохода (часы, доход, чаевые, выручка) на BigDecimal: пересчитываются при каждом открытии списка периодов. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IncomeSummaryBenchmark {
+
+    private static final MethodHandle TO_SUMMARY = Fixtures.privateMethod(
+            IncomeService.class, "toSummary", IncomePeriod.class, List.class);
+
+    @Param({"31", "365"})
+    public int shifts;
+
+    private IncomeService service;
+    private IncomePeriod period;
+    private List<IncomeShift> shiftList;
+
+    @Setup
+    public void setUp() {
+        service = Fixtures.newService(IncomeService.class);
+        period = IncomePeriod.builder().id(1L).userId(1L).name("Период").build();
+        Random random = Fixtures.random();
+        shiftList = new ArrayList<>();
+        LocalDate day = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < shifts; i++) {
+            boolean hourly = random.nextInt(3) > 0;
+            LocalTime start = LocalTime.of(8 + random.nextInt(6), 15 * random.nextInt(4));
+            shiftList.add(IncomeShift.builder()
+                    .period(period)
+                    .userId(1L)
+                    .date(day.plusDays(i))
+                    .type(hourly ? IncomeShiftType.HOURLY : IncomeShiftType.SHIFT)
+                    .startTime(hourly ? start : null)
+                    .endTime(hourly ? start.plusMinutes(240 + 15 * random.nextInt(33)) : null)
+                    .hourlyRate(hourly ? BigDecimal.valueOf(250 + 10 * random.nextInt(30)) : null)
+                    .fixedAmount(hourly ? null : BigDecimal.valueOf(2500 + 100 * random.nextInt(20)))
+                    .tipsAmount(BigDecimal.valueOf(random.nextInt(300_000), 2))
+                    .personalRevenue(BigDecimal.valueOf(random.nextInt(5_000_000), 2))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public Object toSummary() throws Throwable {
+        return TO_SUMMARY.invoke(service, period, shiftList);
+    }
+}
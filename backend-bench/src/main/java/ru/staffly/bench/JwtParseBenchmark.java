@@ -0,0 +1,33 @@
+package ru.staffly.bench;
+
+import org.openjdk.jmh.annotations.*;
+import ru.staffly.security.JwtService;
+import ru.staffly.security.UserPrincipal;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** Разбор и проверка подписи access-токена: выполняется в JwtAuthFilter на каждом запросе к API. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtParseBenchmark {
+
+    private JwtService jwt;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwt = new JwtService("bench-secret-key-that-is-long-enough-for-hs256", 60);
+        token = jwt.generateToken(new UserPrincipal(42L, "+79990000000", 7L, List.of("STAFF")));
+    }
+
+    @Benchmark
+    public Map<String, Object> parse() {
+        return jwt.parse(token);
+    }
+}
@@ -0,0 +1,49 @@
+package ru.staffly.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.staffly.master_schedule.util.MasterScheduleValueParser;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Разбор значений ячеек мастер-графика: один вызов на ячейку при каждом сохранении.
+ * Смесь как в живых графиках: часы, часы с запятой, "ставки x сумма", пустые.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MasterScheduleValueParserBenchmark {
+
+    private static final int CELLS = 1024;
+
+    private final MasterScheduleValueParser parser = new MasterScheduleValueParser();
+    private String[] cells;
+
+    @Setup
+    public void setUp() {
+        Random random = Fixtures.random();
+        cells = new String[CELLS];
+        for (int i = 0; i < CELLS; i++) {
+            cells[i] = switch (random.nextInt(10)) {
+                case 0, 1, 2, 3 -> String.valueOf(4 + random.nextInt(9));
+                case 4, 5 -> (4 + random.nextInt(9)) + "," + (random.nextBoolean() ? "5" : "25");
+                case 6, 7 -> (1 + random.nextInt(3)) + (random.nextBoolean() ? "x" : " × ") + (1000 + 250 * random.nextInt(8));
+                case 8 -> " " + (1 + random.nextInt(2)) + "*" + (12 + random.nextInt(4)) + ".5 ";
+                default -> "";
+            };
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CELLS)
+    public void parse(Blackhole bh) {
+        for (String cell : cells) {
+            bh.consume(parser.parse(cell));
+        }
+    }
+}
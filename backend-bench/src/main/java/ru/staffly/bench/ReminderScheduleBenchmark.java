@@ -0,0 +1,66 @@
+package ru.staffly.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.staffly.reminder.model.Reminder;
+import ru.staffly.reminder.model.ReminderPeriodicity;
+import ru.staffly.reminder.service.ReminderScheduleCalculator;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Расчёт следующего срабатывания напоминания: вызывается на каждое напоминание в каждом прогоне диспетчера. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReminderScheduleBenchmark {
+
+    private static final int REMINDERS = 512;
+    private static final ZoneId[] ZONES = {
+            ZoneId.of("Europe/Moscow"), ZoneId.of("Asia/Yekaterinburg"), ZoneId.of("Asia/Vladivostok"), ZoneId.of("Europe/Kaliningrad")
+    };
+
+    @Param({"DAILY", "WEEKLY", "MONTHLY"})
+    public ReminderPeriodicity periodicity;
+
+    private Reminder[] reminders;
+    private ZoneId[] zones;
+    private Instant[] bases;
+
+    @Setup
+    public void setUp() {
+        Random random = Fixtures.random();
+        reminders = new Reminder[REMINDERS];
+        zones = new ZoneId[REMINDERS];
+        bases = new Instant[REMINDERS];
+        Instant origin = Instant.parse("2024-01-01T00:00:00Z");
+        for (int i = 0; i < REMINDERS; i++) {
+            boolean lastDay = periodicity == ReminderPeriodicity.MONTHLY && random.nextInt(5) == 0;
+            reminders[i] = Reminder.builder()
+                    .periodicity(periodicity)
+                    .time(LocalTime.of(random.nextInt(24), 15 * random.nextInt(4)))
+                    .dayOfWeek(1 + random.nextInt(7))
+                    .dayOfMonth(1 + random.nextInt(31))
+                    .monthlyLastDay(lastDay)
+                    .onceDate(LocalDate.of(2024, 6, 1))
+                    .build();
+            zones[i] = ZONES[random.nextInt(ZONES.length)];
+            bases[i] = origin.plusSeconds(random.nextInt(366 * 24 * 3600));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REMINDERS)
+    public void computeNextFire(Blackhole bh) {
+        for (int i = 0; i < REMINDERS; i++) {
+            bh.consume(ReminderScheduleCalculator.computeNextFire(bases[i], reminders[i], zones[i]));
+        }
+    }
+}
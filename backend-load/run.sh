@@ -0,0 +1,60 @@
+#!/usr/bin/env bash
+# Нагрузочный прогон end-to-end на одной машине, без сети:
+# пересоздаёт и наполняет отдельную БД, поднимает backend, гоняет сценарии, печатает JSON-отчёт.
+# Нужен локальный PostgreSQL с пустой базой *_load (например, db из infra/docker-compose.dev.yml):
+#
+#   createdb -h localhost -U app staffly_load
+#   backend-load/run.sh
+#   SCENARIOS=exam-start,checklist-ticking RESTAURANTS=10 STAFF=80 backend-load/run.sh
+#
+# Переменные: LOAD_DB_URL (jdbc:postgresql://localhost:5432/staffly_load), DB_USER/DB_PASSWORD (app),
+# RESTAURANTS (5), STAFF (60 на ресторан), QUESTIONS (40), SEED, SCENARIOS (все), PORT (18080).
+# Отчёт: backend-load/target/load-report.json.
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+TARGET="$ROOT/backend-load/target"
+CP="$TARGET/classes:$TARGET/lib/*"
+PORT="${PORT:-18080}"
+DB_URL="${LOAD_DB_URL:-jdbc:postgresql://localhost:5432/staffly_load}"
+
+mvn -B -q -f "$ROOT/backend/pom.xml" -DskipTests install
+mvn -B -q -f "$ROOT/backend-load/pom.xml" package
+JAR="$(ls "$ROOT"/backend/target/backend-*-exec.jar | head -n 1)"
+
+java -cp "$CP" ru.staffly.load.Seeder \
+  --db-url "$DB_URL" \
+  --db-user "${DB_USER:-app}" \
+  --db-password "${DB_PASSWORD:-app}" \
+  --restaurants "${RESTAURANTS:-5}" \
+  --staff "${STAFF:-60}" \
+  --questions "${QUESTIONS:-40}" \
+  --seed "${SEED:-20240601}" \
+  --manifest "$TARGET/load-seed.json"
+
+# Настройки — аргументами командной строки: переменные окружения вроде DB_URL проигрывают
+# литеральному URL из application-dev.yml. push выключен: без сети отправка только копила бы ретраи.
+# Профиль test включает бюджет SQL в режиме fail: эндпоинт сверх бюджета отвечает 500 и виден в отчёте.
+java -jar "$JAR" \
+  --spring.profiles.active=dev,test \
+  --spring.datasource.url="$DB_URL" \
+  --spring.datasource.username="${DB_USER:-app}" \
+  --spring.datasource.password="${DB_PASSWORD:-app}" \
+  --server.port="$PORT" \
+  --management.server.port="$((PORT + 1))" \
+  --app.push.enabled=false \
+  >"$TARGET/backend.log" 2>&1 &
+pid=$!
+trap "kill $pid 2>/dev/null || true" EXIT
+
+for _ in $(seq 1 120); do
+  curl -fsS "http://localhost:$PORT/api/ping" >/dev/null 2>&1 && break
+  sleep 1
+done
+
+java -cp "$CP" ru.staffly.load.LoadRunner \
+  --manifest "$TARGET/load-seed.json" \
+  --base-url "http://localhost:$PORT" \
+  --prometheus "http://localhost:$((PORT + 1))/actuator/prometheus" \
+  --report "$TARGET/load-report.json" \
+  ${SCENARIOS:+--scenarios "$SCENARIOS"}
@@ -0,0 +1,19 @@
+package ru.staffly.load;
+
+/**
+ * Виртуальный пользователь сценария: сидированный аккаунт и ресторан, в котором он работает.
+ *
+ * @param ip    адрес для X-Forwarded-For: у реальной смены у каждого свой телефон, и лимит входа по IP
+ *              не должен превращать сценарий в замер 429
+ * @param staff {@code null} для менеджера
+ */
+public record Actor(String phone,
+                    String password,
+                    String ip,
+                    SeedManifest.RestaurantSeed restaurant,
+                    SeedManifest.StaffSeed staff) {
+
+    public String restaurantPath() {
+        return "/api/restaurants/" + restaurant.id();
+    }
+}
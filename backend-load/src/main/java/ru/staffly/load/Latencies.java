@@ -0,0 +1,44 @@
+package ru.staffly.load;
+
+import java.util.Arrays;
+
+/** Растущий массив латентностей в наносекундах, перцентили — по отсортированной копии. */
+final class Latencies {
+
+    private long[] values = new long[256];
+    private int count;
+    private long errors;
+
+    void record(long nanos) {
+        if (count == values.length) values = Arrays.copyOf(values, count * 2);
+        values[count++] = nanos;
+    }
+
+    void error() {
+        errors++;
+    }
+
+    void addAll(Latencies other) {
+        for (int i = 0; i < other.count; i++) record(other.values[i]);
+        errors += other.errors;
+    }
+
+    ScenarioReport.StepReport report() {
+        long[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        return new ScenarioReport.StepReport(
+                count + errors,
+                errors,
+                percentile(sorted, 0.50),
+                percentile(sorted, 0.95),
+                percentile(sorted, 0.99),
+                count == 0 ? 0 : sorted[count - 1] / 1e6
+        );
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,169 @@
+package ru.staffly.load;
+
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Прогоняет сценарии против запущенного backend по манифесту {@link Seeder} и печатает отчёт:
+ * по строке JSON на сценарий, полный массив — в {@code --report}.
+ *
+ * <pre>
+ * java -cp target/classes:target/lib/* ru.staffly.load.LoadRunner --manifest target/load-seed.json \
+ *     --base-url http://localhost:18080 --prometheus http://localhost:18081/actuator/prometheus
+ * </pre>
+ *
+ * Клиентские потоки платформенные, HTTP/1.1 — как в infra/bench/HttpLoad.
+ */
+public final class LoadRunner {
+
+    private static final int SCHEDULE_CREATE_DAYS = 31;
+
+    public static void main(String[] args) throws Exception {
+        Options opts = Options.parse(args);
+        SeedManifest manifest = Session.JSON.readValue(
+                Path.of(opts.get("manifest", "target/load-seed.json")).toFile(), SeedManifest.class);
+        String baseUrl = opts.get("base-url", "http://localhost:8080");
+        Path reportPath = Path.of(opts.get("report", "target/load-report.json"));
+        Set<String> only = Arrays.stream(opts.get("scenarios", "").split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toSet());
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        SqlStatements sql = new SqlStatements(client,
+                opts.get("prometheus", "http://localhost:8081/actuator/prometheus"));
+
+        List<ScenarioReport> reports = new ArrayList<>();
+        for (Scenario scenario : scenarios(manifest, opts)) {
+            if (!only.isEmpty() && !only.contains(scenario.name())) continue;
+            ScenarioReport report = scenario.run(client, baseUrl, sql);
+            System.out.println(Session.JSON.writeValueAsString(report));
+            reports.add(report);
+        }
+        if (reportPath.getParent() != null) Files.createDirectories(reportPath.getParent());
+        Session.JSON.writerWithDefaultPrettyPrinter().writeValue(reportPath.toFile(), reports);
+    }
+
+    static List<Scenario> scenarios(SeedManifest manifest, Options opts) {
+        Actors actors = new Actors(manifest);
+        List<Actor> managers = actors.managers();
+        List<Actor> staff = actors.staff();
+
+        Scenario shiftStart = Scenario.named("shift-start-logins")
+                .actors(staff)
+                .rampUp(Duration.ofSeconds(opts.getInt("login-ramp-up", 10)))
+                .step("login", Steps.login())
+                .step("switch-restaurant", Steps.switchRestaurant())
+                .step("schedules", Steps.get(a -> a.restaurantPath() + "/schedules"))
+                .step("checklists", Steps.get(a -> a.restaurantPath() + "/checklists"));
+
+        Scenario announcement = Scenario.named("mass-announcement")
+                .actors(managers)
+                .setup(Steps.login())
+                .setup(Steps.switchRestaurant())
+                .iterations(opts.getInt("announcements", 5))
+                .step("create", Steps.post(a -> a.restaurantPath() + "/announcements", a -> Map.of(
+                        "content", "Нагрузочное объявление для всей смены",
+                        "positionIds", a.restaurant().positionIds())));
+
+        Scenario examStart = Scenario.named("exam-start")
+                .actors(staff.subList(0, Math.min(opts.getInt("exam-users", 50), staff.size())))
+                .setup(Steps.login())
+                .setup(Steps.switchRestaurant())
+                .step("start", Steps.post(a -> a.restaurantPath() + "/training/exams/" + a.restaurant().examId() + "/start"));
+
+        Scenario checklistTicking = Scenario.named("checklist-ticking")
+                .actors(staff)
+                .setup(Steps.login())
+                .setup(Steps.switchRestaurant())
+                .step("reserve", Steps.post(a -> checklistItemPath(a) + "/reserve"))
+                .step("complete", Steps.post(a -> checklistItemPath(a) + "/complete"))
+                .cleanup(managers,
+                        Steps.login(),
+                        Steps.switchRestaurant(),
+                        Steps.post(a -> a.restaurantPath() + "/checklists/" + a.restaurant().checklistId() + "/reset"));
+
+        // вставка сетки целиком: sql.statements на POST /schedules показывает, сколько раз сущности
+        // графика ушли в БД (пачки по hibernate.jdbc.batch_size и nextval по блокам sequence, V51)
+        Scenario scheduleCreate = Scenario.named("schedule-create")
+                .actors(managers)
+                .setup(Steps.login())
+                .setup(Steps.switchRestaurant())
+                .iterations(opts.getInt("schedule-creates", 3))
+                .step("create", Steps.post(a -> a.restaurantPath() + "/schedules", LoadRunner::fullSchedule));
+
+        return List.of(shiftStart, announcement, examStart, checklistTicking, scheduleCreate);
+    }
+
+    /** Месячный график на весь штат ресторана, смена в каждой клетке. */
+    private static Map<String, Object> fullSchedule(Actor actor) {
+        LocalDate start = LocalDate.now();
+        LocalDate end = start.plusDays(SCHEDULE_CREATE_DAYS - 1);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        Map<String, String> cellValues = new HashMap<>();
+        for (SeedManifest.StaffSeed member : actor.restaurant().staff()) {
+            rows.add(Map.of("memberId", member.memberId(), "displayName", member.phone()));
+            for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+                cellValues.put(member.memberId() + ":" + day, "9-18");
+            }
+        }
+        return Map.of(
+                "title", "Нагрузочный график",
+                "config", Map.of(
+                        "startDate", start.toString(),
+                        "endDate", end.toString(),
+                        "positionIds", actor.restaurant().positionIds(),
+                        "showFullName", false,
+                        "shiftMode", "FULL"),
+                "rows", rows,
+                "cellValues", cellValues);
+    }
+
+    private static String checklistItemPath(Actor actor) {
+        return actor.restaurantPath() + "/checklists/" + actor.restaurant().checklistId()
+                + "/items/" + actor.staff().checklistItemId();
+    }
+
+    /** Актёры из манифеста с уникальными адресами 10.x.y.z. */
+    private static final class Actors {
+        private final List<Actor> managers = new ArrayList<>();
+        private final List<Actor> staff = new ArrayList<>();
+
+        Actors(SeedManifest manifest) {
+            int index = 0;
+            for (SeedManifest.RestaurantSeed restaurant : manifest.restaurants()) {
+                managers.add(new Actor(restaurant.managerPhone(), manifest.password(),
+                        ip(index++), restaurant, null));
+                for (SeedManifest.StaffSeed member : restaurant.staff()) {
+                    staff.add(new Actor(member.phone(), manifest.password(),
+                            ip(index++), restaurant, member));
+                }
+            }
+        }
+
+        List<Actor> managers() {
+            return List.copyOf(managers);
+        }
+
+        List<Actor> staff() {
+            return List.copyOf(staff);
+        }
+
+        private static String ip(int index) {
+            return "10." + ((index >> 16) & 0xff) + "." + ((index >> 8) & 0xff) + "." + (index & 0xff);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package ru.staffly.load;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Описание нагрузочного сценария:
+ * <pre>
+ * Scenario.named("exam-start")
+ *         .actors(staff)
+ *         .setup(Steps.login()).setup(Steps.switchRestaurant())
+ *         .step("start", Steps.post(a -> a.restaurantPath() + "/training/exams/" + a.restaurant().examId() + "/start"))
+ *         .iterations(1);
+ * </pre>
+ * У каждого актёра свой поток. Шаги {@code setup} и {@code cleanup} не замеряются; замер начинается,
+ * когда все актёры параллельно прошли setup, — так 50 одновременных стартов действительно одновременны.
+ */
+public final class Scenario {
+
+    /** Setup — это в основном логины; без ограничения сотни bcrypt разом упираются в очередь хеширования и ловят 503. */
+    private static final int SETUP_CONCURRENCY = 16;
+
+    private record NamedStep(String name, Step step) {
+    }
+
+    private final String name;
+    private List<Actor> actors = List.of();
+    private int iterations = 1;
+    private Duration rampUp = Duration.ZERO;
+    private Duration thinkTime = Duration.ZERO;
+    private final List<Step> setup = new ArrayList<>();
+    private final List<NamedStep> steps = new ArrayList<>();
+    private List<Actor> cleanupActors = List.of();
+    private final List<Step> cleanup = new ArrayList<>();
+
+    private Scenario(String name) {
+        this.name = name;
+    }
+
+    public static Scenario named(String name) {
+        return new Scenario(name);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Scenario actors(List<Actor> actors) {
+        this.actors = List.copyOf(actors);
+        return this;
+    }
+
+    /** Сколько раз каждый актёр проходит шаги. */
+    public Scenario iterations(int iterations) {
+        this.iterations = iterations;
+        return this;
+    }
+
+    /** Старты актёров равномерно растягиваются на этот интервал; по умолчанию все стартуют разом. */
+    public Scenario rampUp(Duration rampUp) {
+        this.rampUp = rampUp;
+        return this;
+    }
+
+    /** Пауза актёра между итерациями. */
+    public Scenario thinkTime(Duration thinkTime) {
+        this.thinkTime = thinkTime;
+        return this;
+    }
+
+    public Scenario setup(Step step) {
+        setup.add(step);
+        return this;
+    }
+
+    public Scenario step(String name, Step step) {
+        steps.add(new NamedStep(name, step));
+        return this;
+    }
+
+    /** Возврат данных в исходное состояние после замера, чтобы сценарий можно было повторить без пересева. */
+    public Scenario cleanup(List<Actor> actors, Step... steps) {
+        this.cleanupActors = List.copyOf(actors);
+        this.cleanup.addAll(List.of(steps));
+        return this;
+    }
+
+    ScenarioReport run(HttpClient client, String baseUrl, SqlStatements sql) throws Exception {
+        CountDownLatch ready = new CountDownLatch(actors.size());
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(actors.size());
+        AtomicReference<Exception> setupFailure = new AtomicReference<>();
+        Semaphore setupPermits = new Semaphore(SETUP_CONCURRENCY);
+        List<Map<String, Latencies>> perActor = new ArrayList<>(actors.size());
+        long rampStepNanos = actors.isEmpty() ? 0 : rampUp.toNanos() / actors.size();
+        for (int i = 0; i < actors.size(); i++) {
+            Map<String, Latencies> latencies = new LinkedHashMap<>();
+            for (NamedStep step : steps) latencies.put(step.name(), new Latencies());
+            perActor.add(latencies);
+            Session session = new Session(client, baseUrl, actors.get(i));
+            long delayNanos = rampStepNanos * i;
+            Thread thread = new Thread(() -> {
+                try {
+                    setupPermits.acquire();
+                    try {
+                        for (Step step : setup) expectOk(step.call(session), "setup");
+                    } catch (Exception e) {
+                        setupFailure.compareAndSet(null, e);
+                    } finally {
+                        setupPermits.release();
+                        ready.countDown();
+                    }
+                    start.await();
+                    if (setupFailure.get() != null) return;
+                    if (delayNanos > 0) Thread.sleep(Duration.ofNanos(delayNanos).toMillis());
+                    runActor(session, latencies);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, name + "-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        ready.await();
+        if (setupFailure.get() != null) {
+            start.countDown();
+            throw setupFailure.get();
+        }
+        Map<String, long[]> sqlBefore = sql.snapshot();
+        long startedAt = System.nanoTime();
+        start.countDown();
+        done.await();
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        // фильтр пишет метрику после отправки ответа — даём последним запросам дописаться
+        Thread.sleep(500);
+        Map<String, long[]> sqlAfter = sql.snapshot();
+
+        for (Actor actor : cleanupActors) {
+            Session session = new Session(client, baseUrl, actor);
+            for (Step step : cleanup) expectOk(step.call(session), "cleanup");
+        }
+
+        Map<String, ScenarioReport.StepReport> stepReports = new LinkedHashMap<>();
+        long requests = 0;
+        long errors = 0;
+        for (NamedStep step : steps) {
+            Latencies merged = new Latencies();
+            for (Map<String, Latencies> latencies : perActor) merged.addAll(latencies.get(step.name()));
+            ScenarioReport.StepReport report = merged.report();
+            stepReports.put(step.name(), report);
+            requests += report.requests();
+            errors += report.errors();
+        }
+        return new ScenarioReport(name, actors.size(), iterations, requests, errors, seconds,
+                seconds == 0 ? 0 : requests / seconds, stepReports, sql.delta(sqlBefore, sqlAfter));
+    }
+
+    private void runActor(Session session, Map<String, Latencies> latencies) throws InterruptedException {
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            if (iteration > 0 && !thinkTime.isZero()) Thread.sleep(thinkTime.toMillis());
+            for (NamedStep step : steps) {
+                Latencies stepLatencies = latencies.get(step.name());
+                long begin = System.nanoTime();
+                boolean ok;
+                try {
+                    ok = step.step().call(session).ok();
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    ok = false;
+                }
+                if (ok) {
+                    stepLatencies.record(System.nanoTime() - begin);
+                } else {
+                    stepLatencies.error();
+                }
+            }
+        }
+    }
+
+    private void expectOk(Session.Response response, String phase) {
+        if (!response.ok()) {
+            throw new IllegalStateException(name + " " + phase + " failed: HTTP " + response.status() + " " + response.body());
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package ru.staffly.load;
+
+import java.util.Map;
+
+/**
+ * Итог сценария. Латентности в миллисекундах, {@code sql} — прирост
+ * http.server.requests.sql.statements за время замера по каждому эндпоинту.
+ */
+public record ScenarioReport(String scenario,
+                             int actors,
+                             int iterations,
+                             long requests,
+                             long errors,
+                             double seconds,
+                             double rps,
+                             Map<String, StepReport> steps,
+                             Map<String, SqlStatements.Delta> sql) {
+
+    public record StepReport(long requests, long errors, double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+    }
+}
@@ -0,0 +1,26 @@
+package ru.staffly.load;
+
+import java.util.List;
+
+/**
+ * Что создал {@link Seeder}: id и телефоны, по которым {@link LoadRunner} строит актёров.
+ * У всех пользователей один пароль — bcrypt считается при сидировании один раз.
+ */
+public record SeedManifest(long seed, String password, List<RestaurantSeed> restaurants) {
+
+    public record RestaurantSeed(long id,
+                                 String managerPhone,
+                                 List<Long> positionIds,
+                                 long scheduleId,
+                                 long checklistId,
+                                 long examId,
+                                 List<StaffSeed> staff) {
+    }
+
+    /**
+     * @param memberId        строка графика в сценарии создания графика
+     * @param checklistItemId пункт общего чек-листа, закреплённый за сотрудником в сценарии отметок
+     */
+    public record StaffSeed(String phone, long memberId, long checklistItemId) {
+    }
+}
@@ -0,0 +1,318 @@
+package ru.staffly.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.staffly.StafflyApplication;
+import ru.staffly.checklist.model.Checklist;
+import ru.staffly.checklist.model.ChecklistItem;
+import ru.staffly.checklist.model.ChecklistKind;
+import ru.staffly.checklist.repository.ChecklistRepository;
+import ru.staffly.common.time.TimeProvider;
+import ru.staffly.dictionary.model.Position;
+import ru.staffly.dictionary.repository.PositionRepository;
+import ru.staffly.member.model.RestaurantMember;
+import ru.staffly.member.repository.RestaurantMemberRepository;
+import ru.staffly.restaurant.model.Restaurant;
+import ru.staffly.restaurant.model.RestaurantRole;
+import ru.staffly.restaurant.repository.RestaurantRepository;
+import ru.staffly.schedule.model.Schedule;
+import ru.staffly.schedule.model.ScheduleCell;
+import ru.staffly.schedule.model.ScheduleRow;
+import ru.staffly.schedule.model.ScheduleShiftMode;
+import ru.staffly.schedule.repository.ScheduleRepository;
+import ru.staffly.training.model.*;
+import ru.staffly.training.repository.TrainingExamRepository;
+import ru.staffly.training.repository.TrainingExamSourceFolderRepository;
+import ru.staffly.training.repository.TrainingFolderRepository;
+import ru.staffly.training.repository.TrainingQuestionOptionRepository;
+import ru.staffly.training.repository.TrainingQuestionRepository;
+import ru.staffly.user.model.User;
+import ru.staffly.user.repository.UserRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Наполняет отдельную БД для нагрузочного прогона напрямую через репозитории backend:
+ * N ресторанов, в каждом менеджер, сотрудники с должностями, двухнедельный график,
+ * проверяемый чек-лист (по пункту на сотрудника) и банк вопросов с экзаменом.
+ * Схема пересоздаётся Flyway (clean + migrate), генератор детерминирован по seed —
+ * повторный запуск с теми же параметрами даёт те же данные. Результат — манифест для {@link LoadRunner}.
+ *
+ * <pre>
+ * java -cp target/classes:target/lib/* ru.staffly.load.Seeder --restaurants 5 --staff 60 --manifest target/load-seed.json
+ * </pre>
+ */
+public final class Seeder {
+
+    static final String PASSWORD = "load-test-password";
+
+    private static final String[] FIRST_NAMES = {"Анна", "Иван", "Мария", "Пётр", "Ольга", "Дмитрий", "Елена", "Сергей"};
+    private static final String[] LAST_NAMES = {"Смирнова", "Иванов", "Кузнецова", "Попов", "Соколова", "Лебедев", "Новикова", "Морозов"};
+    private static final String[] POSITIONS = {"Официант", "Бармен", "Повар", "Хостес"};
+    private static final String[] SHIFTS = {"10:00-22:00", "12:00-23:00", "08:00-16:00"};
+    private static final int SCHEDULE_DAYS = 14;
+
+    private final ConfigurableApplicationContext context;
+    private final Random random;
+    private final long seed;
+    private final String passwordHash;
+
+    private Seeder(ConfigurableApplicationContext context, long seed) {
+        this.context = context;
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.passwordHash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Options opts = Options.parse(args);
+        String dbUrl = opts.get("db-url", "jdbc:postgresql://localhost:5432/staffly_load");
+        // clean сносит всю схему — не даём случайно направить сидер на рабочую базу
+        if (!dbUrl.contains("load")) {
+            throw new IllegalArgumentException("Refusing to clean " + dbUrl + ": database name must contain 'load'");
+        }
+        int restaurants = opts.getInt("restaurants", 5);
+        int staff = opts.getInt("staff", 60);
+        int questions = opts.getInt("questions", 40);
+        long seed = opts.getLong("seed", 20240601L);
+        Path manifestPath = Path.of(opts.get("manifest", "target/load-seed.json"));
+
+        ApplicationContextInitializer<GenericApplicationContext> cleanMigrate = ctx ->
+                ctx.registerBean(FlywayMigrationStrategy.class, () -> flyway -> {
+                    // проверяем URL, который реально получил контекст, а не аргумент: его мог перебить профиль
+                    String effectiveUrl = ctx.getEnvironment().getProperty("spring.datasource.url", "");
+                    if (!effectiveUrl.contains("load")) {
+                        throw new IllegalStateException("Refusing to clean " + effectiveUrl + ": database name must contain 'load'");
+                    }
+                    flyway.clean();
+                    flyway.migrate();
+                });
+
+        // Аргументы командной строки старше application.yml и профилей; defaultProperties — младше всех,
+        // через них URL из application-dev.yml победил бы. Профиль фиксируем, чтобы не зависеть от окружения.
+        String[] overrides = {
+                "--spring.profiles.active=dev",
+                "--spring.datasource.url=" + dbUrl,
+                "--spring.datasource.username=" + opts.get("db-user", "app"),
+                "--spring.datasource.password=" + opts.get("db-password", "app"),
+                "--spring.flyway.clean-disabled=false",
+                "--app.push.enabled=false",
+                // без веб-сервера поднимается WorkerMetricsServer — не занимаем порт backend
+                "--management.server.port=0"
+        };
+
+        try (ConfigurableApplicationContext ctx = new SpringApplicationBuilder(StafflyApplication.class)
+                .web(WebApplicationType.NONE)
+                .initializers(cleanMigrate)
+                .run(overrides)) {
+            SeedManifest manifest = new Seeder(ctx, seed).seed(restaurants, staff, questions);
+            if (manifestPath.getParent() != null) Files.createDirectories(manifestPath.getParent());
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(manifestPath.toFile(), manifest);
+            System.out.println("Seeded " + restaurants + " restaurants x " + staff + " staff -> " + manifestPath);
+        }
+    }
+
+    private SeedManifest seed(int restaurantCount, int staffCount, int questionCount) {
+        TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        List<SeedManifest.RestaurantSeed> restaurants = new ArrayList<>();
+        for (int r = 0; r < restaurantCount; r++) {
+            int index = r;
+            restaurants.add(tx.execute(status -> seedRestaurant(index, staffCount, questionCount)));
+        }
+        return new SeedManifest(seed, PASSWORD, restaurants);
+    }
+
+    private SeedManifest.RestaurantSeed seedRestaurant(int r, int staffCount, int questionCount) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setName("Нагрузка " + (r + 1));
+        restaurant.setCode("load-" + r);
+        restaurant.setTimezone(Restaurant.DEFAULT_TIMEZONE);
+        restaurant.setActive(true);
+        restaurant = context.getBean(RestaurantRepository.class).save(restaurant);
+
+        PositionRepository positionRepository = context.getBean(PositionRepository.class);
+        Position managerPosition = positionRepository.save(Position.builder()
+                .restaurant(restaurant).name("Менеджер").level(RestaurantRole.MANAGER).build());
+        List<Position> positions = new ArrayList<>();
+        for (String name : POSITIONS) {
+            positions.add(Position.builder().restaurant(restaurant).name(name).level(RestaurantRole.STAFF).build());
+        }
+        positions = positionRepository.saveAll(positions);
+
+        RestaurantMemberRepository memberRepository = context.getBean(RestaurantMemberRepository.class);
+        String managerPhone = phone(r, 0);
+        memberRepository.save(RestaurantMember.builder()
+                .user(user(r, 0))
+                .restaurant(restaurant)
+                .role(RestaurantRole.MANAGER)
+                .position(managerPosition)
+                .build());
+
+        List<RestaurantMember> staff = new ArrayList<>();
+        for (int m = 1; m <= staffCount; m++) {
+            staff.add(RestaurantMember.builder()
+                    .user(user(r, m))
+                    .restaurant(restaurant)
+                    .role(RestaurantRole.STAFF)
+                    .position(positions.get(random.nextInt(positions.size())))
+                    .build());
+        }
+        staff = memberRepository.saveAll(staff);
+
+        Schedule schedule = seedSchedule(restaurant, positions, staff);
+        Checklist checklist = seedChecklist(restaurant, positions, staff);
+        TrainingExam exam = seedQuestionBank(restaurant, questionCount);
+
+        List<SeedManifest.StaffSeed> staffSeeds = new ArrayList<>();
+        List<ChecklistItem> items = checklist.getItems().stream()
+                .sorted(Comparator.comparing(ChecklistItem::getItemOrder))
+                .toList();
+        for (int i = 0; i < staff.size(); i++) {
+            staffSeeds.add(new SeedManifest.StaffSeed(
+                    staff.get(i).getUser().getPhone(), staff.get(i).getId(), items.get(i).getId()));
+        }
+        return new SeedManifest.RestaurantSeed(
+                restaurant.getId(),
+                managerPhone,
+                positions.stream().map(Position::getId).toList(),
+                schedule.getId(),
+                checklist.getId(),
+                exam.getId(),
+                staffSeeds
+        );
+    }
+
+    private User user(int r, int m) {
+        User user = new User();
+        user.setPhone(phone(r, m));
+        user.setEmail("load-r" + r + "-m" + m + "@staffly.local");
+        user.setFirstName(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+        user.setLastName(LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+        user.setPasswordHash(passwordHash);
+        user.setActive(true);
+        return context.getBean(UserRepository.class).save(user);
+    }
+
+    /** +79RRMMMMMMM — по номеру сразу видно ресторан и сотрудника; 0 — менеджер. */
+    private static String phone(int r, int m) {
+        return String.format("+79%02d%07d", r, m);
+    }
+
+    private Schedule seedSchedule(Restaurant restaurant, List<Position> positions, List<RestaurantMember> staff) {
+        LocalDate start = TimeProvider.todayUtc();
+        Schedule schedule = Schedule.builder()
+                .restaurant(restaurant)
+                .title("Нагрузочный график")
+                .startDate(start)
+                .endDate(start.plusDays(SCHEDULE_DAYS - 1))
+                .shiftMode(ScheduleShiftMode.FULL)
+                .positionIds(new ArrayList<>(positions.stream().map(Position::getId).toList()))
+                .build();
+        int sortOrder = 0;
+        for (RestaurantMember member : staff) {
+            ScheduleRow row = ScheduleRow.builder()
+                    .schedule(schedule)
+                    .memberId(member.getId())
+                    .displayName(member.getUser().getFirstName() + " " + member.getUser().getLastName())
+                    .positionId(member.getPosition().getId())
+                    .positionName(member.getPosition().getName())
+                    .sortOrder(sortOrder++)
+                    .build();
+            for (int day = 0; day < SCHEDULE_DAYS; day++) {
+                if (random.nextInt(7) < 4) {
+                    row.getCells().add(ScheduleCell.builder()
+                            .row(row)
+                            .day(start.plusDays(day))
+                            .value(SHIFTS[random.nextInt(SHIFTS.length)])
+                            .build());
+                }
+            }
+            schedule.getRows().add(row);
+        }
+        return context.getBean(ScheduleRepository.class).save(schedule);
+    }
+
+    private Checklist seedChecklist(Restaurant restaurant, List<Position> positions, List<RestaurantMember> staff) {
+        Checklist checklist = Checklist.builder()
+                .restaurant(restaurant)
+                .name("Открытие смены")
+                .kind(ChecklistKind.TRACKABLE)
+                .completed(false)
+                .positions(new HashSet<>(positions))
+                .build();
+        for (int i = 0; i < staff.size(); i++) {
+            checklist.getItems().add(ChecklistItem.builder()
+                    .checklist(checklist)
+                    .itemOrder(i)
+                    .text("Пункт " + (i + 1))
+                    .build());
+        }
+        return context.getBean(ChecklistRepository.class).saveAndFlush(checklist);
+    }
+
+    private TrainingExam seedQuestionBank(Restaurant restaurant, int questionCount) {
+        TrainingFolder folder = context.getBean(TrainingFolderRepository.class).save(TrainingFolder.builder()
+                .restaurant(restaurant)
+                .name("Банк вопросов")
+                .type(TrainingFolderType.QUESTION_BANK)
+                .build());
+
+        List<TrainingQuestion> questions = new ArrayList<>();
+        for (int q = 0; q < questionCount; q++) {
+            questions.add(TrainingQuestion.builder()
+                    .restaurant(restaurant)
+                    .folder(folder)
+                    .type(TrainingQuestionType.SINGLE)
+                    .title("Вопрос " + (q + 1))
+                    .prompt("Какой вариант верный в вопросе " + (q + 1) + "?")
+                    .questionGroup(TrainingQuestionGroup.CERTIFICATION)
+                    .sortOrder(q)
+                    .build());
+        }
+        questions = context.getBean(TrainingQuestionRepository.class).saveAll(questions);
+
+        List<TrainingQuestionOption> options = new ArrayList<>();
+        for (TrainingQuestion question : questions) {
+            int correct = random.nextInt(4);
+            for (int o = 0; o < 4; o++) {
+                options.add(TrainingQuestionOption.builder()
+                        .question(question)
+                        .text("Вариант " + (o + 1))
+                        .correct(o == correct)
+                        .sortOrder(o)
+                        .build());
+            }
+        }
+        context.getBean(TrainingQuestionOptionRepository.class).saveAll(options);
+
+        TrainingExam exam = context.getBean(TrainingExamRepository.class).save(TrainingExam.builder()
+                .restaurant(restaurant)
+                .title("Аттестация")
+                .questionCount(Math.min(20, questionCount))
+                .passPercent(80)
+                .timeLimitSec(1200)
+                .build());
+        context.getBean(TrainingExamSourceFolderRepository.class).save(TrainingExamSourceFolder.builder()
+                .exam(exam)
+                .folder(folder)
+                .pickMode(TrainingExamSourcePickMode.ALL)
+                .build());
+        return exam;
+    }
+}
@@ -0,0 +1,71 @@
+package ru.staffly.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/** HTTP-сессия одного актёра: базовый URL, текущий access-токен и его X-Forwarded-For. */
+public final class Session {
+
+    static final ObjectMapper JSON = new ObjectMapper();
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final Actor actor;
+    private String token;
+
+    Session(HttpClient client, String baseUrl, Actor actor) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.actor = actor;
+    }
+
+    public Actor actor() {
+        return actor;
+    }
+
+    public void token(String token) {
+        this.token = token;
+    }
+
+    public Response get(String path) throws IOException, InterruptedException {
+        return send(request(path).GET());
+    }
+
+    public Response post(String path, Object body) throws IOException, InterruptedException {
+        HttpRequest.BodyPublisher publisher = body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofByteArray(JSON.writeValueAsBytes(body));
+        return send(request(path).header("Content-Type", "application/json").POST(publisher));
+    }
+
+    private HttpRequest.Builder request(String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("X-Forwarded-For", actor.ip());
+        if (token != null) builder.header("Authorization", "Bearer " + token);
+        return builder;
+    }
+
+    private Response send(HttpRequest.Builder builder) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+        return new Response(response.statusCode(), response.body());
+    }
+
+    public record Response(int status, String body) {
+
+        public boolean ok() {
+            return status < 400;
+        }
+
+        public JsonNode json() throws IOException {
+            return JSON.readTree(body);
+        }
+    }
+}
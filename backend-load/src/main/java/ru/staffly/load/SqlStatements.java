@@ -0,0 +1,73 @@
+package ru.staffly.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Счётчик SQL по эндпоинтам из /actuator/prometheus backend: сводка
+ * http.server.requests.sql.statements (SqlRequestMetricsFilter) с тегами method/uri.
+ * Сценарий снимает её до и после замера и отдаёт разницу.
+ */
+final class SqlStatements {
+
+    private static final String METRIC = "http_server_requests_sql_statements_";
+    private static final Pattern LABEL = Pattern.compile("(\\w+)=\"((?:[^\"\\\\]|\\\\.)*)\"");
+
+    private final HttpClient client;
+    private final URI prometheusUrl;
+
+    SqlStatements(HttpClient client, String prometheusUrl) {
+        this.client = client;
+        this.prometheusUrl = URI.create(prometheusUrl);
+    }
+
+    /** @param requests запросов за замер, {@code statements} — SQL-операторов на них */
+    public record Delta(long requests, long statements, double perRequest) {
+    }
+
+    Map<String, Delta> delta(Map<String, long[]> before, Map<String, long[]> after) {
+        Map<String, Delta> result = new TreeMap<>();
+        after.forEach((key, now) -> {
+            long[] was = before.getOrDefault(key, new long[2]);
+            long requests = now[0] - was[0];
+            long statements = now[1] - was[1];
+            if (requests > 0) result.put(key, new Delta(requests, statements, (double) statements / requests));
+        });
+        return result;
+    }
+
+    /** "METHOD uri" -> {count, sum}. */
+    Map<String, long[]> snapshot() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(prometheusUrl).timeout(Duration.ofSeconds(10)).GET().build();
+        String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        Map<String, long[]> result = new HashMap<>();
+        for (String line : body.split("\n")) {
+            if (!line.startsWith(METRIC)) continue;
+            int open = line.indexOf('{');
+            int close = line.lastIndexOf('}');
+            if (open < 0 || close < open) continue;
+            int slot = switch (line.substring(METRIC.length(), open)) {
+                case "count" -> 0;
+                case "sum" -> 1;
+                default -> -1;
+            };
+            if (slot < 0) continue;
+            Map<String, String> labels = new HashMap<>();
+            Matcher m = LABEL.matcher(line.substring(open + 1, close));
+            while (m.find()) labels.put(m.group(1), m.group(2));
+            String key = labels.get("method") + " " + labels.get("uri");
+            long value = (long) Double.parseDouble(line.substring(close + 1).trim());
+            result.computeIfAbsent(key, k -> new long[2])[slot] += value;
+        }
+        return result;
+    }
+}
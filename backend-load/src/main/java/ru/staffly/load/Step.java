@@ -0,0 +1,8 @@
+package ru.staffly.load;
+
+/** Один HTTP-вызов сценария от имени актёра. Ответ 4xx/5xx или исключение считается ошибкой шага. */
+@FunctionalInterface
+public interface Step {
+
+    Session.Response call(Session session) throws Exception;
+}
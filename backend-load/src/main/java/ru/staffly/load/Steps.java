@@ -0,0 +1,42 @@
+package ru.staffly.load;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/** Готовые шаги для сценариев. */
+public final class Steps {
+
+    private Steps() {
+    }
+
+    /** Вход по телефону и паролю; токен из ответа сохраняется в сессии. */
+    public static Step login() {
+        return s -> withToken(s, s.post("/api/auth/login",
+                Map.of("phone", s.actor().phone(), "password", s.actor().password())));
+    }
+
+    /** Токен с restaurantId — без него эндпоинты ресторана недоступны. */
+    public static Step switchRestaurant() {
+        return s -> withToken(s, s.post("/api/auth/switch-restaurant",
+                Map.of("restaurantId", s.actor().restaurant().id())));
+    }
+
+    public static Step get(Function<Actor, String> path) {
+        return s -> s.get(path.apply(s.actor()));
+    }
+
+    public static Step post(Function<Actor, String> path) {
+        return s -> s.post(path.apply(s.actor()), null);
+    }
+
+    public static Step post(Function<Actor, String> path, Function<Actor, Object> body) {
+        return s -> s.post(path.apply(s.actor()), body.apply(s.actor()));
+    }
+
+    private static Session.Response withToken(Session session, Session.Response response) throws Exception {
+        if (response.ok()) {
+            session.token(response.json().get("token").asText());
+        }
+        return response;
+    }
+}
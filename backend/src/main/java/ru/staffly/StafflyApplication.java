@@ -4,10 +4,14 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import ru.staffly.auth.config.AuthProperties;
+import ru.staffly.common.db.ReplicaProperties;
+import ru.staffly.common.metrics.SqlBudgetProperties;
+import ru.staffly.media.MediaProperties;
 import ru.staffly.push.config.PushProperties;
 
 @SpringBootApplication
-@EnableConfigurationProperties({AuthProperties.class, PushProperties.class})
+@EnableConfigurationProperties({AuthProperties.class, PushProperties.class, MediaProperties.class, SqlBudgetProperties.class,
+        ReplicaProperties.class})
 public class StafflyApplication {
     public static void main(String[] args) {
         SpringApplication.run(StafflyApplication.class, args);
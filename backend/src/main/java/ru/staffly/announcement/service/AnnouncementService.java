@@ -18,6 +18,7 @@ import ru.staffly.inbox.repository.InboxMessageRepository;
 import ru.staffly.inbox.service.InboxMessageService;
 import ru.staffly.member.model.RestaurantMember;
 import ru.staffly.member.repository.RestaurantMemberRepository;
+import ru.staffly.push.service.PushEnqueueService;
 import ru.staffly.restaurant.model.Restaurant;
 import ru.staffly.restaurant.repository.RestaurantRepository;
 import ru.staffly.security.SecurityService;
@@ -26,6 +27,8 @@ import ru.staffly.user.repository.UserRepository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -33,6 +36,7 @@ public class AnnouncementService {
 
     private final InboxMessageRepository messages;
     private final InboxMessageService inboxMessages;
+    private final PushEnqueueService pushEnqueueService;
     private final RestaurantRepository restaurants;
     private final PositionRepository positions;
     private final RestaurantMemberRepository members;
@@ -101,20 +105,19 @@ public class AnnouncementService {
         }
 
         List<Position> targetPositions = resolvePositions(restaurantId, request.positionIds());
-        List<RestaurantMember> targets = resolveRecipients(restaurantId, targetPositions);
-        Restaurant restaurant = existing.getRestaurant();
-        User creator = existing.getCreatedBy();
-
-        existing.setExpiresAt(today.minusDays(1));
-        messages.save(existing);
+        Set<Long> previousPositionIds = existing.getPositions().stream()
+                .map(Position::getId)
+                .collect(Collectors.toSet());
+        List<Position> addedPositions = targetPositions.stream()
+                .filter(position -> !previousPositionIds.contains(position.getId()))
+                .toList();
 
-        InboxMessage message = inboxMessages.createAnnouncement(
-                restaurant,
-                creator,
+        InboxMessage message = inboxMessages.updateAnnouncement(
+                existing,
                 content,
                 expiresAt,
                 targetPositions,
-                targets
+                resolveRecipients(restaurantId, addedPositions)
         );
 
         return toDto(message);
@@ -126,6 +129,7 @@ public class AnnouncementService {
         InboxMessage message = messages.findByIdAndRestaurantId(announcementId, restaurantId)
                 .filter(item -> item.getType() == InboxMessageType.ANNOUNCEMENT)
                 .orElseThrow(() -> new NotFoundException("Announcement not found: " + announcementId));
+        pushEnqueueService.forgetMessages(List.of(message.getId()));
         messages.delete(message);
     }
 
@@ -2,10 +2,67 @@ package ru.staffly.auth.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+
 @ConfigurationProperties(prefix = "app.auth")
 public record AuthProperties(
         long accessTtlMinutes,
         long refreshTtlDays,
         String refreshCookieName,
-        String refreshCookiePath
-) {}
\ No newline at end of file
+        String refreshCookiePath,
+        Sessions sessions,
+        Hashing hashing,
+        RateLimit rateLimit
+) {
+    public AuthProperties {
+        if (sessions == null) sessions = new Sessions(0, null, 0);
+        if (hashing == null) hashing = new Hashing(0, 0, null, null);
+        if (rateLimit == null) rateLimit = new RateLimit(0, 0, 0, 0, 0);
+    }
+
+    /**
+     * @param maxActive        сколько активных refresh-сессий держим на пользователя, самые старые отзываются
+     * @param revokedRetention сколько хранить отозванные строки перед удалением
+     * @param purgeBatchSize   строк за один DELETE при очистке
+     */
+    public record Sessions(int maxActive, Duration revokedRetention, int purgeBatchSize) {
+        public Sessions {
+            if (maxActive <= 0) maxActive = 10;
+            if (revokedRetention == null) revokedRetention = Duration.ofDays(1);
+            if (purgeBatchSize <= 0) purgeBatchSize = 5000;
+        }
+    }
+
+    /**
+     * Отдельный пул для bcrypt, чтобы всплеск логинов не занимал потоки Tomcat.
+     *
+     * @param threads       потоков хеширования
+     * @param queueCapacity задач в очереди, сверх — сразу 503
+     * @param queueTimeout  сколько задача может ждать в очереди, прежде чем её отбросят
+     * @param waitTimeout   сколько поток запроса ждёт результат (очередь + хеширование), дальше — 503
+     */
+    public record Hashing(int threads, int queueCapacity, Duration queueTimeout, Duration waitTimeout) {
+        public Hashing {
+            if (threads <= 0) threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+            if (queueCapacity <= 0) queueCapacity = 64;
+            if (queueTimeout == null) queueTimeout = Duration.ofSeconds(2);
+            if (waitTimeout == null) waitTimeout = queueTimeout.plusSeconds(1);
+        }
+    }
+
+    /**
+     * Token bucket на попытки входа/регистрации. Ёмкость — сколько попыток подряд,
+     * пополнение — попыток в минуту.
+     */
+    public record RateLimit(int phoneCapacity, int phoneRefillPerMinute,
+                            int ipCapacity, int ipRefillPerMinute,
+                            int stripes) {
+        public RateLimit {
+            if (phoneCapacity <= 0) phoneCapacity = 5;
+            if (phoneRefillPerMinute <= 0) phoneRefillPerMinute = 5;
+            if (ipCapacity <= 0) ipCapacity = 30;
+            if (ipRefillPerMinute <= 0) ipRefillPerMinute = 30;
+            if (stripes <= 0) stripes = 4096;
+        }
+    }
+}
@@ -10,14 +10,14 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import ru.staffly.auth.config.AuthProperties;
 import ru.staffly.auth.dto.AuthResponse;
 import ru.staffly.auth.dto.LoginRequest;
 import ru.staffly.auth.dto.RegisterRequest;
 import ru.staffly.auth.dto.SwitchRestaurantRequest;
+import ru.staffly.auth.hashing.PasswordHashingService;
+import ru.staffly.auth.ratelimit.AuthRateLimiter;
 import ru.staffly.auth.session.AuthSessionService;
 import ru.staffly.auth.session.RefreshCookieService;
 import ru.staffly.common.exception.BadRequestException;
@@ -44,7 +44,8 @@ import java.util.stream.Collectors;
 public class AuthController {
 
     private final UserRepository users;
-    private final PasswordEncoder encoder;
+    private final PasswordHashingService passwordHashing;
+    private final AuthRateLimiter rateLimiter;
     private final JwtService jwt;
     private final RestaurantMemberRepository memberRepository;
     private final SecurityService securityService;
@@ -55,7 +56,8 @@ public class AuthController {
 
     @Autowired
     public AuthController(UserRepository users,
-                          PasswordEncoder encoder,
+                          PasswordHashingService passwordHashing,
+                          AuthRateLimiter rateLimiter,
                           JwtService jwt,
                           RestaurantMemberRepository memberRepository,
                           SecurityService securityService,
@@ -64,7 +66,8 @@ public class AuthController {
                           AuthProperties authProperties,
                           @Value("${app.creator.phones:+79999999999}") String creatorPhonesCsv) {
         this.users = users;
-        this.encoder = encoder;
+        this.passwordHashing = passwordHashing;
+        this.rateLimiter = rateLimiter;
         this.jwt = jwt;
         this.memberRepository = memberRepository;
         this.securityService = securityService;
@@ -80,6 +83,8 @@ public class AuthController {
     @PostMapping("/register")
     public ResponseEntity<AuthResponse> register(@RequestBody @Valid RegisterRequest req,
                                                  HttpServletRequest request) {
+        rateLimiter.check(req.phone(), request.getRemoteAddr());
+
         // нормализация
         String phone = req.phone().trim();
         String email = req.email().trim().toLowerCase(Locale.ROOT);
@@ -110,7 +115,7 @@ public class AuthController {
                 .email(email)
                 .firstName(firstName)
                 .lastName(lastName)
-                .passwordHash(encoder.encode(req.password()))
+                .passwordHash(passwordHashing.encode(req.password()))
                 .birthDate(bd)
                 .active(true)
                 .build());
@@ -119,26 +124,27 @@ public class AuthController {
         List<String> roles = creatorPhones.contains(u.getPhone()) ? List.of("CREATOR") : List.of();
         var principal = new UserPrincipal(u.getId(), u.getPhone(), null, roles);
         String token = jwt.generateToken(principal);
-        String refreshToken = authSessionService.createSession(u.getId(), request.getHeader("User-Agent"), resolveIp(request));
+        String refreshToken = authSessionService.createSession(u.getId(), request.getHeader("User-Agent"), request.getRemoteAddr());
         var cookie = refreshCookieService.buildRefreshCookie(refreshToken, request);
         return ResponseEntity.ok()
                 .header(HttpHeaders.SET_COOKIE, cookie.toString())
                 .body(new AuthResponse(token));
     }
 
+    // Без @Transactional: соединение с БД не должно висеть, пока ждём bcrypt
     @PostMapping("/login")
-    @Transactional
     public ResponseEntity<AuthResponse> login(@RequestBody @Valid LoginRequest req,
                                               HttpServletRequest request) {
+        rateLimiter.check(req.phone(), request.getRemoteAddr());
         var u = users.findByPhone(req.phone())
                 .orElseThrow(() -> new NotFoundException("Пользователь не найдет"));
-        if (!encoder.matches(req.password(), u.getPasswordHash())) {
+        if (!passwordHashing.matches(req.password(), u.getPasswordHash())) {
             throw new BadRequestException("Неверные учетные данные");
         }
         List<String> roles = creatorPhones.contains(u.getPhone()) ? List.of("CREATOR") : List.of();
         var principal = new UserPrincipal(u.getId(), u.getPhone(), null, roles);
         String token = jwt.generateToken(principal);
-        String refreshToken = authSessionService.createSession(u.getId(), request.getHeader("User-Agent"), resolveIp(request));
+        String refreshToken = authSessionService.createSession(u.getId(), request.getHeader("User-Agent"), request.getRemoteAddr());
         var cookie = refreshCookieService.buildRefreshCookie(refreshToken, request);
         return ResponseEntity.ok()
                 .header(HttpHeaders.SET_COOKIE, cookie.toString())
@@ -152,7 +158,7 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         try {
-            var rotation = authSessionService.rotateSession(refreshToken, request.getHeader("User-Agent"), resolveIp(request));
+            var rotation = authSessionService.rotateSession(refreshToken, request.getHeader("User-Agent"), request.getRemoteAddr());
             var user = users.findById(rotation.userId()).orElseThrow();
             List<String> roles = creatorPhones.contains(user.getPhone()) ? List.of("CREATOR") : List.of();
             var principal = new UserPrincipal(user.getId(), user.getPhone(), null, roles);
@@ -211,16 +217,4 @@ public class AuthController {
         }
         return null;
     }
-
-    private String resolveIp(HttpServletRequest request) {
-        String forwardedFor = request.getHeader("X-Forwarded-For");
-        if (forwardedFor != null && !forwardedFor.isBlank()) {
-            return forwardedFor.split(",")[0].trim();
-        }
-        String realIp = request.getHeader("X-Real-IP");
-        if (realIp != null && !realIp.isBlank()) {
-            return realIp;
-        }
-        return request.getRemoteAddr();
-    }
 }
\ No newline at end of file
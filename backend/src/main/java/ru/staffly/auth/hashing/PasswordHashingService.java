@@ -0,0 +1,125 @@
+package ru.staffly.auth.hashing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import ru.staffly.auth.config.AuthProperties;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Выполняет bcrypt на собственном ограниченном пуле. Запросы, которые не помещаются в очередь
+ * или простояли в ней дольше {@code app.auth.hashing.queue-timeout}, получают 503 без хеширования;
+ * поток запроса ждёт результат не дольше {@code app.auth.hashing.wait-timeout}.
+ */
+@Component
+public class PasswordHashingService {
+    private static final String OVERLOADED = "Сервер перегружен, попробуйте войти позже";
+
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final long queueTimeoutNanos;
+    private final long waitTimeoutNanos;
+    private final Timer queueWait;
+    private final Timer matchesTime;
+    private final Timer encodeTime;
+    private final Counter rejected;
+
+    public PasswordHashingService(PasswordEncoder encoder, AuthProperties authProperties, MeterRegistry registry) {
+        var cfg = authProperties.hashing();
+        this.encoder = encoder;
+        this.queueTimeoutNanos = cfg.queueTimeout().toNanos();
+        this.waitTimeoutNanos = cfg.waitTimeout().toNanos();
+        this.executor = new ThreadPoolExecutor(
+                cfg.threads(), cfg.threads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cfg.queueCapacity()),
+                threadFactory(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.queueWait = Timer.builder("auth.hashing.queue.wait").register(registry);
+        this.matchesTime = Timer.builder("auth.hashing.duration").tag("op", "matches").register(registry);
+        this.encodeTime = Timer.builder("auth.hashing.duration").tag("op", "encode").register(registry);
+        this.rejected = Counter.builder("auth.hashing.rejected").register(registry);
+        Gauge.builder("auth.hashing.queue.size", executor, e -> e.getQueue().size()).register(registry);
+    }
+
+    public boolean matches(CharSequence raw, String hash) {
+        return run(matchesTime, () -> encoder.matches(raw, hash));
+    }
+
+    public String encode(CharSequence raw) {
+        return run(encodeTime, () -> encoder.encode(raw));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Timer timer, Supplier<T> work) {
+        long enqueuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long waited = System.nanoTime() - enqueuedAt;
+                queueWait.record(waited, TimeUnit.NANOSECONDS);
+                // клиент, скорее всего, уже ушёл по таймауту — не тратим на него CPU
+                if (waited > queueTimeoutNanos) throw new QueueTimeoutException();
+                return timer.record(work);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, OVERLOADED);
+        }
+
+        try {
+            return future.get(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, OVERLOADED);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, OVERLOADED);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof QueueTimeoutException) {
+                rejected.increment();
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, OVERLOADED);
+            }
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger seq = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, "password-hash-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    private static final class QueueTimeoutException extends RuntimeException {
+        QueueTimeoutException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package ru.staffly.auth.job;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.staffly.auth.config.AuthProperties;
+import ru.staffly.auth.session.AuthSessionMetrics;
+import ru.staffly.auth.session.AuthSessionRepository;
+import ru.staffly.common.metrics.JobMetrics;
+import ru.staffly.common.time.TimeProvider;
+
+import java.time.LocalDateTime;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuthSessionPurgeJob {
+    private final AuthSessionRepository sessions;
+    private final AuthSessionMetrics metrics;
+    private final AuthProperties authProperties;
+    private final JobMetrics jobMetrics;
+
+    // Каждые 15 минут; каждая пачка — отдельная короткая транзакция, чтобы не держать блокировки
+    @Scheduled(cron = "0 */15 * * * *")
+    public void purge() {
+        jobMetrics.record("auth-session-purge", this::purgeExpired);
+    }
+
+    private int purgeExpired() {
+        var cfg = authProperties.sessions();
+        LocalDateTime now = TimeProvider.nowUtc();
+        LocalDateTime revokedBefore = now.minus(cfg.revokedRetention());
+
+        int total = 0;
+        int deleted;
+        do {
+            deleted = sessions.purgeBatch(now, revokedBefore, cfg.purgeBatchSize());
+            total += deleted;
+            metrics.purged(deleted);
+        } while (deleted == cfg.purgeBatchSize());
+
+        metrics.tableState(sessions.countActive(now), sessions.tableSizeBytes());
+        if (total > 0) {
+            log.info("Purged {} expired/revoked auth sessions", total);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,51 @@
+package ru.staffly.auth.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import ru.staffly.auth.config.AuthProperties;
+
+import java.util.Locale;
+
+/**
+ * Ограничение попыток входа и регистрации по телефону и IP. Проверяется до любых обращений
+ * к БД и bcrypt, поэтому перебор паролей отсекается дёшево.
+ */
+@Component
+public class AuthRateLimiter {
+    private final TokenBucketLimiter byPhone;
+    private final TokenBucketLimiter byIp;
+    private final Counter phoneRejected;
+    private final Counter ipRejected;
+
+    public AuthRateLimiter(AuthProperties authProperties, MeterRegistry registry) {
+        var cfg = authProperties.rateLimit();
+        this.byPhone = new TokenBucketLimiter(cfg.stripes(), cfg.phoneCapacity(), cfg.phoneRefillPerMinute());
+        this.byIp = new TokenBucketLimiter(cfg.stripes(), cfg.ipCapacity(), cfg.ipRefillPerMinute());
+        this.phoneRejected = Counter.builder("auth.ratelimit.rejected").tag("key", "phone").register(registry);
+        this.ipRejected = Counter.builder("auth.ratelimit.rejected").tag("key", "ip").register(registry);
+    }
+
+    /**
+     * @param phone может быть {@code null} — тогда проверяется только IP
+     * @throws ResponseStatusException 429, если лимит исчерпан
+     */
+    public void check(String phone, String ip) {
+        long now = System.currentTimeMillis();
+        if (ip != null && !byIp.tryAcquire(ip, now)) {
+            ipRejected.increment();
+            throw tooMany(byIp);
+        }
+        if (phone != null && !byPhone.tryAcquire(phone.trim().toLowerCase(Locale.ROOT), now)) {
+            phoneRejected.increment();
+            throw tooMany(byPhone);
+        }
+    }
+
+    private static ResponseStatusException tooMany(TokenBucketLimiter limiter) {
+        return new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                "Слишком много попыток, повторите через " + limiter.secondsUntilToken() + " сек.");
+    }
+}
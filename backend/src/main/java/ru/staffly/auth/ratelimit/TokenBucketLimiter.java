@@ -0,0 +1,60 @@
+package ru.staffly.auth.ratelimit;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free token bucket фиксированного размера: ключ хешируется в один из {@code stripes} слотов,
+ * состояние слота (время последнего списания + остаток в тысячных долях токена) упаковано в один long
+ * и обновляется через CAS. Коллизии ключей делят одно ведро — это лишь делает лимит строже,
+ * зато память не растёт от числа телефонов/IP и ничего не нужно вычищать.
+ */
+final class TokenBucketLimiter {
+    private static final int TOKEN_BITS = 20;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long MILLI = 1000;
+
+    private final AtomicLongArray slots;
+    private final int mask;
+    private final int seed = ThreadLocalRandom.current().nextInt();
+    private final long capacityMilli;
+    private final double refillMilliPerMs;
+
+    TokenBucketLimiter(int stripes, int capacity, int refillPerMinute) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.slots = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.capacityMilli = Math.min(capacity * MILLI, TOKEN_MASK);
+        this.refillMilliPerMs = refillPerMinute * MILLI / 60_000d;
+    }
+
+    /** Списывает один токен; {@code false} — ведро пустое. */
+    boolean tryAcquire(String key, long nowMillis) {
+        int index = slot(key);
+        while (true) {
+            long state = slots.get(index);
+            long tokens = capacityMilli;
+            if (state != 0) {
+                long last = state >>> TOKEN_BITS;
+                long elapsed = Math.max(0, nowMillis - last);
+                tokens = Math.min(capacityMilli, (state & TOKEN_MASK) + (long) (elapsed * refillMilliPerMs));
+            }
+            if (tokens < MILLI) return false;
+            long next = (nowMillis << TOKEN_BITS) | (tokens - MILLI);
+            if (slots.compareAndSet(index, state, next)) return true;
+        }
+    }
+
+    /** Сколько секунд ждать до следующего токена (оценка для Retry-After). */
+    long secondsUntilToken() {
+        return Math.max(1, (long) Math.ceil(MILLI / refillMilliPerMs / 1000d));
+    }
+
+    private int slot(String key) {
+        int h = key.hashCode() ^ seed;
+        h ^= (h >>> 16);
+        h *= 0x45d9f3b;
+        h ^= (h >>> 16);
+        return h & mask;
+    }
+}
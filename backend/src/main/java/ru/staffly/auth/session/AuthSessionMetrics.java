@@ -0,0 +1,58 @@
+package ru.staffly.auth.session;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Метрики refresh-сессий. Размеры таблицы обновляет {@link ru.staffly.auth.job.AuthSessionPurgeJob},
+ * чтобы скрейп не ходил в БД.
+ */
+@Component
+public class AuthSessionMetrics {
+    private final AtomicLong activeSessions = new AtomicLong();
+    private final AtomicLong tableBytes = new AtomicLong();
+    private final Timer rotationOk;
+    private final Timer rotationRejected;
+    private final Counter purged;
+    private final Counter capped;
+
+    public AuthSessionMetrics(MeterRegistry registry) {
+        Gauge.builder("auth.sessions.active", activeSessions, AtomicLong::get)
+                .description("Active refresh sessions")
+                .register(registry);
+        Gauge.builder("auth.sessions.table.size", tableBytes, AtomicLong::get)
+                .baseUnit("bytes")
+                .description("auth_sessions size including indexes")
+                .register(registry);
+        rotationOk = Timer.builder("auth.sessions.rotation").tag("outcome", "ok").register(registry);
+        rotationRejected = Timer.builder("auth.sessions.rotation").tag("outcome", "rejected").register(registry);
+        purged = Counter.builder("auth.sessions.purged").description("Deleted expired/revoked sessions").register(registry);
+        capped = Counter.builder("auth.sessions.capped").description("Sessions revoked by per-user cap").register(registry);
+    }
+
+    Timer.Sample startRotation() {
+        return Timer.start();
+    }
+
+    void stopRotation(Timer.Sample sample, boolean ok) {
+        sample.stop(ok ? rotationOk : rotationRejected);
+    }
+
+    void capped(int count) {
+        if (count > 0) capped.increment(count);
+    }
+
+    public void purged(int count) {
+        if (count > 0) purged.increment(count);
+    }
+
+    public void tableState(long active, long bytes) {
+        activeSessions.set(active);
+        tableBytes.set(bytes);
+    }
+}
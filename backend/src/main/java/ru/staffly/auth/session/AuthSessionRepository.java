@@ -1,9 +1,83 @@
 package ru.staffly.auth.session;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 public interface AuthSessionRepository extends JpaRepository<AuthSession, Long> {
-    Optional<AuthSession> findByRefreshHashAndRevokedAtIsNull(String refreshHash);
-}
\ No newline at end of file
+
+    /**
+     * Ротация одним запросом: отзываем живую сессию и тут же вставляем новую для того же пользователя.
+     * Пусто — токен неизвестен, уже отозван или истёк.
+     */
+    @Query(value = """
+            with rotated as (
+                update auth_sessions
+                set revoked_at = :now
+                where refresh_hash = :refreshHash
+                  and revoked_at is null
+                  and expires_at > :now
+                returning user_id
+            )
+            insert into auth_sessions (user_id, refresh_hash, created_at, expires_at, user_agent, ip)
+            select user_id, :newRefreshHash, :now, :expiresAt, :userAgent, :ip
+            from rotated
+            returning user_id
+            """, nativeQuery = true)
+    Optional<Long> rotate(@Param("refreshHash") String refreshHash,
+                          @Param("newRefreshHash") String newRefreshHash,
+                          @Param("now") LocalDateTime now,
+                          @Param("expiresAt") LocalDateTime expiresAt,
+                          @Param("userAgent") String userAgent,
+                          @Param("ip") String ip);
+
+    @Modifying
+    @Query(value = """
+            update auth_sessions
+            set revoked_at = :now
+            where refresh_hash = :refreshHash
+              and revoked_at is null
+            """, nativeQuery = true)
+    int revokeByRefreshHash(@Param("refreshHash") String refreshHash, @Param("now") LocalDateTime now);
+
+    /** Отзывает всё, что старше {@code keep} самых свежих активных сессий пользователя. */
+    @Modifying
+    @Query(value = """
+            update auth_sessions
+            set revoked_at = :now
+            where id in (
+                select id from auth_sessions
+                where user_id = :userId
+                  and revoked_at is null
+                order by created_at desc, id desc
+                offset :keep
+            )
+            """, nativeQuery = true)
+    int revokeOverflow(@Param("userId") Long userId, @Param("keep") int keep, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            delete from auth_sessions
+            where id in (
+                select id from auth_sessions
+                where expires_at < :now
+                   or revoked_at < :revokedBefore
+                limit :batch
+            )
+            """, nativeQuery = true)
+    int purgeBatch(@Param("now") LocalDateTime now,
+                   @Param("revokedBefore") LocalDateTime revokedBefore,
+                   @Param("batch") int batch);
+
+    @Query(value = "select count(*) from auth_sessions where revoked_at is null and expires_at > :now", nativeQuery = true)
+    long countActive(@Param("now") LocalDateTime now);
+
+    @Query(value = "select pg_total_relation_size('auth_sessions')", nativeQuery = true)
+    long tableSizeBytes();
+}
@@ -18,6 +18,7 @@ import java.util.HexFormat;
 public class AuthSessionService {
     private final AuthSessionRepository repository;
     private final AuthProperties authProperties;
+    private final AuthSessionMetrics metrics;
     private final SecureRandom secureRandom = new SecureRandom();
 
     public record RotationResult(Long userId, String refreshToken) {}
@@ -36,35 +37,39 @@ public class AuthSessionService {
                 .userAgent(userAgent)
                 .ip(ip)
                 .build();
-        repository.save(session);
+        repository.saveAndFlush(session);
+        // Новый логин вытесняет самые старые устройства сверх лимита
+        metrics.capped(repository.revokeOverflow(userId, authProperties.sessions().maxActive(), now));
         return refreshToken;
     }
 
+    /**
+     * Старая сессия отзывается и новая вставляется одним запросом, без предварительного чтения.
+     * Число активных сессий при ротации не меняется, поэтому лимит здесь не проверяем.
+     */
     @Transactional
     public RotationResult rotateSession(String refreshToken, String userAgent, String ip) {
-        String refreshHash = hash(refreshToken);
-        AuthSession session = repository.findByRefreshHashAndRevokedAtIsNull(refreshHash)
-                .orElseThrow(() -> new IllegalArgumentException("Invalid refresh token"));
+        var sample = metrics.startRotation();
+        String newRefresh = generateRefreshToken();
         LocalDateTime now = TimeProvider.nowUtc();
-        if (!session.getExpiresAt().isAfter(now)) {
-            session.setRevokedAt(now);
-            repository.save(session);
-            throw new IllegalArgumentException("Refresh token expired");
+        Long userId = repository.rotate(
+                hash(refreshToken),
+                hash(newRefresh),
+                now,
+                now.plusDays(authProperties.refreshTtlDays()),
+                userAgent,
+                ip
+        ).orElse(null);
+        metrics.stopRotation(sample, userId != null);
+        if (userId == null) {
+            throw new IllegalArgumentException("Invalid refresh token");
         }
-        session.setRevokedAt(now);
-        repository.save(session);
-        String newRefresh = createSession(session.getUserId(), userAgent, ip);
-        return new RotationResult(session.getUserId(), newRefresh);
+        return new RotationResult(userId, newRefresh);
     }
 
     @Transactional
     public void revokeSession(String refreshToken) {
-        String refreshHash = hash(refreshToken);
-        repository.findByRefreshHashAndRevokedAtIsNull(refreshHash)
-                .ifPresent(session -> {
-                    session.setRevokedAt(TimeProvider.nowUtc());
-                    repository.save(session);
-                });
+        repository.revokeByRefreshHash(hash(refreshToken), TimeProvider.nowUtc());
     }
 
     private String generateRefreshToken() {
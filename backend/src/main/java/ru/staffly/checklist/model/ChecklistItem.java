@@ -20,7 +20,8 @@ import java.time.Instant;
 public class ChecklistItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "checklist_item_seq")
+    @SequenceGenerator(name = "checklist_item_seq", sequenceName = "checklist_item_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -0,0 +1,186 @@
+package ru.staffly.common.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.staffly.dictionary.dto.PositionDto;
+import ru.staffly.dictionary.dto.ShiftDto;
+import ru.staffly.dictionary.mapper.PositionMapper;
+import ru.staffly.dictionary.mapper.ShiftMapper;
+import ru.staffly.dictionary.repository.PositionRepository;
+import ru.staffly.dictionary.repository.ShiftRepository;
+import ru.staffly.restaurant.repository.RestaurantRepository;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Справочники, которые меняются раз в несколько недель, а читаются почти в каждом запросе:
+ * часовой пояс и блокировка ресторана, должности и смены.
+ * <p>
+ * Хранятся неизменяемые снимки (DTO), а не сущности, чтобы их можно было отдавать в любую транзакцию.
+ * Сервисы, которые пишут эти данные, вызывают {@code evict*}: локальная запись сбрасывается сразу и ещё раз
+ * после завершения транзакции, остальные инстансы узнают через NOTIFY (см. {@link ReferenceDataListener}).
+ */
+@Component
+public class ReferenceDataCache {
+
+    static final String CHANNEL = "reference_data";
+
+    public record RestaurantRef(Long id, ZoneId zone, boolean locked) {}
+
+    enum Kind {
+        RESTAURANT,
+        POSITIONS,
+        SHIFTS
+    }
+
+    private final RestaurantRepository restaurants;
+    private final PositionRepository positions;
+    private final ShiftRepository shifts;
+    private final PositionMapper positionMapper;
+    private final ShiftMapper shiftMapper;
+    private final JdbcTemplate jdbc;
+
+    private final Cache<Long, RestaurantRef> restaurantCache;
+    private final Cache<Long, List<PositionDto>> positionCache;
+    private final Cache<Long, List<ShiftDto>> shiftCache;
+    private final Executor replicaCatchUp;
+
+    public ReferenceDataCache(RestaurantRepository restaurants,
+                              PositionRepository positions,
+                              ShiftRepository shifts,
+                              PositionMapper positionMapper,
+                              ShiftMapper shiftMapper,
+                              JdbcTemplate jdbc,
+                              MeterRegistry registry,
+                              @Value("${app.reference-cache.expire-after-write:PT30M}") Duration expireAfterWrite,
+                              @Value("${app.reference-cache.maximum-size:10000}") long maximumSize,
+                              @Value("${app.datasource.replica.enabled:false}") boolean replicaEnabled,
+                              @Value("${app.datasource.replica.max-lag:5s}") Duration replicaMaxLag) {
+        this.restaurants = restaurants;
+        this.positions = positions;
+        this.shifts = shifts;
+        this.positionMapper = positionMapper;
+        this.shiftMapper = shiftMapper;
+        this.jdbc = jdbc;
+        this.restaurantCache = build(registry, "reference.restaurants", expireAfterWrite, maximumSize);
+        this.positionCache = build(registry, "reference.positions", expireAfterWrite, maximumSize);
+        this.shiftCache = build(registry, "reference.shifts", expireAfterWrite, maximumSize);
+        // с репликой запрос сразу после сброса может прочитать с неё старое значение — сбрасываем ещё раз, когда она догонит
+        this.replicaCatchUp = replicaEnabled
+                ? CompletableFuture.delayedExecutor(replicaMaxLag.toMillis(), TimeUnit.MILLISECONDS)
+                : null;
+    }
+
+    private static <V> Cache<Long, V> build(MeterRegistry registry, String name, Duration ttl, long maximumSize) {
+        // TTL — страховка на случай пропущенного NOTIFY, а не основной механизм инвалидации
+        Cache<Long, V> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, name);
+        return cache;
+    }
+
+    /* ===== чтение ===== */
+
+    public Optional<RestaurantRef> restaurant(Long restaurantId) {
+        return Optional.ofNullable(restaurantCache.get(restaurantId, id -> restaurants.findById(id)
+                .map(r -> new RestaurantRef(r.getId(), ZoneId.of(r.getTimezone()), r.isLocked()))
+                .orElse(null)));
+    }
+
+    /** Все должности ресторана, включая неактивные. */
+    public List<PositionDto> positions(Long restaurantId) {
+        return positionCache.get(restaurantId, id -> positions.findByRestaurantId(id).stream()
+                .map(positionMapper::toDto)
+                .toList());
+    }
+
+    public List<PositionDto> activePositions(Long restaurantId) {
+        return positions(restaurantId).stream()
+                .filter(p -> Boolean.TRUE.equals(p.active()))
+                .toList();
+    }
+
+    public Set<Long> positionIds(Long restaurantId) {
+        return positions(restaurantId).stream()
+                .map(PositionDto::id)
+                .collect(Collectors.toSet());
+    }
+
+    public List<ShiftDto> activeShifts(Long restaurantId) {
+        return shiftCache.get(restaurantId, id -> shifts.findByRestaurantIdAndActiveTrue(id).stream()
+                .map(shiftMapper::toDto)
+                .toList());
+    }
+
+    /* ===== инвалидация ===== */
+
+    public void evictRestaurant(Long restaurantId) {
+        evict(Kind.RESTAURANT, restaurantId);
+    }
+
+    public void evictPositions(Long restaurantId) {
+        evict(Kind.POSITIONS, restaurantId);
+    }
+
+    public void evictShifts(Long restaurantId) {
+        evict(Kind.SHIFTS, restaurantId);
+    }
+
+    private void evict(Kind kind, Long restaurantId) {
+        evictLocal(kind, restaurantId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // пока транзакция открыта, параллельный запрос может успеть закэшировать старое значение
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictLocal(kind, restaurantId);
+                }
+            });
+        }
+        // NOTIFY внутри транзакции доставляется только после коммита, при откате — никому
+        jdbc.query("select pg_notify(?, ?)", rs -> null, CHANNEL, kind.name() + ":" + restaurantId);
+    }
+
+    void evictLocal(Kind kind, Long restaurantId) {
+        invalidate(kind, restaurantId);
+        if (replicaCatchUp != null) {
+            replicaCatchUp.execute(() -> invalidate(kind, restaurantId));
+        }
+    }
+
+    private void invalidate(Kind kind, Long restaurantId) {
+        switch (kind) {
+            case RESTAURANT -> {
+                restaurantCache.invalidate(restaurantId);
+                positionCache.invalidate(restaurantId);
+                shiftCache.invalidate(restaurantId);
+            }
+            case POSITIONS -> positionCache.invalidate(restaurantId);
+            case SHIFTS -> shiftCache.invalidate(restaurantId);
+        }
+    }
+
+    void evictAllLocal() {
+        restaurantCache.invalidateAll();
+        positionCache.invalidateAll();
+        shiftCache.invalidateAll();
+    }
+}
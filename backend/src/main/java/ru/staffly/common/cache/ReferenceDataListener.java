@@ -0,0 +1,33 @@
+package ru.staffly.common.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.staffly.common.db.PgChannelHandler;
+
+/**
+ * Сбрасывает локальный кэш по NOTIFY об изменении справочников от других инстансов.
+ * После обрыва соединения сбрасывается весь кэш — уведомления за время простоя потеряны.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReferenceDataListener implements PgChannelHandler {
+
+    private final ReferenceDataCache cache;
+
+    @Override
+    public String channel() {
+        return ReferenceDataCache.CHANNEL;
+    }
+
+    @Override
+    public void onNotification(String payload) {
+        int sep = payload.indexOf(':');
+        ReferenceDataCache.Kind kind = ReferenceDataCache.Kind.valueOf(payload.substring(0, sep));
+        cache.evictLocal(kind, Long.parseLong(payload.substring(sep + 1)));
+    }
+
+    @Override
+    public void onReconnect() {
+        cache.evictAllLocal();
+    }
+}
@@ -0,0 +1,39 @@
+package ru.staffly.common.db;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Аренда в таблице db_lease: работу с этим именем выполняет один инстанс. Держатель продлевает аренду
+ * раньше, чем она истечёт; если он упал, её забирает другой после {@code ttl}. Время — часы БД,
+ * поэтому расхождение часов между инстансами не важно.
+ */
+@Component
+public class DbLease {
+
+    private final JdbcTemplate jdbc;
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+
+    public DbLease(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** Захватить или продлить аренду; {@code false} — её держит другой инстанс. */
+    public boolean tryAcquire(String name, Duration ttl) {
+        return jdbc.update("""
+                insert into db_lease (name, owner, expires_at)
+                values (?, ?, now() + make_interval(secs => ?))
+                on conflict (name) do update
+                    set owner = excluded.owner, expires_at = excluded.expires_at
+                    where db_lease.owner = excluded.owner or db_lease.expires_at < now()
+                """, name, owner, (double) ttl.toMillis() / 1000) == 1;
+    }
+
+    public void release(String name) {
+        jdbc.update("delete from db_lease where name = ? and owner = ?", name, owner);
+    }
+}
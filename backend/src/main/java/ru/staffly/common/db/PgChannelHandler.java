@@ -0,0 +1,12 @@
+package ru.staffly.common.db;
+
+/** Подписчик канала PostgreSQL NOTIFY, см. {@link PgNotificationListener}. */
+public interface PgChannelHandler {
+
+    String channel();
+
+    void onNotification(String payload);
+
+    /** После (пере)подключения: уведомления за время простоя потеряны, состояние нужно перечитать. */
+    void onReconnect();
+}
@@ -0,0 +1,106 @@
+package ru.staffly.common.db;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Одно соединение с LISTEN на каналы всех {@link PgChannelHandler}: уведомления от других инстансов
+ * (web и worker). Соединение вне пула — LISTEN живёт, пока живёт соединение. После обрыва каждый
+ * подписчик получает {@link PgChannelHandler#onReconnect()}.
+ */
+@Slf4j
+@Component
+public class PgNotificationListener {
+
+    private static final int POLL_TIMEOUT_MS = 10_000;
+    private static final long RECONNECT_DELAY_MS = 5_000;
+
+    private final Map<String, PgChannelHandler> handlers;
+    private final DataSourceProperties dataSource;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public PgNotificationListener(List<PgChannelHandler> handlers, DataSourceProperties dataSource) {
+        this.handlers = handlers.stream().collect(Collectors.toMap(PgChannelHandler::channel, Function.identity()));
+        this.dataSource = dataSource;
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        thread = new Thread(this::run, "pg-notification-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        thread.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSource.determineUrl(), dataSource.determineUsername(), dataSource.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    for (String channel : handlers.keySet()) {
+                        statement.execute("LISTEN " + channel);
+                    }
+                }
+                handlers.values().forEach(this::reconnected);
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null) continue;
+                    for (PGNotification notification : notifications) {
+                        dispatch(notification);
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) return;
+                log.warn("Notification listener disconnected, retrying in {} ms: {}", RECONNECT_DELAY_MS, e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void reconnected(PgChannelHandler handler) {
+        try {
+            handler.onReconnect();
+        } catch (RuntimeException e) {
+            log.warn("Reconnect handler for channel {} failed", handler.channel(), e);
+        }
+    }
+
+    private void dispatch(PGNotification notification) {
+        PgChannelHandler handler = handlers.get(notification.getName());
+        if (handler == null) return;
+        try {
+            handler.onNotification(notification.getParameter());
+        } catch (RuntimeException e) {
+            log.warn("Ignoring notification '{}' on channel {}: {}",
+                    notification.getParameter(), notification.getName(), e.getMessage());
+        }
+    }
+}
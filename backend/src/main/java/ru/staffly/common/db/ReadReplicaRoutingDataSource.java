@@ -0,0 +1,72 @@
+package ru.staffly.common.db;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.staffly.security.UserPrincipal;
+
+/**
+ * Read-only транзакции — на реплику, всё остальное — на primary.
+ * Флаг readOnly выставляется уже после того, как JPA попросил соединение, поэтому
+ * источник должен стоять за {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}:
+ * тогда выбор происходит на первом реальном запросе.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWritesTracker writes;
+    private final Counter replicaReads;
+    private final Counter laggingFallbacks;
+    private final Counter stickyFallbacks;
+
+    public ReadReplicaRoutingDataSource(ReplicaLagMonitor lagMonitor, ReadYourWritesTracker writes, MeterRegistry registry) {
+        this.lagMonitor = lagMonitor;
+        this.writes = writes;
+        this.replicaReads = Counter.builder("db.routing.reads").tag("target", "replica").register(registry);
+        this.laggingFallbacks = Counter.builder("db.routing.reads").tag("target", "primary").tag("reason", "replica_lag").register(registry);
+        this.stickyFallbacks = Counter.builder("db.routing.reads").tag("target", "primary").tag("reason", "read_your_writes").register(registry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Long userId = currentUserId();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            rememberWriteOnCommit(userId);
+            return Target.PRIMARY;
+        }
+        if (!lagMonitor.isUsable()) {
+            laggingFallbacks.increment();
+            return Target.PRIMARY;
+        }
+        if (userId != null && writes.isSticky(userId)) {
+            stickyFallbacks.increment();
+            return Target.PRIMARY;
+        }
+        replicaReads.increment();
+        return Target.REPLICA;
+    }
+
+    private void rememberWriteOnCommit(Long userId) {
+        if (userId == null || !TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                writes.wrote(userId);
+            }
+        });
+    }
+
+    private static Long currentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.getPrincipal() instanceof UserPrincipal principal ? principal.userId() : null;
+    }
+}
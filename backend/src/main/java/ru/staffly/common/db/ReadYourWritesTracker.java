@@ -0,0 +1,38 @@
+package ru.staffly.common.db;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Помнит, кто недавно писал: такой пользователь в течение окна читает с primary,
+ * чтобы не увидеть собственные изменения «откатившимися» из-за отставания реплики.
+ * Состояние локально для инстанса — при нескольких инстансах за балансировщиком окно стоит брать с запасом.
+ */
+public class ReadYourWritesTracker {
+
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final long windowNanos;
+    private final Map<Long, Long> stickyUntil = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    void wrote(Long userId) {
+        long now = System.nanoTime();
+        stickyUntil.put(userId, now + windowNanos);
+        if (stickyUntil.size() > PURGE_THRESHOLD) {
+            stickyUntil.values().removeIf(until -> until - now <= 0);
+        }
+    }
+
+    boolean isSticky(Long userId) {
+        Long until = stickyUntil.get(userId);
+        if (until == null) return false;
+        if (until - System.nanoTime() > 0) return true;
+        stickyUntil.remove(userId, until);
+        return false;
+    }
+}
@@ -0,0 +1,68 @@
+package ru.staffly.common.db;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Замеряет отставание реплики. Пока реплика недоступна или отстаёт больше {@code max-lag},
+ * {@link ReadReplicaRoutingDataSource} отправляет чтения на primary.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    // Реплика, догнавшая всё полученное, не отстаёт, даже если последняя транзакция была давно
+    private static final String LAG_SQL = """
+            select case
+                       when not pg_is_in_recovery() then 0
+                       when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                       else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0)
+                   end
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final double maxLagSeconds;
+    private volatile double lagSeconds = Double.NaN;
+    private volatile boolean usable;
+
+    public ReplicaLagMonitor(DataSource replica, Duration maxLag, MeterRegistry registry) {
+        this.jdbc = new JdbcTemplate(replica);
+        this.jdbc.setQueryTimeout(2);
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        Gauge.builder("db.replica.lag", this, m -> m.lagSeconds)
+                .baseUnit("seconds")
+                .description("Отставание реплики; NaN — реплика недоступна")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval:PT2S}")
+    public void check() {
+        boolean wasUsable = usable;
+        try {
+            Double lag = jdbc.queryForObject(LAG_SQL, Double.class);
+            lagSeconds = lag == null ? 0 : lag;
+            usable = lagSeconds <= maxLagSeconds;
+            if (wasUsable && !usable) {
+                log.warn("Replica lag {}s exceeds {}s, reads go to primary", lagSeconds, maxLagSeconds);
+            }
+        } catch (RuntimeException e) {
+            lagSeconds = Double.NaN;
+            usable = false;
+            if (wasUsable) {
+                log.warn("Replica unavailable, reads go to primary: {}", e.getMessage());
+            }
+        }
+        if (!wasUsable && usable) {
+            log.info("Replica is back, lag {}s", lagSeconds);
+        }
+    }
+
+    boolean isUsable() {
+        return usable;
+    }
+}
@@ -0,0 +1,33 @@
+package ru.staffly.common.db;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Реплика PostgreSQL для транзакций {@code @Transactional(readOnly = true)}.
+ *
+ * @param enabled          выключено — всё идёт в основной пул, как раньше
+ * @param maximumPoolSize  размер пула реплики
+ * @param maxLag           отставание, после которого чтения возвращаются на primary
+ * @param lagCheckInterval как часто замеряем отставание
+ * @param stickyWindow     сколько после записи пользователь читает с primary (read-your-writes)
+ */
+@ConfigurationProperties(prefix = "app.datasource.replica")
+public record ReplicaProperties(
+        boolean enabled,
+        String url,
+        String username,
+        String password,
+        int maximumPoolSize,
+        Duration maxLag,
+        Duration lagCheckInterval,
+        Duration stickyWindow
+) {
+    public ReplicaProperties {
+        if (maximumPoolSize <= 0) maximumPoolSize = 10;
+        if (maxLag == null) maxLag = Duration.ofSeconds(5);
+        if (lagCheckInterval == null) lagCheckInterval = Duration.ofSeconds(2);
+        if (stickyWindow == null) stickyWindow = Duration.ofSeconds(5);
+    }
+}
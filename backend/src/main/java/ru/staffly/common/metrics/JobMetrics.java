@@ -0,0 +1,62 @@
+package ru.staffly.common.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntSupplier;
+
+/**
+ * Длительность и объём работы фоновых задач: {@code jobs.duration{job,outcome}} и {@code jobs.items.processed{job}}.
+ * Тело задачи возвращает число обработанных элементов. SQL прогона проверяется тем же бюджетом, что и HTTP.
+ * Пока прогон идёт, следующий триггер той же задачи пропускается ({@code jobs.skipped{job}}).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JobMetrics {
+
+    private final MeterRegistry registry;
+    private final SqlBudgetProperties sqlBudget;
+    private final SqlBudgetReporter sqlBudgetReporter;
+    private final Map<String, AtomicBoolean> running = new ConcurrentHashMap<>();
+
+    public int record(String job, IntSupplier body) {
+        // на платформенном планировщике (один поток) прогоны не пересекаются сами; на виртуальных потоках
+        // каждый cron-триггер получает свой поток, и долгий прогон догнал бы следующий
+        AtomicBoolean busy = running.computeIfAbsent(job, k -> new AtomicBoolean());
+        if (!busy.compareAndSet(false, true)) {
+            Counter.builder("jobs.skipped").tag("job", job).register(registry).increment();
+            log.info("Job {} is still running, skipping this trigger", job);
+            return 0;
+        }
+        try {
+            return recordExclusive(job, body);
+        } finally {
+            busy.set(false);
+        }
+    }
+
+    private int recordExclusive(String job, IntSupplier body) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "error";
+        SqlStats stats = SqlStats.begin("job " + job);
+        stats.budget("job " + job, sqlBudget.forJob(job), sqlBudget.mode() == SqlBudgetProperties.Mode.FAIL);
+        try {
+            int processed = body.getAsInt();
+            Counter.builder("jobs.items.processed").tag("job", job).register(registry).increment(processed);
+            outcome = "ok";
+            return processed;
+        } finally {
+            SqlStats.end();
+            sqlBudgetReporter.report("job", job, stats);
+            sample.stop(Timer.builder("jobs.duration").tag("job", job).tag("outcome", outcome).register(registry));
+        }
+    }
+}
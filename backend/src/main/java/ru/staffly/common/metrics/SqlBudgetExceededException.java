@@ -0,0 +1,8 @@
+package ru.staffly.common.metrics;
+
+public class SqlBudgetExceededException extends IllegalStateException {
+
+    public SqlBudgetExceededException(String scope, int budget, String sql) {
+        super("SQL budget exceeded for " + scope + ": more than " + budget + " statements, last: " + sql);
+    }
+}
@@ -0,0 +1,30 @@
+package ru.staffly.common.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/** Шаблон эндпоинта известен только после выбора хендлера — тогда и назначаем бюджет запроса. */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class SqlBudgetInterceptor implements HandlerInterceptor {
+
+    private final SqlBudgetProperties properties;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlStats stats = SqlStats.current();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (stats != null && pattern != null) {
+            stats.budget(request.getMethod() + " " + pattern,
+                    properties.forEndpoint(request.getMethod(), pattern.toString()),
+                    properties.mode() == SqlBudgetProperties.Mode.FAIL);
+        }
+        return true;
+    }
+}
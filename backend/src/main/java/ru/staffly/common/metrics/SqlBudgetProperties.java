@@ -0,0 +1,44 @@
+package ru.staffly.common.metrics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Map;
+
+/**
+ * Бюджет SQL на HTTP-запрос и прогон задачи.
+ *
+ * @param mode                 LOG — предупреждение и метрика; FAIL — исключение на первом запросе сверх бюджета (для интеграционных тестов)
+ * @param defaultMaxStatements бюджет эндпоинта по умолчанию, 0 — без лимита
+ * @param repeatThreshold      сколько одинаковых по форме запросов за запрос считаем N+1
+ * @param endpoints            бюджеты по эндпоинтам, ключ "METHOD /шаблон", например "GET /api/restaurants/{restaurantId}/schedules"
+ * @param jobs                 бюджеты по задачам, ключ — имя из {@link JobMetrics#record}
+ */
+@ConfigurationProperties(prefix = "app.sql-budget")
+public record SqlBudgetProperties(
+        Mode mode,
+        int defaultMaxStatements,
+        int repeatThreshold,
+        Map<String, Integer> endpoints,
+        Map<String, Integer> jobs
+) {
+    public SqlBudgetProperties {
+        if (mode == null) mode = Mode.LOG;
+        if (defaultMaxStatements < 0) defaultMaxStatements = 0;
+        if (repeatThreshold <= 0) repeatThreshold = 10;
+        endpoints = endpoints == null ? Map.of() : Map.copyOf(endpoints);
+        jobs = jobs == null ? Map.of() : Map.copyOf(jobs);
+    }
+
+    public enum Mode {
+        LOG,
+        FAIL
+    }
+
+    int forEndpoint(String method, String pattern) {
+        return endpoints.getOrDefault(method + " " + pattern, defaultMaxStatements);
+    }
+
+    int forJob(String job) {
+        return jobs.getOrDefault(job, 0);
+    }
+}
@@ -0,0 +1,42 @@
+package ru.staffly.common.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Итог окна {@link SqlStats}: превышение бюджета и N+1 пишутся в лог и в счётчики
+ * {@code sql.budget.exceeded} / {@code sql.repeated.statements} с тегами kind (http|job) и name.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SqlBudgetReporter {
+
+    private static final int MAX_SQL_IN_LOG = 300;
+
+    private final SqlBudgetProperties properties;
+    private final MeterRegistry registry;
+
+    void report(String kind, String name, SqlStats stats) {
+        if (stats.budget() > 0 && stats.statements() > stats.budget()) {
+            Counter.builder("sql.budget.exceeded").tag("kind", kind).tag("name", name).register(registry).increment();
+            log.warn("SQL budget exceeded: {} statements={} budget={} entityLoads={}",
+                    stats.scope(), stats.statements(), stats.budget(), stats.entityLoads());
+        }
+        Map.Entry<String, Integer> repeated = stats.mostRepeated();
+        if (repeated != null && repeated.getValue() >= properties.repeatThreshold()) {
+            Counter.builder("sql.repeated.statements").tag("kind", kind).tag("name", name).register(registry).increment();
+            log.warn("Possible N+1: {} ran the same statement {} times (of {}): {}",
+                    stats.scope(), repeated.getValue(), stats.statements(), abbreviate(repeated.getKey()));
+        }
+    }
+
+    private static String abbreviate(String sql) {
+        return sql.length() <= MAX_SQL_IN_LOG ? sql : sql.substring(0, MAX_SQL_IN_LOG) + "…";
+    }
+}
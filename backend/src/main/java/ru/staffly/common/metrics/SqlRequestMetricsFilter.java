@@ -0,0 +1,58 @@
+package ru.staffly.common.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Число SQL и загруженных сущностей на HTTP-запрос, с теми же тегами method/uri, что у http.server.requests.
+ * Гистограмма по эндпоинту показывает N+1 раньше, чем он станет видимым в латентности;
+ * превышения бюджета и повторяющиеся запросы отдельно разбирает {@link SqlBudgetReporter}.
+ */
+@Component
+@RequiredArgsConstructor
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class SqlRequestMetricsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry registry;
+    private final SqlBudgetReporter budgetReporter;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        SqlStats stats = SqlStats.begin(request.getMethod() + " " + request.getRequestURI());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SqlStats.end();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            summary("http.server.requests.sql.statements", request.getMethod(), uri).record(stats.statements());
+            summary("http.server.requests.sql.entity.loads", request.getMethod(), uri).record(stats.entityLoads());
+            budgetReporter.report("http", request.getMethod() + " " + uri, stats);
+        }
+    }
+
+    private DistributionSummary summary(String name, String method, String uri) {
+        return DistributionSummary.builder(name)
+                .tag("method", method)
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(500.0)
+                .register(registry);
+    }
+}
@@ -0,0 +1,98 @@
+package ru.staffly.common.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Счётчики SQL текущего потока: сколько statement'ов ушло в БД, сколько сущностей загружено
+ * и сколько раз повторилась каждая форма запроса (повторы — признак N+1).
+ * Считает только между {@link #begin} и {@link #end()}; вне этого окна вызовы Hibernate ничего не стоят.
+ */
+public final class SqlStats {
+
+    private static final ThreadLocal<SqlStats> CURRENT = new ThreadLocal<>();
+    // "in (?,?,?)" разной длины — одна и та же форма
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+
+    private String scope;
+    private final Map<String, Integer> shapes = new HashMap<>();
+    private int statements;
+    private int entityLoads;
+    private int budget;
+    private boolean failOverBudget;
+
+    private SqlStats(String scope) {
+        this.scope = scope;
+    }
+
+    public static SqlStats begin(String scope) {
+        SqlStats stats = new SqlStats(scope);
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    static SqlStats current() {
+        return CURRENT.get();
+    }
+
+    static void statementPrepared(String sql) {
+        SqlStats stats = CURRENT.get();
+        if (stats == null) return;
+        stats.shapes.merge(IN_LIST.matcher(sql).replaceAll("(?...)"), 1, Integer::sum);
+        stats.counted(sql);
+    }
+
+    /** Statement из JdbcTemplate: текст SQL там недоступен, поэтому он идёт в бюджет, но не в поиск N+1. */
+    static void jdbcStatementPrepared() {
+        SqlStats stats = CURRENT.get();
+        if (stats != null) stats.counted("(JdbcTemplate)");
+    }
+
+    private void counted(String sql) {
+        statements++;
+        if (failOverBudget && budget > 0 && statements > budget) {
+            throw new SqlBudgetExceededException(scope, budget, sql);
+        }
+    }
+
+    static void entityLoaded() {
+        SqlStats stats = CURRENT.get();
+        if (stats != null) stats.entityLoads++;
+    }
+
+    void budget(String scope, int budget, boolean failOverBudget) {
+        this.scope = scope;
+        this.budget = budget;
+        this.failOverBudget = failOverBudget;
+    }
+
+    public String scope() {
+        return scope;
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    public int entityLoads() {
+        return entityLoads;
+    }
+
+    int budget() {
+        return budget;
+    }
+
+    /** Самая частая форма запроса или null, если запросов не было. */
+    Map.Entry<String, Integer> mostRepeated() {
+        Map.Entry<String, Integer> max = null;
+        for (Map.Entry<String, Integer> e : shapes.entrySet()) {
+            if (max == null || e.getValue() > max.getValue()) max = e;
+        }
+        return max;
+    }
+}
@@ -0,0 +1,37 @@
+package ru.staffly.common.metrics;
+
+import org.hibernate.Interceptor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/** Подключает к Hibernate счётчики {@link SqlStats}: каждый подготовленный SQL и каждую загруженную сущность. */
+@Component
+public class SqlStatsHibernateCustomizer implements HibernatePropertiesCustomizer {
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, new CountingStatementInspector());
+        hibernateProperties.put(AvailableSettings.INTERCEPTOR, new EntityLoadInterceptor());
+    }
+
+    static final class CountingStatementInspector implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            SqlStats.statementPrepared(sql);
+            return sql;
+        }
+    }
+
+    static final class EntityLoadInterceptor implements Interceptor {
+        @Override
+        public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+            SqlStats.entityLoaded();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ru.staffly.common.metrics;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * JdbcTemplate, чьи statement'ы попадают в {@link SqlStats}: StatementInspector Hibernate их не видит,
+ * и без этого JDBC-репозитории (смены сотрудника, ячейки графика, кэш справочников) не входили бы в бюджет.
+ */
+public class SqlStatsJdbcTemplate extends JdbcTemplate {
+
+    public SqlStatsJdbcTemplate(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    @Override
+    protected void applyStatementSettings(Statement stmt) throws SQLException {
+        super.applyStatementSettings(stmt);
+        SqlStats.jdbcStatementPrepared();
+    }
+}
@@ -0,0 +1,68 @@
+package ru.staffly.common.metrics;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnNotWebApplication;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+
+/**
+ * Профиль worker запускается без веб-сервера, поэтому actuator там недоступен.
+ * Отдаём /actuator/prometheus встроенным в JDK HTTP-сервером на том же management-порту.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnNotWebApplication
+public class WorkerMetricsServer {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final PrometheusMeterRegistry registry;
+
+    @Value("${management.server.port:8081}")
+    private int port;
+
+    private HttpServer server;
+
+    @PostConstruct
+    void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/actuator/prometheus", exchange -> {
+            try (exchange) {
+                if (!"GET".equals(exchange.getRequestMethod())) {
+                    exchange.sendResponseHeaders(405, -1);
+                    return;
+                }
+                exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+                exchange.sendResponseHeaders(200, 0);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    registry.scrape(out);
+                }
+            }
+        });
+        server.setExecutor(Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "worker-metrics");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+        log.info("Worker metrics exposed on :{}/actuator/prometheus", port);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+}
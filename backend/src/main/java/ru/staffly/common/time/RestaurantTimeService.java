@@ -2,9 +2,9 @@ package ru.staffly.common.time;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import ru.staffly.common.cache.ReferenceDataCache;
 import ru.staffly.common.exception.NotFoundException;
 import ru.staffly.restaurant.model.Restaurant;
-import ru.staffly.restaurant.repository.RestaurantRepository;
 
 import java.time.Clock;
 import java.time.Instant;
@@ -15,7 +15,7 @@ import java.time.ZoneId;
 @RequiredArgsConstructor
 public class RestaurantTimeService {
 
-    private final RestaurantRepository restaurants;
+    private final ReferenceDataCache referenceData;
     private final Clock clock;
 
     public Instant nowInstant() {
@@ -27,9 +27,8 @@ public class RestaurantTimeService {
     }
 
     public ZoneId zoneByRestaurantId(Long restaurantId) {
-        return restaurants.findById(restaurantId)
-                .map(Restaurant::getTimezone)
-                .map(ZoneId::of)
+        return referenceData.restaurant(restaurantId)
+                .map(ReferenceDataCache.RestaurantRef::zone)
                 .orElseThrow(() -> new NotFoundException("Restaurant not found: " + restaurantId));
     }
 
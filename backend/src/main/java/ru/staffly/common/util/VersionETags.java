@@ -0,0 +1,25 @@
+package ru.staffly.common.util;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * ETag по счётчику версии сущности: проверить If-None-Match можно по одной колонке,
+ * не собирая тело ответа. Слабый, т.к. тело может уйти сжатым.
+ */
+public final class VersionETags {
+
+    private VersionETags() {}
+
+    public static String of(String kind, Long id, long version) {
+        return "W/\"" + kind + "-" + id + "-" + version + "\"";
+    }
+
+    /** Ответ, который браузер кеширует, но каждый раз перепроверяет по ETag. */
+    public static <T> ResponseEntity<T> ok(String etag, T body) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(etag)
+                .body(body);
+    }
+}
@@ -0,0 +1,31 @@
+package ru.staffly.config;
+
+import org.springframework.boot.autoconfigure.jdbc.JdbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.staffly.common.metrics.SqlStatsJdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Заменяет автоконфигурированный JdbcTemplate на считающий SQL для бюджета; NamedParameterJdbcTemplate
+ * автоконфигурация строит поверх него. Настройки spring.jdbc.template.* переносятся как есть.
+ */
+@Configuration
+@EnableConfigurationProperties(JdbcProperties.class)
+public class JdbcConfig {
+
+    @Bean
+    JdbcTemplate jdbcTemplate(DataSource dataSource, JdbcProperties properties) {
+        JdbcTemplate jdbcTemplate = new SqlStatsJdbcTemplate(dataSource);
+        JdbcProperties.Template template = properties.getTemplate();
+        jdbcTemplate.setFetchSize(template.getFetchSize());
+        jdbcTemplate.setMaxRows(template.getMaxRows());
+        if (template.getQueryTimeout() != null) {
+            jdbcTemplate.setQueryTimeout((int) template.getQueryTimeout().getSeconds());
+        }
+        return jdbcTemplate;
+    }
+}
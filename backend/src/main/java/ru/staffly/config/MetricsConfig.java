@@ -0,0 +1,19 @@
+package ru.staffly.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    // Глобальные счётчики Hibernate (statements, entity loads, кэши); требуют hibernate.generate_statistics
+    @Bean
+    MeterBinder hibernateMetrics(EntityManagerFactory entityManagerFactory) {
+        return registry -> HibernateMetrics.monitor(registry,
+                entityManagerFactory.unwrap(SessionFactory.class), "entityManagerFactory");
+    }
+}
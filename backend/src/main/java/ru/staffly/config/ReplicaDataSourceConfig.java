@@ -0,0 +1,74 @@
+package ru.staffly.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import ru.staffly.common.db.ReadReplicaRoutingDataSource;
+import ru.staffly.common.db.ReadYourWritesTracker;
+import ru.staffly.common.db.ReplicaLagMonitor;
+import ru.staffly.common.db.ReplicaProperties;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Включается {@code app.datasource.replica.enabled=true}. Основной пул собирается из тех же
+ * spring.datasource.*, что и без реплики; автоконфигурация DataSource при этом отступает.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    HikariDataSource replicaDataSource(ReplicaProperties replica, DataSourceProperties properties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(replica.url());
+        dataSource.setUsername(replica.username() != null ? replica.username() : properties.determineUsername());
+        dataSource.setPassword(replica.password() != null ? replica.password() : properties.determinePassword());
+        dataSource.setMaximumPoolSize(replica.maximumPoolSize());
+        dataSource.setReadOnly(true);
+        // реплика может быть недоступна на старте — тогда чтения просто идут на primary
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+
+    @Bean
+    ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replica,
+                                        ReplicaProperties properties,
+                                        MeterRegistry registry) {
+        return new ReplicaLagMonitor(replica, properties.maxLag(), registry);
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                          @Qualifier("replicaDataSource") DataSource replica,
+                          ReplicaLagMonitor lagMonitor,
+                          ReplicaProperties properties,
+                          MeterRegistry registry) {
+        ReadReplicaRoutingDataSource routing = new ReadReplicaRoutingDataSource(
+                lagMonitor, new ReadYourWritesTracker(properties.stickyWindow()), registry);
+        routing.setTargetDataSources(Map.of(
+                ReadReplicaRoutingDataSource.Target.PRIMARY, primary,
+                ReadReplicaRoutingDataSource.Target.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -1,6 +1,7 @@
 package ru.staffly.config;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -24,6 +25,9 @@ public class SecurityConfig {
 
     private final JwtAuthFilter jwtAuthFilter;
 
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     @Bean
     SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -36,10 +40,14 @@ public class SecurityConfig {
                                 "/api/ping",
                                 "/api/auth/**",
                                 "/api/push/vapid-public-key",
+                                "/api/calendar/*",
                                 "/actuator/health",
                                 "/actuator/info",
                                 "/error"
                         ).permitAll()
+                        // скрейп Prometheus — только через внутренний management-порт
+                        .requestMatchers(request -> request.getLocalPort() == managementPort
+                                && "/actuator/prometheus".equals(request.getRequestURI())).permitAll()
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                         .anyRequest().authenticated()
                 )
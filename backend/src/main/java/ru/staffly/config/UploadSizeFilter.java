@@ -0,0 +1,70 @@
+package ru.staffly.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Лимит multipart-запросов по эндпоинту. {@code spring.servlet.multipart} задаёт общий потолок — под импорт
+ * обучения; всем остальным загрузкам (аватары, картинки материалов) до разбора тела разрешено не больше
+ * {@code app.uploads.max-request-size}. Размер берётся из Content-Length, без него такой запрос не принимается.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class UploadSizeFilter extends OncePerRequestFilter {
+
+    private static final String IMPORT_PATH = "/api/restaurants/*/training/*/import";
+
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final long maxRequestBytes;
+
+    public UploadSizeFilter(@Value("${app.uploads.max-request-size:3MB}") DataSize maxRequestSize) {
+        this.maxRequestBytes = maxRequestSize.toBytes();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType == null
+                || !contentType.toLowerCase().startsWith(MediaType.MULTIPART_FORM_DATA_VALUE)
+                || matcher.match(IMPORT_PATH, request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        long length = request.getContentLengthLong();
+        if (length < 0) {
+            reject(response, HttpStatus.LENGTH_REQUIRED, "length_required", "Не указан размер загружаемого файла");
+            return;
+        }
+        if (length > maxRequestBytes) {
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE, "upload_too_large", "Файл слишком большой");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String error, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getWriter(), Map.of("error", error, "message", message));
+    }
+}
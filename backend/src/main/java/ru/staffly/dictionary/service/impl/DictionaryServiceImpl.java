@@ -3,6 +3,7 @@ package ru.staffly.dictionary.service.impl;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import ru.staffly.common.cache.ReferenceDataCache;
 import ru.staffly.common.exception.BadRequestException;
 import ru.staffly.common.exception.ConflictException;
 import ru.staffly.common.exception.ForbiddenException;
@@ -17,6 +18,7 @@ import ru.staffly.dictionary.model.Shift;
 import ru.staffly.dictionary.repository.PositionRepository;
 import ru.staffly.dictionary.repository.ShiftRepository;
 import ru.staffly.dictionary.service.DictionaryService;
+import ru.staffly.master_schedule.repository.MasterScheduleRepository;
 import ru.staffly.restaurant.model.Restaurant;
 import ru.staffly.restaurant.model.RestaurantRole;
 import ru.staffly.restaurant.repository.RestaurantRepository;
@@ -32,9 +34,11 @@ public class DictionaryServiceImpl implements DictionaryService {
     private final PositionRepository positions;
     private final ShiftRepository shifts;
     private final RestaurantRepository restaurants;
+    private final MasterScheduleRepository masterSchedules;
     private final PositionMapper positionMapper;
     private final ShiftMapper shiftMapper;
     private final SecurityService security;
+    private final ReferenceDataCache referenceData;
 
     /* ===================== Positions ===================== */
 
@@ -67,6 +71,7 @@ public class DictionaryServiceImpl implements DictionaryService {
                 r
         );
         p = positions.save(p);
+        referenceData.evictPositions(restaurantId);
         return positionMapper.toDto(p);
     }
 
@@ -82,10 +87,9 @@ public class DictionaryServiceImpl implements DictionaryService {
         }
 
         return (allowInactive
-                ? positions.findByRestaurantId(restaurantId)
-                : positions.findByRestaurantIdAndActiveTrue(restaurantId))
+                ? referenceData.positions(restaurantId)
+                : referenceData.activePositions(restaurantId))
                 .stream()
-                .map(positionMapper::toDto)
                 .sorted(Comparator.comparing(PositionDto::name, String.CASE_INSENSITIVE_ORDER))
                 .toList();
     }
@@ -131,6 +135,8 @@ public class DictionaryServiceImpl implements DictionaryService {
                 p.getRestaurant()
         );
         p = positions.save(p);
+        masterSchedules.bumpVersionByPositionId(p.getId());
+        referenceData.evictPositions(restaurantId);
         return positionMapper.toDto(p);
     }
 
@@ -152,6 +158,7 @@ public class DictionaryServiceImpl implements DictionaryService {
 
         p.setActive(false);
         positions.save(p);
+        referenceData.evictPositions(restaurantId);
     }
 
     /* ===================== Shifts ===================== */
@@ -179,6 +186,7 @@ public class DictionaryServiceImpl implements DictionaryService {
                 r
         );
         s = shifts.save(s);
+        referenceData.evictShifts(restaurantId);
         return shiftMapper.toDto(s);
     }
 
@@ -186,8 +194,7 @@ public class DictionaryServiceImpl implements DictionaryService {
     @Transactional(Transactional.TxType.SUPPORTS)
     public List<ShiftDto> listShifts(Long restaurantId, Long currentUserId) {
         security.assertMember(currentUserId, restaurantId);
-        return shifts.findByRestaurantIdAndActiveTrue(restaurantId)
-                .stream().map(shiftMapper::toDto).toList();
+        return referenceData.activeShifts(restaurantId);
     }
 
     @Override
@@ -215,6 +222,7 @@ public class DictionaryServiceImpl implements DictionaryService {
                 s.getRestaurant()
         );
         s = shifts.save(s);
+        referenceData.evictShifts(restaurantId);
         return shiftMapper.toDto(s);
     }
 
@@ -231,6 +239,7 @@ public class DictionaryServiceImpl implements DictionaryService {
 
         s.setActive(false);
         shifts.save(s);
+        referenceData.evictShifts(restaurantId);
     }
 
     /* ===================== Helpers ===================== */
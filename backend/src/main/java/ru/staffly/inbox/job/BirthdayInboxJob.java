@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import ru.staffly.common.metrics.JobMetrics;
 import ru.staffly.common.time.RestaurantTimeService;
 import ru.staffly.inbox.model.InboxMessage;
 import ru.staffly.inbox.model.InboxMessageType;
@@ -33,10 +34,16 @@ public class BirthdayInboxJob {
     private final InboxMessageRepository messages;
     private final InboxMessageService inboxMessages;
     private final RestaurantTimeService restaurantTime;
+    private final JobMetrics jobMetrics;
 
     @Scheduled(cron = "0 15 * * * *")
     @Transactional
     public void generateBirthdays() {
+        jobMetrics.record("birthday-inbox", this::generateForDueRestaurants);
+    }
+
+    private int generateForDueRestaurants() {
+        int created = 0;
         List<Restaurant> allRestaurants = restaurants.findAll();
         for (Restaurant restaurant : allRestaurants) {
             ZoneId zone = restaurantTime.zoneFor(restaurant);
@@ -54,7 +61,7 @@ public class BirthdayInboxJob {
             List<RestaurantMember> weekCelebrants = findCelebrantsByDate(membersList, weekAhead);
 
             for (RestaurantMember celebrant : weekCelebrants) {
-                createBirthdayMessage(
+                created += createBirthdayMessage(
                         restaurant,
                         celebrant,
                         membersList,
@@ -65,7 +72,7 @@ public class BirthdayInboxJob {
             }
 
             for (RestaurantMember celebrant : tomorrowCelebrants) {
-                createBirthdayMessage(
+                created += createBirthdayMessage(
                         restaurant,
                         celebrant,
                         membersList,
@@ -76,7 +83,7 @@ public class BirthdayInboxJob {
             }
 
             for (RestaurantMember celebrant : todaysCelebrants) {
-                createBirthdayMessage(
+                created += createBirthdayMessage(
                         restaurant,
                         celebrant,
                         membersList,
@@ -84,7 +91,7 @@ public class BirthdayInboxJob {
                         BirthdayKind.TODAY,
                         String.format("Сегодня у %s день рождения 🎉", celebrant.getUser().getFullName())
                 );
-                createBirthdayMessage(
+                created += createBirthdayMessage(
                         restaurant,
                         celebrant,
                         List.of(celebrant),
@@ -95,7 +102,8 @@ public class BirthdayInboxJob {
             }
         }
 
-        log.info("Birthday inbox job completed");
+        log.info("Birthday inbox job completed, messages={}", created);
+        return created;
     }
 
     private List<RestaurantMember> findCelebrantsByDate(List<RestaurantMember> membersList, LocalDate targetDate) {
@@ -113,7 +121,8 @@ public class BirthdayInboxJob {
         return celebrants;
     }
 
-    private void createBirthdayMessage(Restaurant restaurant,
+    /** @return 1, если сообщение создано или дополнено получателями, иначе 0 */
+    private int createBirthdayMessage(Restaurant restaurant,
                                        RestaurantMember celebrant,
                                        List<RestaurantMember> allRecipients,
                                        LocalDate targetDate,
@@ -124,7 +133,7 @@ public class BirthdayInboxJob {
                 .filter(member -> kind == BirthdayKind.GREET || !member.getId().equals(celebrant.getId()))
                 .toList();
         if (recipients.isEmpty()) {
-            return;
+            return 0;
         }
 
         String meta = String.format(
@@ -153,6 +162,7 @@ public class BirthdayInboxJob {
         } else {
             inboxMessages.ensureRecipientsBulk(message, recipients);
         }
+        return 1;
     }
 
     private enum BirthdayKind {
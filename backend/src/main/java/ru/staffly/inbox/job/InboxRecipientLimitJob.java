@@ -4,24 +4,56 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.staffly.common.metrics.JobMetrics;
 import ru.staffly.inbox.repository.InboxRecipientRepository;
 
+import java.util.List;
+
+/**
+ * Обрезает входящие сверх {@link #INBOX_LIMIT} только у сотрудников, чей счётчик в inbox_member_counter
+ * превысил лимит. Работа пропорциональна числу переполненных, а не всей истории входящих.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class InboxRecipientLimitJob {
 
     private static final int INBOX_LIMIT = 200;
+    private static final int MEMBER_BATCH = 100;
 
     private final InboxRecipientRepository recipients;
+    private final TransactionTemplate tx;
+    private final JobMetrics jobMetrics;
 
-    @Scheduled(cron = "0 10 3 * * *", zone = "UTC")
-    @Transactional
+    // Каждые 10 минут: переполненных немного, каждая пачка сотрудников — отдельная короткая транзакция
+    @Scheduled(cron = "0 */10 * * * *", zone = "UTC")
     public void enforceInboxRecipientLimit() {
-        int removed = recipients.deleteOverflowRecipients(INBOX_LIMIT);
+        jobMetrics.record("inbox-recipient-limit", this::trimOverflow);
+    }
+
+    private int trimOverflow() {
+        int removed = 0;
+        long afterMemberId = 0;
+        List<Long> memberIds;
+        do {
+            memberIds = recipients.findOverflowMemberIds(INBOX_LIMIT, afterMemberId, MEMBER_BATCH);
+            if (memberIds.isEmpty()) {
+                break;
+            }
+            List<Long> batch = memberIds;
+            removed += tx.execute(status -> {
+                recipients.lockMemberCounters(batch);
+                int deleted = recipients.deleteOverflowRecipients(batch, INBOX_LIMIT);
+                recipients.recountMemberCounters(batch);
+                return deleted;
+            });
+            afterMemberId = memberIds.get(memberIds.size() - 1);
+        } while (memberIds.size() == MEMBER_BATCH);
+
         if (removed > 0) {
             log.info("Inbox recipient limit cleanup removed {} rows", removed);
         }
+        return removed;
     }
-}
\ No newline at end of file
+}
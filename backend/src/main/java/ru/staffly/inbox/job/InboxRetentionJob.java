@@ -2,13 +2,16 @@ package ru.staffly.inbox.job;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.staffly.common.metrics.JobMetrics;
 import ru.staffly.common.time.RestaurantTimeService;
 import ru.staffly.inbox.model.InboxMessageType;
 import ru.staffly.inbox.repository.InboxMessageRepository;
 import ru.staffly.inbox.repository.InboxRecipientRepository;
+import ru.staffly.push.service.PushEnqueueService;
 import ru.staffly.restaurant.model.Restaurant;
 import ru.staffly.restaurant.repository.RestaurantRepository;
 
@@ -17,20 +20,30 @@ import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.function.Function;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class InboxRetentionJob {
 
+    // id выбираются и удаляются пачками, каждая в своей транзакции: память и блокировки не растут с объёмом
+    private static final Pageable CHUNK = Pageable.ofSize(1000);
+
     private final InboxMessageRepository messages;
     private final InboxRecipientRepository recipients;
+    private final PushEnqueueService pushEnqueueService;
     private final RestaurantRepository restaurants;
     private final RestaurantTimeService restaurantTime;
+    private final TransactionTemplate tx;
+    private final JobMetrics jobMetrics;
 
     @Scheduled(cron = "0 45 * * * *")
-    @Transactional
     public void cleanupInbox() {
+        jobMetrics.record("inbox-retention", this::deleteExpired);
+    }
+
+    private int deleteExpired() {
         Instant now = restaurantTime.nowInstant();
         int announcementsRemoved = 0;
         int eventsRemoved = 0;
@@ -48,21 +61,24 @@ public class InboxRetentionJob {
             LocalDate birthdayExpiresBefore = today.minusDays(7);
             Instant eventCreatedBefore = now.minus(30, ChronoUnit.DAYS);
 
-            announcementsRemoved += deleteMessages(messages.findAnnouncementIdsForCleanup(
+            announcementsRemoved += deleteMessages(page -> messages.findAnnouncementIdsForCleanup(
                     InboxMessageType.ANNOUNCEMENT,
                     restaurant.getId(),
                     announcementExpiresBefore,
-                    announcementCreatedBefore
+                    announcementCreatedBefore,
+                    page
             ));
-            eventsRemoved += deleteMessages(messages.findEventIdsForCleanup(
+            eventsRemoved += deleteMessages(page -> messages.findEventIdsForCleanup(
                     InboxMessageType.EVENT,
                     restaurant.getId(),
-                    eventCreatedBefore
+                    eventCreatedBefore,
+                    page
             ));
-            birthdaysRemoved += deleteMessages(messages.findBirthdayIdsForCleanup(
+            birthdaysRemoved += deleteMessages(page -> messages.findBirthdayIdsForCleanup(
                     InboxMessageType.BIRTHDAY,
                     restaurant.getId(),
-                    birthdayExpiresBefore
+                    birthdayExpiresBefore,
+                    page
             ));
         }
 
@@ -70,14 +86,26 @@ public class InboxRetentionJob {
             log.info("Inbox retention cleanup completed: announcements={}, events={}, birthdays={}",
                     announcementsRemoved, eventsRemoved, birthdaysRemoved);
         }
+        return announcementsRemoved + eventsRemoved + birthdaysRemoved;
     }
 
-    private int deleteMessages(List<Long> messageIds) {
-        if (messageIds == null || messageIds.isEmpty()) {
-            return 0;
-        }
-        recipients.deleteByMessageIdIn(messageIds);
-        messages.deleteAllByIdInBatch(messageIds);
-        return messageIds.size();
+    /** Удалённые строки выпадают из выборки, поэтому всегда берётся первая страница. */
+    private int deleteMessages(Function<Pageable, List<Long>> nextChunk) {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = tx.execute(status -> {
+                List<Long> messageIds = nextChunk.apply(CHUNK);
+                if (messageIds.isEmpty()) {
+                    return 0;
+                }
+                recipients.deleteByMessageIdIn(messageIds);
+                pushEnqueueService.forgetMessages(messageIds);
+                messages.deleteAllByIdInBatch(messageIds);
+                return messageIds.size();
+            });
+            total += deleted;
+        } while (deleted == CHUNK.getPageSize());
+        return total;
     }
 }
\ No newline at end of file
@@ -66,6 +66,13 @@ public class InboxMessage {
     @Column(name = "meta", columnDefinition = "text", nullable = false)
     private String meta;
 
+    /**
+     * Рассылка по {@link #positions} (пустой набор — всем сотрудникам): получатели вычисляются при чтении,
+     * строка inbox_recipients появляется только когда сотрудник прочитал или скрыл сообщение.
+     */
+    @Column(name = "broadcast", nullable = false)
+    private boolean broadcast;
+
     @ManyToMany
     @JoinTable(name = "inbox_message_positions",
             joinColumns = @JoinColumn(name = "message_id"),
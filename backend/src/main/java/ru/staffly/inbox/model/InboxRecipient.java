@@ -24,7 +24,8 @@ import java.time.Instant;
 public class InboxRecipient {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inbox_recipients_seq")
+    @SequenceGenerator(name = "inbox_recipients_seq", sequenceName = "inbox_recipients_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -1,5 +1,6 @@
 package ru.staffly.inbox.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -21,27 +22,45 @@ public interface InboxMessageRepository extends JpaRepository<InboxMessage, Long
 
     Optional<InboxMessage> findByRestaurantIdAndTypeAndMeta(Long restaurantId, InboxMessageType type, String meta);
 
+    /** Рассылка адресована сотруднику с этой должностью — ему можно завести строку состояния. */
+    @Query("""
+        select case when count(m) > 0 then true else false end
+        from InboxMessage m
+        where m.id = :messageId
+          and m.restaurant.id = :restaurantId
+          and m.broadcast = true
+          and (m.positions is empty
+            or exists (select 1 from InboxMessage bm join bm.positions p where bm = m and p.id = :positionId))
+        """)
+    boolean isBroadcastFor(@Param("messageId") Long messageId,
+                           @Param("restaurantId") Long restaurantId,
+                           @Param("positionId") Long positionId);
+
     @Query("""
         select m.id from InboxMessage m
         where m.type = :type
           and m.restaurant.id = :restaurantId
           and ((m.expiresAt is not null and m.expiresAt < :expiresBefore)
             or (m.expiresAt is null and m.createdAt < :createdBefore))
+        order by m.id
         """)
     List<Long> findAnnouncementIdsForCleanup(@Param("type") InboxMessageType type,
                                              @Param("restaurantId") Long restaurantId,
                                              @Param("expiresBefore") LocalDate expiresBefore,
-                                             @Param("createdBefore") Instant createdBefore);
+                                             @Param("createdBefore") Instant createdBefore,
+                                             Pageable pageable);
 
     @Query("""
         select m.id from InboxMessage m
         where m.type = :type
           and m.restaurant.id = :restaurantId
           and m.createdAt < :createdBefore
+        order by m.id
         """)
     List<Long> findEventIdsForCleanup(@Param("type") InboxMessageType type,
                                       @Param("restaurantId") Long restaurantId,
-                                      @Param("createdBefore") Instant createdBefore);
+                                      @Param("createdBefore") Instant createdBefore,
+                                      Pageable pageable);
 
     @Query("""
         select m.id from InboxMessage m
@@ -49,8 +68,10 @@ public interface InboxMessageRepository extends JpaRepository<InboxMessage, Long
           and m.restaurant.id = :restaurantId
           and m.expiresAt is not null
           and m.expiresAt < :expiresBefore
+        order by m.id
         """)
     List<Long> findBirthdayIdsForCleanup(@Param("type") InboxMessageType type,
                                          @Param("restaurantId") Long restaurantId,
-                                         @Param("expiresBefore") LocalDate expiresBefore);
+                                         @Param("expiresBefore") LocalDate expiresBefore,
+                                         Pageable pageable);
 }
\ No newline at end of file
@@ -1,8 +1,8 @@
 package ru.staffly.inbox.repository;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.Modifying;
@@ -11,10 +11,16 @@ import ru.staffly.inbox.model.InboxEventSubtype;
 import ru.staffly.inbox.model.InboxMessageType;
 import ru.staffly.inbox.model.InboxRecipient;
 import ru.staffly.inbox.model.InboxState;
+import ru.staffly.inbox.repository.projection.InboxEntry;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public interface InboxRecipientRepository extends JpaRepository<InboxRecipient, Long> {
 
@@ -26,128 +32,255 @@ public interface InboxRecipientRepository extends JpaRepository<InboxRecipient,
         """)
     List<Long> findMemberIdsByMessageId(@Param("messageId") Long messageId);
 
-    @EntityGraph(attributePaths = {"message", "message.createdBy", "message.positions"})
-    @Query("""
-        select r from InboxRecipient r
-        join r.message m
-        where r.member.id = :memberId
-          and m.restaurant.id = :restaurantId
-          and m.type in :types
-          and r.archivedAt is null
-          and r.readAt is null
-          and (m.expiresAt is null or m.expiresAt >= :today)
-        order by m.createdAt desc
-        """)
-    Page<InboxRecipient> findUnreadByTypes(@Param("memberId") Long memberId,
-                                           @Param("restaurantId") Long restaurantId,
-                                           @Param("types") List<InboxMessageType> types,
-                                           @Param("today") LocalDate today,
-                                           Pageable pageable);
+    /*
+     * Входящие сотрудника — объединение двух веток, у каждой свой индекс:
+     *  - адресные сообщения — по его строкам inbox_recipients (idx_inbox_recipients_member_read_archived);
+     *  - рассылки — по сообщениям ресторана (idx_inbox_messages_broadcast), видимость только по должности
+     *    (пустой набор должностей — всем). Строка inbox_recipients у рассылки — лишь состояние (прочитано/скрыто):
+     *    после того как правка убрала должность сотрудника, рассылка у него пропадает, даже если он её читал.
+     * Условия по состоянию подставляются в обе ветки; у непрочитанной рассылки строки нет, r.* — null.
+     */
+    String DIRECT = """
+        select m.id, m.created_at from inbox_recipients r
+        join inbox_messages m on m.id = r.message_id
+        where r.member_id = :memberId
+          and m.restaurant_id = :restaurantId
+          and not m.broadcast
+        """;
 
-    @EntityGraph(attributePaths = {"message", "message.createdBy", "message.positions"})
-    @Query("""
-        select r from InboxRecipient r
-        join r.message m
-        where r.member.id = :memberId
-          and m.restaurant.id = :restaurantId
-          and m.type in :types
-          and r.archivedAt is null
-          and r.readAt is not null
-          and (m.expiresAt is null or m.expiresAt >= :today)
-        order by m.createdAt desc
-        """)
-    Page<InboxRecipient> findReadByTypes(@Param("memberId") Long memberId,
-                                         @Param("restaurantId") Long restaurantId,
-                                         @Param("types") List<InboxMessageType> types,
-                                         @Param("today") LocalDate today,
-                                         Pageable pageable);
+    String BROADCAST = """
+        select m.id, m.created_at from inbox_messages m
+        left join inbox_recipients r on r.message_id = m.id and r.member_id = :memberId
+        where m.restaurant_id = :restaurantId
+          and m.broadcast
+          and (not exists (select 1 from inbox_message_positions mp where mp.message_id = m.id)
+            or exists (select 1 from inbox_message_positions mp
+                       where mp.message_id = m.id and mp.position_id = :positionId))
+        """;
+
+    String UNREAD = """
+          and m.type in (:types)
+          and r.archived_at is null
+          and r.read_at is null
+          and (m.expires_at is null or m.expires_at >= :today)
+        """;
+
+    String READ = """
+          and m.type in (:types)
+          and r.archived_at is null
+          and r.read_at is not null
+          and (m.expires_at is null or m.expires_at >= :today)
+        """;
+
+    String HIDDEN = """
+          and m.type in (:types)
+          and (r.archived_at is not null
+            or (m.expires_at is not null and m.expires_at < :today))
+        """;
+
+    String SUBTYPES = """
+          and m.event_subtype in (:subtypes)
+        """;
+
+    String UNREAD_INBOX = "(" + DIRECT + UNREAD + " union all " + BROADCAST + UNREAD + ") x";
+    String READ_INBOX = "(" + DIRECT + READ + " union all " + BROADCAST + READ + ") x";
+    String HIDDEN_INBOX = "(" + DIRECT + HIDDEN + " union all " + BROADCAST + HIDDEN + ") x";
+    String ORDER = " order by x.created_at desc, x.id desc";
+
+    @Query(value = "select x.id from " + UNREAD_INBOX + ORDER,
+            countQuery = "select count(*) from " + UNREAD_INBOX,
+            nativeQuery = true)
+    Page<Long> findUnreadIds(@Param("memberId") Long memberId,
+                             @Param("positionId") Long positionId,
+                             @Param("restaurantId") Long restaurantId,
+                             @Param("types") List<String> types,
+                             @Param("today") LocalDate today,
+                             Pageable pageable);
+
+    @Query(value = "select x.id from " + READ_INBOX + ORDER,
+            countQuery = "select count(*) from " + READ_INBOX,
+            nativeQuery = true)
+    Page<Long> findReadIds(@Param("memberId") Long memberId,
+                           @Param("positionId") Long positionId,
+                           @Param("restaurantId") Long restaurantId,
+                           @Param("types") List<String> types,
+                           @Param("today") LocalDate today,
+                           Pageable pageable);
+
+    @Query(value = "select x.id from " + HIDDEN_INBOX + ORDER,
+            countQuery = "select count(*) from " + HIDDEN_INBOX,
+            nativeQuery = true)
+    Page<Long> findHiddenIds(@Param("memberId") Long memberId,
+                             @Param("positionId") Long positionId,
+                             @Param("restaurantId") Long restaurantId,
+                             @Param("types") List<String> types,
+                             @Param("today") LocalDate today,
+                             Pageable pageable);
 
-    @EntityGraph(attributePaths = {"message", "message.createdBy", "message.positions"})
+    /** Сообщения страницы вместе с автором и состоянием сотрудника; порядок задаёт вызывающий. */
     @Query("""
-        select r from InboxRecipient r
-        join r.message m
-        where r.member.id = :memberId
-          and m.restaurant.id = :restaurantId
-          and m.type in :types
-          and (r.archivedAt is not null
-            or (m.expiresAt is not null and m.expiresAt < :today))
-        order by m.createdAt desc
+        select new ru.staffly.inbox.repository.projection.InboxEntry(m, u, r.readAt, r.archivedAt)
+        from InboxMessage m
+        left join InboxRecipient r on r.message = m and r.member.id = :memberId
+        left join m.createdBy u
+        where m.id in :ids
         """)
-    Page<InboxRecipient> findHiddenByTypes(@Param("memberId") Long memberId,
-                                           @Param("restaurantId") Long restaurantId,
-                                           @Param("types") List<InboxMessageType> types,
-                                           @Param("today") LocalDate today,
-                                           Pageable pageable);
+    List<InboxEntry> findEntries(@Param("memberId") Long memberId, @Param("ids") List<Long> ids);
 
-    default Page<InboxRecipient> findByState(Long memberId,
+    default Page<InboxEntry> findByState(Long memberId,
+                                         Long positionId,
+                                         Long restaurantId,
+                                         List<InboxMessageType> types,
+                                         InboxState state,
+                                         LocalDate today,
+                                         Pageable pageable) {
+        List<String> typeNames = names(types);
+        Page<Long> ids = switch (state) {
+            case UNREAD -> findUnreadIds(memberId, positionId, restaurantId, typeNames, today, pageable);
+            case READ -> findReadIds(memberId, positionId, restaurantId, typeNames, today, pageable);
+            case HIDDEN -> findHiddenIds(memberId, positionId, restaurantId, typeNames, today, pageable);
+        };
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, ids.getTotalElements());
+        }
+        Map<Long, InboxEntry> byId = findEntries(memberId, ids.getContent()).stream()
+                .collect(Collectors.toMap(entry -> entry.message().getId(), Function.identity()));
+        List<InboxEntry> entries = ids.getContent().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(entries, pageable, ids.getTotalElements());
+    }
+
+    @Query(value = "select count(*) from " + UNREAD_INBOX, nativeQuery = true)
+    long countUnreadByTypeNames(@Param("memberId") Long memberId,
+                                @Param("positionId") Long positionId,
+                                @Param("restaurantId") Long restaurantId,
+                                @Param("types") List<String> types,
+                                @Param("today") LocalDate today);
+
+    @Query(value = "select count(*) from ("
+            + DIRECT + UNREAD + SUBTYPES + " union all " + BROADCAST + UNREAD + SUBTYPES + ") x",
+            nativeQuery = true)
+    long countUnreadByTypeAndSubtypeNames(@Param("memberId") Long memberId,
+                                          @Param("positionId") Long positionId,
+                                          @Param("restaurantId") Long restaurantId,
+                                          @Param("types") List<String> types,
+                                          @Param("subtypes") List<String> subtypes,
+                                          @Param("today") LocalDate today);
+
+    default long countUnread(Long memberId,
+                             Long positionId,
+                             Long restaurantId,
+                             List<InboxMessageType> types,
+                             LocalDate today) {
+        return countUnreadByTypeNames(memberId, positionId, restaurantId, names(types), today);
+    }
+
+    default long countUnreadEventsBySubtypes(Long memberId,
+                                             Long positionId,
                                              Long restaurantId,
                                              List<InboxMessageType> types,
-                                             InboxState state,
-                                             LocalDate today,
-                                             Pageable pageable) {
-        return switch (state) {
-            case UNREAD -> findUnreadByTypes(memberId, restaurantId, types, today, pageable);
-            case READ -> findReadByTypes(memberId, restaurantId, types, today, pageable);
-            case HIDDEN -> findHiddenByTypes(memberId, restaurantId, types, today, pageable);
-        };
+                                             List<InboxEventSubtype> subtypes,
+                                             LocalDate today) {
+        return countUnreadByTypeAndSubtypeNames(memberId, positionId, restaurantId, names(types), names(subtypes), today);
     }
 
-    @Query("""
-        select count(r) from InboxRecipient r
-        join r.message m
-        where r.member.id = :memberId
-          and m.restaurant.id = :restaurantId
-          and r.archivedAt is null
-          and r.readAt is null
-          and (m.expiresAt is null or m.expiresAt >= :today)
-        """)
-    long countUnread(@Param("memberId") Long memberId,
-                     @Param("restaurantId") Long restaurantId,
-                     @Param("today") LocalDate today);
+    private static List<String> names(List<? extends Enum<?>> values) {
+        return values.stream().map(Enum::name).toList();
+    }
 
-    @Query("""
-        select count(r) from InboxRecipient r
-        join r.message m
-        where r.member.id = :memberId
-          and m.restaurant.id = :restaurantId
-          and m.type = :type
-          and r.archivedAt is null
-          and r.readAt is null
-          and (m.expiresAt is null or m.expiresAt >= :today)
-        """)
-    long countUnreadByType(@Param("memberId") Long memberId,
-                           @Param("restaurantId") Long restaurantId,
-                           @Param("type") InboxMessageType type,
-                           @Param("today") LocalDate today);
+    /**
+     * Строка состояния рассылки создаётся при первом прочтении; гонку двух вкладок решает on conflict.
+     * id — тем же nextval, что у Hibernate: при шаге последовательности 50 это значение
+     * не попадает ни в один пул, выданный Hibernate.
+     */
+    @Modifying
+    @Query(value = """
+        insert into inbox_recipients (id, message_id, member_id, delivered_at, read_at)
+        values (nextval('inbox_recipients_id_seq'), :messageId, :memberId, :now, :now)
+        on conflict (message_id, member_id) do update
+            set read_at = coalesce(inbox_recipients.read_at, excluded.read_at)
+        """, nativeQuery = true)
+    int upsertRead(@Param("messageId") Long messageId,
+                   @Param("memberId") Long memberId,
+                   @Param("now") Instant now);
 
-    @Query("""
-        select count(r) from InboxRecipient r
-        join r.message m
-        where r.member.id = :memberId
-          and m.restaurant.id = :restaurantId
-          and m.type = 'EVENT'
-          and m.eventSubtype in :subtypes
-          and r.archivedAt is null
-          and r.readAt is null
-          and (m.expiresAt is null or m.expiresAt >= :today)
-        """)
-    long countUnreadEventsBySubtypes(@Param("memberId") Long memberId,
-                                     @Param("restaurantId") Long restaurantId,
-                                     @Param("subtypes") List<InboxEventSubtype> subtypes,
-                                     @Param("today") LocalDate today);
+    /** То же для скрытия: сотрудник может убрать рассылку, ни разу её не открыв. */
+    @Modifying
+    @Query(value = """
+        insert into inbox_recipients (id, message_id, member_id, delivered_at, archived_at)
+        values (nextval('inbox_recipients_id_seq'), :messageId, :memberId, :now, :now)
+        on conflict (message_id, member_id) do update
+            set archived_at = coalesce(inbox_recipients.archived_at, excluded.archived_at)
+        """, nativeQuery = true)
+    int upsertArchived(@Param("messageId") Long messageId,
+                       @Param("memberId") Long memberId,
+                       @Param("now") Instant now);
 
-    void deleteByMessageIdIn(List<Long> messageIds);
+    @Modifying
+    @Query("delete from InboxRecipient r where r.message.id in :messageIds")
+    int deleteByMessageIdIn(@Param("messageIds") List<Long> messageIds);
 
+    /** Строки счётчиков блокируются в порядке id, чтобы параллельные рассылки не ловили deadlock. */
+    @Modifying
+    @Query(value = """
+        insert into inbox_member_counter (member_id, recipient_count)
+        select m.id, 1 from restaurant_member m
+        where m.id in (:memberIds)
+        order by m.id
+        on conflict (member_id) do update
+            set recipient_count = inbox_member_counter.recipient_count + 1
+        """, nativeQuery = true)
+    int incrementMemberCounters(@Param("memberIds") List<Long> memberIds);
+
+    @Query(value = """
+        select c.member_id from inbox_member_counter c
+        where c.recipient_count > :limit
+          and c.member_id > :afterMemberId
+        order by c.member_id
+        limit :batchSize
+        """, nativeQuery = true)
+    List<Long> findOverflowMemberIds(@Param("limit") int limit,
+                                     @Param("afterMemberId") long afterMemberId,
+                                     @Param("batchSize") int batchSize);
+
+    /** Строки рассылок не трогаем: удалённая строка вернула бы прочитанную рассылку в непрочитанные. */
     @Modifying
     @Query(value = """
         with ranked as (
             select r.id,
-                   row_number() over (partition by r.member_id order by m.created_at desc) as rn
+                   row_number() over (partition by r.member_id order by m.created_at desc, m.id desc) as rn
             from inbox_recipients r
             join inbox_messages m on m.id = r.message_id
+            where r.member_id in (:memberIds)
+              and not m.broadcast
         )
         delete from inbox_recipients
         where id in (select id from ranked where rn > :limit)
         """, nativeQuery = true)
-    int deleteOverflowRecipients(@Param("limit") int limit);
-}
\ No newline at end of file
+    int deleteOverflowRecipients(@Param("memberIds") List<Long> memberIds, @Param("limit") int limit);
+
+    /**
+     * Блокирует счётчики перед пересчётом, в том же порядке id, что и рассылки. Отдельным запросом:
+     * UPDATE с подзапросом, дождавшись блокировки, посчитал бы строки по снимку до коммита рассылки.
+     */
+    @Query(value = """
+        select c.member_id from inbox_member_counter c
+        where c.member_id in (:memberIds)
+        order by c.member_id
+        for update
+        """, nativeQuery = true)
+    List<Long> lockMemberCounters(@Param("memberIds") List<Long> memberIds);
+
+    /** Вызывать после {@link #lockMemberCounters}: запрос берёт свежий снимок, рассылки в нём уже видны. */
+    @Modifying
+    @Query(value = """
+        update inbox_member_counter c
+        set recipient_count = (select count(*) from inbox_recipients r
+                               join inbox_messages m on m.id = r.message_id
+                               where r.member_id = c.member_id and not m.broadcast)
+        where c.member_id in (:memberIds)
+        """, nativeQuery = true)
+    int recountMemberCounters(@Param("memberIds") List<Long> memberIds);
+}
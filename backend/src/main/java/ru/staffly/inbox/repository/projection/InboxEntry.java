@@ -0,0 +1,18 @@
+package ru.staffly.inbox.repository.projection;
+
+import ru.staffly.inbox.model.InboxMessage;
+import ru.staffly.user.model.User;
+
+import java.time.Instant;
+
+/**
+ * Сообщение во входящих сотрудника. Для рассылки, которую он ещё не открывал, строки inbox_recipients
+ * нет — {@code readAt}/{@code archivedAt} тогда {@code null}.
+ */
+public record InboxEntry(
+        InboxMessage message,
+        User author,
+        Instant readAt,
+        Instant archivedAt
+) {
+}
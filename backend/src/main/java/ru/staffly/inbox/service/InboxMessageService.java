@@ -45,11 +45,32 @@ public class InboxMessageService {
                 .createdBy(creator)
                 .meta(meta)
                 .positions(new HashSet<>(positions))
+                .broadcast(true)
                 .build();
 
+        // получателей не материализуем: входящие находят рассылку по должности, targets нужны только для push
         message = messages.save(message);
-        List<RestaurantMember> savedRecipients = saveRecipients(message, targets);
-        pushEnqueueService.enqueueForMessage(message, savedRecipients);
+        pushEnqueueService.enqueueForMessage(message, targets);
+        return message;
+    }
+
+    /**
+     * Правка объявления на месте: одна строка сообщения, отметки о прочтении сохраняются.
+     * Push уходит только сотрудникам добавленных должностей — остальные объявление уже получили.
+     * Старое адресное объявление при правке становится рассылкой, его строки получателей остаются состоянием.
+     */
+    @Transactional
+    public InboxMessage updateAnnouncement(InboxMessage message,
+                                           String content,
+                                           LocalDate expiresAt,
+                                           List<Position> positions,
+                                           List<RestaurantMember> newTargets) {
+        message.setContent(content);
+        message.setExpiresAt(expiresAt);
+        message.setPositions(new HashSet<>(positions));
+        message.setBroadcast(true);
+        message = messages.save(message);
+        pushEnqueueService.enqueueForMessage(message, newTargets);
         return message;
     }
 
@@ -115,6 +136,7 @@ public class InboxMessageService {
                 .member(member)
                 .deliveredAt(TimeProvider.now())
                 .build());
+        recipients.incrementMemberCounters(List.of(member.getId()));
         pushEnqueueService.enqueueForMessage(message, List.of(member));
     }
 
@@ -144,8 +166,13 @@ public class InboxMessageService {
                         .build())
                 .toList();
         recipients.saveAll(newRecipients);
+        if (!targets.isEmpty()) {
+            // переполнение отслеживаем по счётчику, InboxRecipientLimitJob обрежет только этих сотрудников
+            recipients.incrementMemberCounters(targets.stream().map(RestaurantMember::getId).toList());
+        }
         return targets;
     }
+
     private String ensureMeta(String meta) {
         if (meta == null || meta.isBlank()) {
             throw new IllegalArgumentException("Inbox message meta must be provided");
@@ -19,7 +19,9 @@ import ru.staffly.inbox.model.InboxMessage;
 import ru.staffly.inbox.model.InboxMessageType;
 import ru.staffly.inbox.model.InboxRecipient;
 import ru.staffly.inbox.model.InboxState;
+import ru.staffly.inbox.repository.InboxMessageRepository;
 import ru.staffly.inbox.repository.InboxRecipientRepository;
+import ru.staffly.inbox.repository.projection.InboxEntry;
 import ru.staffly.member.model.RestaurantMember;
 import ru.staffly.member.repository.RestaurantMemberRepository;
 import ru.staffly.security.SecurityService;
@@ -39,7 +41,11 @@ public class InboxService {
         ANNOUNCEMENT
     }
 
+    private static final List<InboxMessageType> ALL_TYPES = List.of(InboxMessageType.values());
+    private static final List<InboxMessageType> EVENT_TYPES = List.of(InboxMessageType.EVENT);
+
     private final InboxRecipientRepository recipients;
+    private final InboxMessageRepository messages;
     private final RestaurantMemberRepository members;
     private final SecurityService security;
     private final RestaurantTimeService restaurantTime;
@@ -59,8 +65,9 @@ public class InboxService {
         Pageable pageable = PageRequest.of(Math.max(0, page), Math.max(1, size));
         List<InboxMessageType> types = resolveTypes(typeFilter);
 
-        Page<InboxRecipient> inboxPage = recipients.findByState(
+        Page<InboxEntry> inboxPage = recipients.findByState(
                 member.getId(),
+                positionId(member),
                 restaurantId,
                 types,
                 state,
@@ -68,7 +75,7 @@ public class InboxService {
                 pageable
         );
 
-        Page<InboxMessageDto> mapped = inboxPage.map(recipient -> toDto(recipient, today));
+        Page<InboxMessageDto> mapped = inboxPage.map(entry -> toDto(entry, today));
 
         return new InboxPageDto(
                 mapped.getContent(),
@@ -87,11 +94,14 @@ public class InboxService {
                 .orElseThrow(() -> new ForbiddenException("Нет доступа к ресторану"));
 
         LocalDate today = restaurantTime.today(restaurantId);
-        long total = recipients.countUnread(member.getId(), restaurantId, today);
-        long events = recipients.countUnreadByType(member.getId(), restaurantId, InboxMessageType.EVENT, today);
+        Long positionId = positionId(member);
+        long total = recipients.countUnread(member.getId(), positionId, restaurantId, ALL_TYPES, today);
+        long events = recipients.countUnread(member.getId(), positionId, restaurantId, EVENT_TYPES, today);
         long scheduleEvents = recipients.countUnreadEventsBySubtypes(
                 member.getId(),
+                positionId,
                 restaurantId,
+                EVENT_TYPES,
                 List.of(InboxEventSubtype.SCHEDULE_DECISION),
                 today
         );
@@ -108,7 +118,9 @@ public class InboxService {
         LocalDate today = restaurantTime.today(restaurantId);
         boolean hasScheduleEvents = recipients.countUnreadEventsBySubtypes(
                 member.getId(),
+                positionId(member),
                 restaurantId,
+                EVENT_TYPES,
                 List.of(InboxEventSubtype.SCHEDULE_DECISION),
                 today
         ) > 0;
@@ -124,6 +136,9 @@ public class InboxService {
 
         InboxRecipient recipient = recipients.findByMessageIdAndMemberId(messageId, member.getId()).orElse(null);
         if (recipient == null) {
+            if (messages.isBroadcastFor(messageId, restaurantId, positionId(member))) {
+                recipients.upsertRead(messageId, member.getId(), TimeProvider.now());
+            }
             return;
         }
         if (recipient.getReadAt() == null) {
@@ -140,6 +155,9 @@ public class InboxService {
 
         InboxRecipient recipient = recipients.findByMessageIdAndMemberId(messageId, member.getId()).orElse(null);
         if (recipient == null) {
+            if (messages.isBroadcastFor(messageId, restaurantId, positionId(member))) {
+                recipients.upsertArchived(messageId, member.getId(), TimeProvider.now());
+            }
             return;
         }
         if (recipient.getArchivedAt() == null) {
@@ -164,9 +182,13 @@ public class InboxService {
         }
     }
 
-    private InboxMessageDto toDto(InboxRecipient recipient, LocalDate today) {
-        InboxMessage message = recipient.getMessage();
-        User creator = message.getCreatedBy();
+    private static Long positionId(RestaurantMember member) {
+        return member.getPosition() == null ? null : member.getPosition().getId();
+    }
+
+    private InboxMessageDto toDto(InboxEntry entry, LocalDate today) {
+        InboxMessage message = entry.message();
+        User creator = entry.author();
         InboxAuthorDto author = creator == null ? null : new InboxAuthorDto(
                 creator.getId(),
                 creator.getFullName(),
@@ -184,8 +206,8 @@ public class InboxService {
                 message.getExpiresAt(),
                 message.getCreatedAt(),
                 author,
-                recipient.getReadAt() != null,
-                recipient.getArchivedAt() != null,
+                entry.readAt() != null,
+                entry.archivedAt() != null,
                 expired
         );
     }
@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import ru.staffly.common.metrics.JobMetrics;
 import ru.staffly.common.time.TimeProvider;
 import ru.staffly.invite.model.InvitationStatus;
 import ru.staffly.invite.repository.InvitationRepository;
@@ -13,13 +14,19 @@ import ru.staffly.invite.repository.InvitationRepository;
 @RequiredArgsConstructor
 public class InvitationCleanupJob {
     private final InvitationRepository invitations;
+    private final JobMetrics jobMetrics;
 
     // Каждые 60 минут (в начале часа)
     @Scheduled(cron = "0 0 * * * *")
     public void purgeExpiredPending() {
+        jobMetrics.record("invitation-cleanup", this::deleteExpiredPending);
+    }
+
+    private int deleteExpiredPending() {
         int deleted = invitations.deleteByStatusAndExpiresAtBefore(InvitationStatus.PENDING, TimeProvider.now());
         if (deleted > 0) {
             log.info("Purged {} expired pending invitations", deleted);
         }
+        return deleted;
     }
 }
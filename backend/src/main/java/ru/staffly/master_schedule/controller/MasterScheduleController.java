@@ -2,9 +2,12 @@ package ru.staffly.master_schedule.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.staffly.common.util.VersionETags;
 import ru.staffly.master_schedule.dto.*;
 import ru.staffly.master_schedule.service.MasterScheduleService;
 import ru.staffly.security.UserPrincipal;
@@ -35,10 +38,16 @@ public class MasterScheduleController {
 
     @PreAuthorize("@securityService.hasAtLeastManager(principal.userId, #restaurantId)")
     @GetMapping("/restaurants/{restaurantId}/master-schedules/{id}")
-    public MasterScheduleDto get(@PathVariable Long restaurantId,
-                                 @PathVariable Long id,
-                                 @AuthenticationPrincipal UserPrincipal principal) {
-        return service.get(id, principal.userId());
+    public ResponseEntity<MasterScheduleDto> get(@PathVariable Long restaurantId,
+                                                 @PathVariable Long id,
+                                                 @AuthenticationPrincipal UserPrincipal principal,
+                                                 WebRequest webRequest) {
+        long version = service.getVersion(id, principal.userId());
+        if (webRequest.checkNotModified(VersionETags.of("master-schedule", id, version))) {
+            return null;
+        }
+        MasterScheduleDto dto = service.get(id, principal.userId());
+        return VersionETags.ok(VersionETags.of("master-schedule", id, dto.version()), dto);
     }
 
     @PreAuthorize("@securityService.hasAtLeastManager(principal.userId, #restaurantId)")
@@ -12,5 +12,6 @@ public record MasterScheduleDto(
         LocalDate periodEnd,
         BigDecimal plannedRevenue,
         List<MasterScheduleRowDto> rows,
-        List<MasterScheduleCellDto> cells
+        List<MasterScheduleCellDto> cells,
+        long version
 ) {}
@@ -22,7 +22,8 @@ import java.time.LocalDate;
 public class MasterScheduleCell {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "master_schedule_cell_seq")
+    @SequenceGenerator(name = "master_schedule_cell_seq", sequenceName = "master_schedule_cell_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -1,6 +1,9 @@
 package ru.staffly.master_schedule.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.staffly.master_schedule.model.MasterSchedule;
 
 import java.util.List;
@@ -10,4 +13,17 @@ public interface MasterScheduleRepository extends JpaRepository<MasterSchedule,
     List<MasterSchedule> findByRestaurantIdAndDeletedAtIsNull(Long restaurantId);
 
     Optional<MasterSchedule> findByIdAndDeletedAtIsNull(Long id);
-}
\ No newline at end of file
+
+    /**
+     * Строки графика показывают название и оплату должности, поэтому её правка поднимает версию
+     * графиков с этой должностью — иначе GET ответил бы 304 со старыми данными.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            update MasterSchedule s
+            set s.version = s.version + 1
+            where s.deletedAt is null
+              and exists (select 1 from MasterScheduleRow r where r.schedule = s and r.position.id = :positionId)
+            """)
+    int bumpVersionByPositionId(@Param("positionId") Long positionId);
+}
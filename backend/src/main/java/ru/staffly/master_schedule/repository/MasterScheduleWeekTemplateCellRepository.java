@@ -1,6 +1,9 @@
 package ru.staffly.master_schedule.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.staffly.master_schedule.model.MasterScheduleWeekTemplateCell;
 
 import java.time.DayOfWeek;
@@ -16,5 +19,7 @@ public interface MasterScheduleWeekTemplateCellRepository extends JpaRepository<
             DayOfWeek weekday
     );
 
-    void deleteByScheduleIdAndPositionId(Long scheduleId, Long positionId);
+    @Modifying(flushAutomatically = true)
+    @Query("delete from MasterScheduleWeekTemplateCell c where c.schedule.id = :scheduleId and c.position.id = :positionId")
+    int deleteByScheduleIdAndPositionId(@Param("scheduleId") Long scheduleId, @Param("positionId") Long positionId);
 }
@@ -1,6 +1,9 @@
 package ru.staffly.master_schedule.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.staffly.master_schedule.model.MasterScheduleWeekTemplatePosition;
 
 import java.util.List;
@@ -11,5 +14,7 @@ public interface MasterScheduleWeekTemplatePositionRepository extends JpaReposit
 
     Optional<MasterScheduleWeekTemplatePosition> findByScheduleIdAndPositionId(Long scheduleId, Long positionId);
 
-    void deleteByScheduleIdAndPositionId(Long scheduleId, Long positionId);
+    @Modifying(flushAutomatically = true)
+    @Query("delete from MasterScheduleWeekTemplatePosition p where p.schedule.id = :scheduleId and p.position.id = :positionId")
+    int deleteByScheduleIdAndPositionId(@Param("scheduleId") Long scheduleId, @Param("positionId") Long positionId);
 }
@@ -1,8 +1,10 @@
 package ru.staffly.master_schedule.service;
 
-import jakarta.transaction.Transactional;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.staffly.common.exception.BadRequestException;
 import ru.staffly.common.exception.ConflictException;
 import ru.staffly.common.exception.NotFoundException;
@@ -47,9 +49,10 @@ public class MasterScheduleService {
     private final RestaurantRepository restaurants;
     private final PositionRepository positions;
     private final SecurityService security;
+    private final EntityManager entityManager;
     private final MasterScheduleValueParser parser = new MasterScheduleValueParser();
 
-    @Transactional
+    @Transactional(readOnly = true)
     public List<MasterScheduleSummaryDto> list(Long restaurantId, Long userId) {
         security.assertAtLeastManager(userId, restaurantId);
         return schedules.findByRestaurantIdAndDeletedAtIsNull(restaurantId)
@@ -85,14 +88,19 @@ public class MasterScheduleService {
         return toDto(schedule, createdRows, List.of());
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public MasterScheduleDto get(Long scheduleId, Long userId) {
         MasterSchedule schedule = getScheduleOrThrow(scheduleId, userId);
-        List<MasterScheduleRow> scheduleRows = normalizeRowIndexes(rows.findByScheduleId(scheduleId));
+        List<MasterScheduleRow> scheduleRows = rows.findByScheduleId(scheduleId);
         List<MasterScheduleCell> scheduleCells = cells.findByRowScheduleId(scheduleId);
         return toDto(schedule, scheduleRows, scheduleCells);
     }
 
+    @Transactional(readOnly = true)
+    public long getVersion(Long scheduleId, Long userId) {
+        return getScheduleOrThrow(scheduleId, userId).getVersion();
+    }
+
     @Transactional
     public MasterScheduleDto update(Long scheduleId, Long userId, MasterScheduleUpdateRequest request) {
         MasterSchedule schedule = getScheduleOrThrow(scheduleId, userId);
@@ -112,7 +120,7 @@ public class MasterScheduleService {
         }
         schedule.setPlannedRevenue(request.plannedRevenue());
         schedules.save(schedule);
-        List<MasterScheduleRow> scheduleRows = normalizeRowIndexes(rows.findByScheduleId(scheduleId));
+        List<MasterScheduleRow> scheduleRows = rows.findByScheduleId(scheduleId);
         List<MasterScheduleCell> scheduleCells = cells.findByRowScheduleId(scheduleId);
         return toDto(schedule, scheduleRows, scheduleCells);
     }
@@ -127,6 +135,7 @@ public class MasterScheduleService {
     @Transactional
     public MasterScheduleRowDto createRow(Long scheduleId, Long userId, MasterScheduleRowCreateRequest request) {
         MasterSchedule schedule = getScheduleOrThrow(scheduleId, userId);
+        markChanged(schedule);
         Position position = positions.findById(request.positionId())
                 .orElseThrow(() -> new NotFoundException("Position not found: " + request.positionId()));
         if (!Objects.equals(position.getRestaurant().getId(), schedule.getRestaurant().getId())) {
@@ -166,6 +175,7 @@ public class MasterScheduleService {
             throw new NotFoundException("Row not found in schedule: " + rowId);
         }
         security.assertAtLeastManager(userId, schedule.getRestaurant().getId());
+        markChanged(schedule);
         row.setRateOverride(request.rateOverride());
         row.setAmountOverride(request.amountOverride());
         row.setPayTypeOverride(request.payTypeOverride());
@@ -182,6 +192,7 @@ public class MasterScheduleService {
             throw new NotFoundException("Row not found in schedule: " + rowId);
         }
         security.assertAtLeastManager(userId, schedule.getRestaurant().getId());
+        markChanged(schedule);
         Long positionId = row.getPosition().getId();
         rows.delete(row);
         if (rows.countByScheduleIdAndPositionId(schedule.getId(), positionId) == 0) {
@@ -193,6 +204,7 @@ public class MasterScheduleService {
     @Transactional
     public List<MasterScheduleCellDto> batchUpdateCells(Long scheduleId, Long userId, MasterScheduleCellBatchRequest request) {
         MasterSchedule schedule = getScheduleOrThrow(scheduleId, userId);
+        markChanged(schedule);
         Map<Long, MasterScheduleRow> rowMap = rows.findByScheduleId(scheduleId)
                 .stream()
                 .collect(Collectors.toMap(MasterScheduleRow::getId, row -> row));
@@ -317,6 +329,7 @@ public class MasterScheduleService {
     @Transactional
     public void applyWeekTemplate(Long scheduleId, Long userId, MasterScheduleApplyWeekTemplateRequest request) {
         MasterSchedule schedule = getScheduleOrThrow(scheduleId, userId);
+        markChanged(schedule);
         List<MasterScheduleWeekTemplatePosition> templatePositions = weekTemplatePositions.findByScheduleId(scheduleId);
         if (templatePositions.isEmpty()) {
             return;
@@ -475,6 +488,14 @@ public class MasterScheduleService {
         cells.save(cell);
     }
 
+    /**
+     * Строки и ячейки версионируются отдельно, поэтому их правки явно поднимают версию графика —
+     * по ней строится ETag для GET.
+     */
+    private void markChanged(MasterSchedule schedule) {
+        entityManager.lock(schedule, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+    }
+
     private MasterSchedule getScheduleOrThrow(Long scheduleId, Long userId) {
         MasterSchedule schedule = schedules.findByIdAndDeletedAtIsNull(scheduleId)
                 .orElseThrow(() -> new NotFoundException("Master schedule not found: " + scheduleId));
@@ -528,32 +549,11 @@ public class MasterScheduleService {
                 schedule.getPeriodEnd(),
                 schedule.getPlannedRevenue(),
                 rowDtos,
-                cellDtos
+                cellDtos,
+                schedule.getVersion()
         );
     }
 
-    private List<MasterScheduleRow> normalizeRowIndexes(List<MasterScheduleRow> scheduleRows) {
-        Map<Long, List<MasterScheduleRow>> grouped = scheduleRows.stream()
-                .collect(Collectors.groupingBy(row -> row.getPosition().getId()));
-        boolean updated = false;
-        for (List<MasterScheduleRow> group : grouped.values()) {
-            int minIndex = group.stream()
-                    .mapToInt(MasterScheduleRow::getRowIndex)
-                    .min()
-                    .orElse(1);
-            if (minIndex == 0) {
-                for (MasterScheduleRow row : group) {
-                    row.setRowIndex(row.getRowIndex() + 1);
-                }
-                updated = true;
-            }
-        }
-        if (updated) {
-            return rows.saveAll(scheduleRows);
-        }
-        return scheduleRows;
-    }
-
     private MasterScheduleRowDto toRowDto(MasterScheduleRow row) {
         Position position = row.getPosition();
         PayType effectivePayType = row.getPayTypeOverride() != null ? row.getPayTypeOverride() : position.getPayType();
@@ -60,6 +60,7 @@ public class MeController {
         res.put("theme", u.getTheme());
         if (avatarUrl != null) {
             res.put("avatarUrl", withBust(avatarUrl, u.getUpdatedAt()));
+            if (u.getAvatarSrcset() != null) res.put("avatarSrcset", u.getAvatarSrcset());
         }
         if (principal.restaurantId() != null) {
             res.put("restaurantId", principal.restaurantId());
@@ -4,14 +4,13 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 import ru.staffly.config.S3Config;
-import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 
 import java.io.IOException;
 import java.time.Instant;
+import java.util.Map;
 import java.util.Set;
-import java.util.UUID;
 
 @Component
 @RequiredArgsConstructor
@@ -19,54 +18,36 @@ public class AvatarStorage {
 
     private final S3Client s3;
     private final S3Config s3cfg;
+    private final ImagePipeline pipeline;
 
     private static final Set<String> ALLOWED = Set.of(
             "image/jpeg", "image/jpg", "image/png", "image/webp"
     );
 
-    private static final String CACHE_CONTROL_1Y = "public, max-age=31536000, immutable";
+    /** Общий лимит multipart поднят под импорт обучения, аватары остаются в 2MB. */
+    private static final long MAX_AVATAR_BYTES = 2L * 1024 * 1024;
 
     /**
      * S3 key:
-     * avatars/users/{userId}/{uuid}.{ext}
+     * avatars/users/{userId}/{sha256}/original.{ext} + уменьшенные копии рядом
      */
-    public String saveForUser(Long userId, MultipartFile file) throws IOException {
+    public StoredImage saveForUser(Long userId, MultipartFile file) throws IOException {
         if (file == null || file.isEmpty()) throw new IllegalArgumentException("Пустой файл");
+        if (file.getSize() > MAX_AVATAR_BYTES) throw new IllegalArgumentException("Файл больше 2MB");
 
         String ct = normalizeContentType(file.getContentType());
         if (ct == null || !ALLOWED.contains(ct)) {
             throw new IllegalArgumentException("Разрешены только JPEG/PNG/WEBP");
         }
 
-        String ext = switch (ct) {
-            case "image/jpeg", "image/jpg" -> "jpg";
-            case "image/png" -> "png";
-            case "image/webp" -> "webp";
-            default -> "bin";
-        };
-
         // ✅ НАДЁЖНО: чистим весь prefix, чтобы 100% не копить мусор
         String prefix = "avatars/users/" + userId + "/";
         deleteByPrefix(s3cfg.getPublicBucket(), prefix);
 
-        String key = prefix + UUID.randomUUID() + "." + ext;
-
-        s3.putObject(
-                PutObjectRequest.builder()
-                        .bucket(s3cfg.getPublicBucket())
-                        .key(key)
-                        .contentType(ct)
-                        .contentLength(file.getSize())
-                        .cacheControl(CACHE_CONTROL_1Y)
-                        .metadata(java.util.Map.of(
-                                "uploadedAt", Instant.now().toString(),
-                                "userId", String.valueOf(userId)
-                        ))
-                        .build(),
-                RequestBody.fromBytes(file.getBytes())
-        );
-
-        return publicUrl(s3cfg.getPublicBucket(), key);
+        return pipeline.store(prefix, ImageProfile.AVATAR, file, Map.of(
+                "uploadedAt", Instant.now().toString(),
+                "userId", String.valueOf(userId)
+        ));
     }
 
     public void deleteByPublicUrl(String publicUrl) {
@@ -75,6 +56,13 @@ public class AvatarStorage {
         BucketKey bk = extractBucketKeyFromUrl(publicUrl);
         if (bk == null) return; // не наш URL / старый формат — игнор
 
+        // новая раскладка: вместе с оригиналом удаляем и все его варианты
+        String variantDir = ImagePipeline.variantDirectoryOf(bk.key());
+        if (variantDir != null) {
+            deleteByPrefix(bk.bucket(), variantDir);
+            return;
+        }
+
         try {
             s3.deleteObject(DeleteObjectRequest.builder()
                     .bucket(bk.bucket())
@@ -119,11 +107,6 @@ public class AvatarStorage {
         }
     }
 
-    private String publicUrl(String bucket, String key) {
-        String base = trimTrailingSlash(s3cfg.getPublicBaseUrl());
-        return base + "/" + bucket + "/" + key;
-    }
-
     private record BucketKey(String bucket, String key) {}
 
     /**
@@ -0,0 +1,58 @@
+package ru.staffly.media;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Поддерживаемые форматы исходных изображений.
+ * Формат определяется по сигнатуре из первых байт, а не по Content-Type клиента.
+ */
+public enum ImageFormat {
+    JPEG("image/jpeg", "jpg"),
+    PNG("image/png", "png"),
+    WEBP("image/webp", "webp");
+
+    /** Сколько байт нужно прочитать, чтобы распознать любой из форматов. */
+    public static final int SIGNATURE_LENGTH = 12;
+
+    private final String contentType;
+    private final String extension;
+
+    ImageFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    /**
+     * Читает не больше {@link #SIGNATURE_LENGTH} байт из потока и распознаёт формат.
+     * Поток не закрывается — это забота вызывающего кода.
+     */
+    public static ImageFormat sniff(InputStream in) throws IOException {
+        byte[] prefix = in.readNBytes(SIGNATURE_LENGTH);
+        return sniff(prefix);
+    }
+
+    /** @return формат или {@code null}, если сигнатура не распознана */
+    public static ImageFormat sniff(byte[] b) {
+        if (b == null || b.length < SIGNATURE_LENGTH) return null;
+        if ((b[0] & 0xFF) == 0xFF && (b[1] & 0xFF) == 0xD8) {
+            return JPEG;
+        }
+        if ((b[0] & 0xFF) == 0x89 && b[1] == 0x50 && b[2] == 0x4E && b[3] == 0x47) {
+            return PNG;
+        }
+        if (b[0] == 'R' && b[1] == 'I' && b[2] == 'F' && b[3] == 'F'
+                && b[8] == 'W' && b[9] == 'E' && b[10] == 'B' && b[11] == 'P') {
+            return WEBP;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,360 @@
+package ru.staffly.media;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import ru.staffly.common.exception.BadRequestException;
+import ru.staffly.config.S3Config;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Общий конвейер загрузки картинок в публичный бакет.
+ * <p>
+ * Оригинал не буферизуется в heap: сигнатура читается из первых байт,
+ * хэш и загрузка в S3 идут потоком из {@link MultipartFile#getInputStream()}.
+ * Уменьшенные копии строятся на ограниченном пуле и кладутся рядом с оригиналом:
+ * <pre>
+ * {prefix}{sha256}/original.{ext}
+ * {prefix}{sha256}/{width}w.{webp|jpg}
+ * </pre>
+ * Ключ зависит только от содержимого, поэтому объекты можно кэшировать навсегда.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImagePipeline {
+
+    static final String ORIGINAL_NAME = "original";
+
+    private static final String CACHE_CONTROL_1Y = "public, max-age=31536000, immutable";
+    private static final int HASH_HEX_LENGTH = 32;
+
+    private final S3Client s3;
+    private final S3Config s3cfg;
+    private final MediaProperties props;
+
+    private ThreadPoolExecutor workers;
+    private String variantFormat;
+    private String variantContentType;
+    private String variantExtension;
+
+    @PostConstruct
+    void init() {
+        ImageIO.setUseCache(false);
+
+        MediaProperties.Workers cfg = props.workers();
+        AtomicInteger counter = new AtomicInteger();
+        workers = new ThreadPoolExecutor(
+                cfg.threads(), cfg.threads(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(cfg.queueCapacity()),
+                r -> {
+                    Thread t = new Thread(r, "image-variant-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        workers.allowCoreThreadTimeOut(true);
+
+        String wanted = props.variantFormat().toLowerCase(Locale.ROOT);
+        if (ImageIO.getImageWritersByFormatName(wanted).hasNext()) {
+            variantFormat = wanted;
+        } else {
+            log.warn("No ImageIO writer for '{}', image variants will be encoded as JPEG", wanted);
+            variantFormat = "jpeg";
+        }
+        variantContentType = "jpeg".equals(variantFormat) ? "image/jpeg" : "image/" + variantFormat;
+        variantExtension = "jpeg".equals(variantFormat) ? "jpg" : variantFormat;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Проверяет сигнатуру файла по первым байтам.
+     *
+     * @throws BadRequestException если это не JPEG/PNG/WEBP
+     */
+    public ImageFormat detectFormat(MultipartFile file) throws IOException {
+        ImageFormat format;
+        try (InputStream in = file.getInputStream()) {
+            format = ImageFormat.sniff(in);
+        }
+        if (format == null) throw new BadRequestException("Разрешены только JPEG/PNG/WEBP");
+        return format;
+    }
+
+    /**
+     * Загружает оригинал и его уменьшенные копии в публичный бакет.
+     *
+     * @param keyPrefix префикс вида {@code avatars/users/42/}
+     */
+    public StoredImage store(String keyPrefix, ImageProfile profile, MultipartFile file,
+                             Map<String, String> metadata) throws IOException {
+        ImageFormat format = detectFormat(file);
+        String dir = keyPrefix + contentHash(file) + "/";
+        String bucket = s3cfg.getPublicBucket();
+
+        BufferedImage source = decode(file);
+
+        Variants variants = new Variants(bucket, dir);
+        if (source != null) {
+            for (int width : targetWidths(profile, source.getWidth())) {
+                try {
+                    variants.pending.put(width, workers.submit(() -> storeVariant(variants, source, width, metadata)));
+                } catch (RejectedExecutionException e) {
+                    abort(variants);
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                            "Сервер перегружен обработкой изображений, попробуйте позже");
+                }
+            }
+        }
+
+        String originalKey = dir + ORIGINAL_NAME + "." + format.extension();
+        try (InputStream in = file.getInputStream()) {
+            s3.putObject(
+                    putRequest(bucket, originalKey, format.contentType(), file.getSize(), metadata),
+                    RequestBody.fromInputStream(in, file.getSize())
+            );
+        } catch (IOException | RuntimeException e) {
+            abort(variants);
+            throw e;
+        }
+
+        return new StoredImage(publicUrl(bucket, originalKey), awaitSrcset(variants));
+    }
+
+    /**
+     * Если ключ относится к раскладке конвейера, возвращает каталог со всеми вариантами,
+     * иначе {@code null}.
+     */
+    public static String variantDirectoryOf(String key) {
+        if (key == null) return null;
+        int slash = key.lastIndexOf('/');
+        if (slash < 0) return null;
+        if (!key.startsWith(ORIGINAL_NAME + ".", slash + 1)) return null;
+        return key.substring(0, slash + 1);
+    }
+
+    /* ================= helpers ================= */
+
+    /** Варианты одной загрузки; после {@link #abort} уже записанные удаляются, незаписанные не пишутся. */
+    private static final class Variants {
+        final String bucket;
+        final String dir;
+        final Map<Integer, Future<String>> pending = new LinkedHashMap<>();
+        final AtomicBoolean aborted = new AtomicBoolean();
+
+        Variants(String bucket, String dir) {
+            this.bucket = bucket;
+            this.dir = dir;
+        }
+    }
+
+    /**
+     * Декодирует картинку, сначала проверив размеры по заголовку: {@code ImageIO.read} выделил бы память
+     * под кадр любого заявленного размера.
+     *
+     * @return {@code null}, если формат не читается ImageIO (WEBP) — тогда останется только оригинал
+     */
+    private BufferedImage decode(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream();
+             ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+            if (iis == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > props.maxSourcePixels()) {
+                    throw new BadRequestException("Слишком большое изображение: не больше "
+                            + props.maxSourcePixels() / 1_000_000 + " Мп");
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private String storeVariant(Variants variants, BufferedImage source, int width,
+                                Map<String, String> metadata) throws IOException {
+        byte[] bytes = encode(resize(source, width));
+        String key = variantKey(variants.dir, width);
+        if (variants.aborted.get()) return null;
+        s3.putObject(putRequest(variants.bucket, key, variantContentType, bytes.length, metadata), RequestBody.fromBytes(bytes));
+        // загрузку отменили, пока шёл put: abort мог уже пройти мимо этого ключа
+        if (variants.aborted.get()) deleteKeys(variants.bucket, List.of(key));
+        return key;
+    }
+
+    private void abort(Variants variants) {
+        variants.aborted.set(true);
+        variants.pending.values().forEach(f -> f.cancel(true));
+        deleteKeys(variants.bucket, variants.pending.keySet().stream().map(w -> variantKey(variants.dir, w)).toList());
+    }
+
+    private void deleteKeys(String bucket, List<String> keys) {
+        if (keys.isEmpty()) return;
+        try {
+            s3.deleteObjects(DeleteObjectsRequest.builder()
+                    .bucket(bucket)
+                    .delete(Delete.builder()
+                            .objects(keys.stream().map(k -> ObjectIdentifier.builder().key(k).build()).toList())
+                            .build())
+                    .build());
+        } catch (S3Exception e) {
+            log.warn("Failed to delete image variants {}: {}", keys, e.getMessage());
+        }
+    }
+
+    private String variantKey(String dir, int width) {
+        return dir + width + "w." + variantExtension;
+    }
+
+    private String awaitSrcset(Variants variants) {
+        Map<Integer, Future<String>> pending = variants.pending;
+        String bucket = variants.bucket;
+        if (pending.isEmpty()) return null;
+
+        long deadline = System.nanoTime() + props.workers().timeout().toNanos();
+        StringJoiner srcset = new StringJoiner(", ");
+        for (Map.Entry<Integer, Future<String>> e : pending.entrySet()) {
+            try {
+                long left = Math.max(0, deadline - System.nanoTime());
+                String key = e.getValue().get(left, TimeUnit.NANOSECONDS);
+                srcset.add(publicUrl(bucket, key) + " " + e.getKey() + "w");
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                abort(variants);
+                return null;
+            } catch (ExecutionException | TimeoutException ex) {
+                // оригинал уже загружен — без вариантов клиент просто возьмёт его; неполный набор не оставляем
+                log.warn("Image variant {}w failed: {}", e.getKey(), ex.toString());
+                abort(variants);
+                return null;
+            }
+        }
+        return srcset.toString();
+    }
+
+    private static List<Integer> targetWidths(ImageProfile profile, int sourceWidth) {
+        // не растягиваем: всё, что шире оригинала, схлопывается в его ширину
+        return profile.widths().stream()
+                .map(w -> Math.min(w, sourceWidth))
+                .distinct()
+                .toList();
+    }
+
+    private BufferedImage resize(BufferedImage source, int width) {
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+        boolean alpha = !"jpeg".equals(variantFormat) && source.getColorModel().hasAlpha();
+        BufferedImage out = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            if (!alpha) {
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, width, height);
+            }
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    private byte[] encode(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(variantFormat).next();
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(16 * 1024);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(buf)) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                String[] types = param.getCompressionTypes();
+                if (types != null && types.length > 0 && param.getCompressionType() == null) {
+                    param.setCompressionType(types[0]);
+                }
+                param.setCompressionQuality(props.variantQuality());
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return buf.toByteArray();
+    }
+
+    private static String contentHash(MultipartFile file) throws IOException {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buf = new byte[8192];
+        try (InputStream in = file.getInputStream()) {
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                md.update(buf, 0, n);
+            }
+        }
+        return HexFormat.of().formatHex(md.digest()).substring(0, HASH_HEX_LENGTH);
+    }
+
+    private static PutObjectRequest putRequest(String bucket, String key, String contentType, long length,
+                                               Map<String, String> metadata) {
+        return PutObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .contentType(contentType)
+                .contentLength(length)
+                .cacheControl(CACHE_CONTROL_1Y)
+                .metadata(metadata)
+                .build();
+    }
+
+    private String publicUrl(String bucket, String key) {
+        String base = s3cfg.getPublicBaseUrl();
+        if (base == null) base = "";
+        if (base.endsWith("/")) base = base.substring(0, base.length() - 1);
+        return base + "/" + bucket + "/" + key;
+    }
+}
@@ -0,0 +1,22 @@
+package ru.staffly.media;
+
+import java.util.List;
+
+/**
+ * Набор фиксированных ширин, в которые нарезается загруженное изображение.
+ * Ширины отсортированы по возрастанию — так их удобнее отдавать в srcset.
+ */
+public enum ImageProfile {
+    AVATAR(List.of(64, 256)),
+    KNOWLEDGE(List.of(640, 1280));
+
+    private final List<Integer> widths;
+
+    ImageProfile(List<Integer> widths) {
+        this.widths = widths;
+    }
+
+    public List<Integer> widths() {
+        return widths;
+    }
+}
@@ -0,0 +1,31 @@
+package ru.staffly.media;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @param maxSourcePixels потолок ширина×высота загружаемой картинки: декодированный кадр занимает 4 байта
+ *                        на пиксель, и маленький PNG/JPEG может развернуться в гигабайты
+ */
+@ConfigurationProperties(prefix = "app.media")
+public record MediaProperties(
+        Workers workers,
+        String variantFormat,
+        float variantQuality,
+        long maxSourcePixels
+) {
+    public MediaProperties {
+        if (workers == null) workers = new Workers(2, 16, Duration.ofSeconds(30));
+        if (variantFormat == null || variantFormat.isBlank()) variantFormat = "webp";
+        if (variantQuality <= 0 || variantQuality > 1) variantQuality = 0.8f;
+        if (maxSourcePixels <= 0) maxSourcePixels = 25_000_000L;
+    }
+
+    /**
+     * @param threads       сколько картинок ресайзится параллельно
+     * @param queueCapacity сколько задач может ждать в очереди, дальше — отказ
+     * @param timeout       сколько запрос ждёт готовности всех вариантов
+     */
+    public record Workers(int threads, int queueCapacity, Duration timeout) {}
+}
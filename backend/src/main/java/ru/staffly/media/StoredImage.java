@@ -0,0 +1,10 @@
+package ru.staffly.media;
+
+/**
+ * Результат загрузки изображения.
+ *
+ * @param url    публичный URL оригинала
+ * @param srcset готовое значение для {@code <img srcset>} с уменьшенными копиями;
+ *               {@code null}, если варианты построить не удалось
+ */
+public record StoredImage(String url, String srcset) {}
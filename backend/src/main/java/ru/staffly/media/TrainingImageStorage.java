@@ -4,14 +4,13 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 import ru.staffly.config.S3Config;
-import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 
 import java.io.IOException;
 import java.time.Instant;
+import java.util.Map;
 import java.util.Set;
-import java.util.UUID;
 
 @Component
 @RequiredArgsConstructor
@@ -19,57 +18,57 @@ public class TrainingImageStorage {
 
     private final S3Client s3;
     private final S3Config s3cfg;
+    private final ImagePipeline pipeline;
 
     private static final Set<String> ALLOWED = Set.of("image/jpeg", "image/png", "image/webp");
-    private static final String CACHE_CONTROL_1Y = "public, max-age=31536000, immutable";
+
+    /** Общий лимит multipart поднят под импорт обучения, картинки материалов остаются в 2MB. */
+    private static final long MAX_IMAGE_BYTES = 2L * 1024 * 1024;
 
     /**
-     * S3 key format:
-     * training/items/{itemId}/{uuid}.{ext}
+     * S3 key:
+     * training/items/{itemId}/{sha256}/original.{ext} + уменьшенные копии рядом
      */
-    public String saveForItem(Long itemId, MultipartFile file) throws IOException {
+    public StoredImage saveForItem(Long itemId, MultipartFile file) throws IOException {
         if (file == null || file.isEmpty()) throw new IllegalArgumentException("Пустой файл");
+        if (file.getSize() > MAX_IMAGE_BYTES) throw new IllegalArgumentException("Файл больше 2MB");
 
         String ct = normalizeContentType(file.getContentType());
         if (ct == null || !ALLOWED.contains(ct)) {
             throw new IllegalArgumentException("Разрешены только JPEG/PNG/WEBP");
         }
 
-        String ext = switch (ct) {
-            case "image/jpeg" -> "jpg";
-            case "image/png" -> "png";
-            case "image/webp" -> "webp";
-            default -> "bin";
-        };
-
         // ✅ НАДЁЖНО: чистим весь prefix item-а перед загрузкой
-        String prefix = "training/items/" + itemId + "/";
+        String prefix = itemPrefix(itemId);
         deleteByPrefix(s3cfg.getPublicBucket(), prefix);
 
-        String key = prefix + UUID.randomUUID() + "." + ext;
-
-        PutObjectRequest req = PutObjectRequest.builder()
-                .bucket(s3cfg.getPublicBucket())
-                .key(key)
-                .contentType(ct)
-                .contentLength(file.getSize())
-                .cacheControl(CACHE_CONTROL_1Y)
-                .metadata(java.util.Map.of(
-                        "uploadedAt", Instant.now().toString(),
-                        "itemId", String.valueOf(itemId)
-                ))
-                .build();
-
-        s3.putObject(req, RequestBody.fromBytes(file.getBytes()));
-
-        return publicUrl(s3cfg.getPublicBucket(), key);
+        return pipeline.store(prefix, ImageProfile.KNOWLEDGE, file, Map.of(
+                "uploadedAt", Instant.now().toString(),
+                "itemId", String.valueOf(itemId)
+        ));
     }
 
-    public void deleteByPublicUrl(String publicUrl) {
+    /**
+     * Удаляет картинку материала по её URL. Ключи вне {@code training/items/{itemId}/} публичного бакета
+     * не трогаются: URL пришёл из БД и мог быть подставлен (импорт, старые данные).
+     */
+    public void deleteByPublicUrl(Long itemId, String publicUrl) {
         if (publicUrl == null || publicUrl.isBlank()) return;
 
         BucketKey bk = extractBucketKeyFromUrl(publicUrl);
         if (bk == null) return;
+        if (!bk.bucket().equals(s3cfg.getPublicBucket())
+                || !bk.key().startsWith(itemPrefix(itemId))
+                || bk.key().contains("..")) {
+            return;
+        }
+
+        // новая раскладка: вместе с оригиналом удаляем и все его варианты
+        String variantDir = ImagePipeline.variantDirectoryOf(bk.key());
+        if (variantDir != null) {
+            deleteByPrefix(bk.bucket(), variantDir);
+            return;
+        }
 
         try {
             s3.deleteObject(DeleteObjectRequest.builder()
@@ -81,12 +80,15 @@ public class TrainingImageStorage {
     }
 
     public void deleteItemFolder(Long itemId) {
-        String prefix = "training/items/" + itemId + "/";
-        deleteByPrefix(s3cfg.getPublicBucket(), prefix);
+        deleteByPrefix(s3cfg.getPublicBucket(), itemPrefix(itemId));
     }
 
     /* ================= helpers ================= */
 
+    private static String itemPrefix(Long itemId) {
+        return "training/items/" + itemId + "/";
+    }
+
     private void deleteByPrefix(String bucket, String prefix) {
         try {
             String token = null;
@@ -115,11 +117,6 @@ public class TrainingImageStorage {
         }
     }
 
-    private String publicUrl(String bucket, String key) {
-        String base = trimTrailingSlash(s3cfg.getPublicBaseUrl());
-        return base + "/" + bucket + "/" + key;
-    }
-
     private record BucketKey(String bucket, String key) {}
 
     private BucketKey extractBucketKeyFromUrl(String url) {
@@ -29,6 +29,14 @@ public interface RestaurantMemberRepository extends JpaRepository<RestaurantMemb
            """)
     List<RestaurantMember> findWithUserByRestaurantId(Long restaurantId);
 
+    @Query("""
+           select m from RestaurantMember m
+           join fetch m.user u
+           where m.restaurant.id = :restaurantId
+             and m.position.id = :positionId
+           """)
+    List<RestaurantMember> findWithUserByRestaurantIdAndPositionId(Long restaurantId, Long positionId);
+
     List<RestaurantMember> findByRestaurantIdAndPositionIdIn(Long restaurantId, List<Long> positionIds);
 
     long countByRestaurantIdAndRole(Long restaurantId, RestaurantRole role);
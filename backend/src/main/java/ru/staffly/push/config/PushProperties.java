@@ -2,13 +2,33 @@ package ru.staffly.push.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+
+/**
+ * @param coalesceWindow   на сколько откладывается отправка, чтобы следующие уведомления того же
+ *                         пользователя в том же ресторане ушли одним сводным push; 0 — без задержки
+ * @param historyRetention сколько хранятся завершённые доставки; старше — секция истории удаляется целиком
+ */
 @ConfigurationProperties(prefix = "app.push")
 public record PushProperties(
         boolean enabled,
         Worker worker,
-        Vapid vapid
+        Vapid vapid,
+        Duration coalesceWindow,
+        Duration historyRetention
 ) {
-    public record Worker(boolean enabled) {}
+    public PushProperties {
+        if (coalesceWindow == null || coalesceWindow.isNegative()) coalesceWindow = Duration.ZERO;
+        if (worker == null) worker = new Worker(false, 0);
+        if (historyRetention == null) historyRetention = Duration.ofDays(90);
+    }
+
+    /** @param sendThreads сколько отправок в push-сервисы идёт параллельно */
+    public record Worker(boolean enabled, int sendThreads) {
+        public Worker {
+            if (sendThreads <= 0) sendThreads = 8;
+        }
+    }
 
     public record Vapid(
             String publicKey,
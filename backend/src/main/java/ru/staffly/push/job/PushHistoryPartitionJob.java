@@ -0,0 +1,108 @@
+package ru.staffly.push.job;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.staffly.common.db.DbLease;
+import ru.staffly.common.metrics.JobMetrics;
+import ru.staffly.common.time.TimeProvider;
+import ru.staffly.push.config.PushProperties;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Секции {@code push_delivery_history} по UTC-месяцам: создаёт текущую и следующие заранее,
+ * удаляет те, что целиком старше {@code app.push.history-retention}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PushHistoryPartitionJob {
+
+    private static final String TABLE = "push_delivery_history";
+    private static final String LEASE = "push-history-partitions";
+    private static final Duration LEASE_TTL = Duration.ofMinutes(10);
+    private static final int MONTHS_AHEAD = 2;
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("uuuu_MM");
+
+    private final JdbcTemplate jdbc;
+    private final DbLease lease;
+    private final PushProperties properties;
+    private final JobMetrics jobMetrics;
+
+    // Раз в сутки; секции создаются с запасом в два месяца, так что пропущенный прогон ничего не ломает
+    @Scheduled(cron = "0 30 3 * * *")
+    public void maintain() {
+        jobMetrics.record("push-history-partitions", this::maintainPartitions);
+    }
+
+    private int maintainPartitions() {
+        // DDL на web и worker одновременно подрался бы за блокировку родительской таблицы
+        if (!lease.tryAcquire(LEASE, LEASE_TTL)) {
+            return 0;
+        }
+        try {
+            Instant now = TimeProvider.now();
+            YearMonth current = YearMonth.from(now.atOffset(ZoneOffset.UTC));
+            for (int i = 0; i <= MONTHS_AHEAD; i++) {
+                createPartition(current.plusMonths(i));
+            }
+            return dropExpired(now.minus(properties.historyRetention()));
+        } finally {
+            lease.release(LEASE);
+        }
+    }
+
+    private void createPartition(YearMonth month) {
+        jdbc.execute("create table if not exists " + partitionName(month)
+                + " partition of " + TABLE
+                + " for values from ('" + bound(month) + "') to ('" + bound(month.plusMonths(1)) + "')");
+    }
+
+    private int dropExpired(Instant cutoff) {
+        List<String> partitions = jdbc.queryForList("""
+                select c.relname from pg_inherits i
+                join pg_class c on c.oid = i.inhrelid
+                join pg_class p on p.oid = i.inhparent
+                where p.relname = ?
+                """, String.class, TABLE);
+        int dropped = 0;
+        for (String partition : partitions) {
+            YearMonth month = monthOf(partition);
+            if (month == null) continue;
+            Instant end = month.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+            if (end.isAfter(cutoff)) continue;
+            // удаление секции — мгновенный DROP вместо DELETE по миллионам строк
+            jdbc.execute("drop table " + partition);
+            log.info("Dropped push delivery history partition {}", partition);
+            dropped++;
+        }
+        return dropped;
+    }
+
+    private static String partitionName(YearMonth month) {
+        return TABLE + "_" + month.format(SUFFIX);
+    }
+
+    private static String bound(YearMonth month) {
+        return month.atDay(1) + " 00:00:00+00";
+    }
+
+    /** {@code null} для секций не по месяцу (default). */
+    private static YearMonth monthOf(String partition) {
+        if (!partition.startsWith(TABLE + "_")) return null;
+        try {
+            return YearMonth.parse(partition.substring(TABLE.length() + 1), SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
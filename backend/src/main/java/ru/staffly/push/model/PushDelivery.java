@@ -8,11 +8,15 @@ import ru.staffly.user.model.User;
 
 import java.time.Instant;
 
+/**
+ * Незавершённая доставка push. SENT/FAILED/DEAD переносятся в секционированную {@code push_delivery_history}
+ * (см. V57), поэтому таблица остаётся маленькой.
+ */
 @Entity
 @Table(name = "push_deliveries",
         indexes = {
-                @Index(name = "idx_push_deliveries_status_run_at", columnList = "status,run_at"),
-                @Index(name = "idx_push_deliveries_next_attempt_at", columnList = "next_attempt_at"),
+                @Index(name = "idx_push_deliveries_pending_run_at", columnList = "run_at"),
+                @Index(name = "idx_push_deliveries_retry_next_attempt_at", columnList = "next_attempt_at"),
                 @Index(name = "idx_push_deliveries_user_id", columnList = "user_id"),
                 @Index(name = "idx_push_deliveries_lock_owner", columnList = "lock_owner"),
                 @Index(name = "idx_push_deliveries_locked_until", columnList = "locked_until")
@@ -25,7 +29,8 @@ import java.time.Instant;
 public class PushDelivery {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "push_deliveries_seq")
+    @SequenceGenerator(name = "push_deliveries_seq", sequenceName = "push_deliveries_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "ref_type", nullable = false, length = 40)
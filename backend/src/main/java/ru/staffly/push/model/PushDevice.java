@@ -58,6 +58,16 @@ public class PushDevice {
     @Column(name = "disabled_at")
     private Instant disabledAt;
 
+    @Column(name = "last_success_at")
+    private Instant lastSuccessAt;
+
+    @Column(name = "last_failure_at")
+    private Instant lastFailureAt;
+
+    /** Отправок подряд без успеха; сбрасывается первой успешной. */
+    @Column(name = "consecutive_failures", nullable = false)
+    private int consecutiveFailures;
+
     @PrePersist
     void prePersist() {
         Instant now = TimeProvider.now();
@@ -11,10 +11,30 @@ import java.util.List;
 
 public interface PushDeliveryRepository extends JpaRepository<PushDelivery, Long> {
 
+    String ARCHIVE = """
+            with done as (
+                delete from push_deliveries where id = :id
+                returning id, ref_type, ref_id, restaurant_id, user_id, payload, attempts, created_at
+            )
+            insert into push_delivery_history (id, ref_type, ref_id, restaurant_id, user_id, payload, status, attempts,
+                                               sent_at, last_error, last_http_status, created_at, finished_at)
+            """;
+
+    /**
+     * Ставит доставку, только если её ключ ещё не встречался: завершённые доставки уходят в историю,
+     * поэтому повтор отсекает {@code push_delivery_keys}, а не уникальный индекс очереди.
+     */
     @Modifying
     @Query(value = """
+            with new_key as (
+                insert into push_delivery_keys (ref_type, ref_id, user_id, created_at)
+                values (:refType, :refId, :userId, :now)
+                on conflict do nothing
+                returning ref_type
+            )
             insert into push_deliveries (ref_type, ref_id, restaurant_id, user_id, payload, status, run_at, created_at, updated_at)
-            values (:refType, :refId, :restaurantId, :userId, cast(:payload as jsonb), :status, :runAt, :now, :now)
+            select :refType, :refId, :restaurantId, :userId, cast(:payload as jsonb), :status, :runAt, :now, :now
+            from new_key
             on conflict (ref_type, ref_id, user_id) do nothing
             """, nativeQuery = true)
     int enqueueDelivery(@Param("refType") String refType,
@@ -39,6 +59,25 @@ public interface PushDeliveryRepository extends JpaRepository<PushDelivery, Long
             """, nativeQuery = true)
     List<Long> lockBatchForSending(@Param("now") Instant now, @Param("batch") int batch);
 
+    /**
+     * Ещё не наступившие PENDING тех же (user, restaurant), что и {@code ids}: уходят вместе с ними
+     * одним сводным push.
+     */
+    @Query(value = """
+            select s.id from push_deliveries s
+            where s.status = 'PENDING'
+              and s.id not in (:ids)
+              and (s.locked_until is null or s.locked_until < :now)
+              and exists (
+                  select 1 from push_deliveries d
+                  where d.id in (:ids)
+                    and d.user_id = s.user_id
+                    and d.restaurant_id = s.restaurant_id
+              )
+            for update skip locked
+            """, nativeQuery = true)
+    List<Long> lockPendingSiblings(@Param("ids") List<Long> ids, @Param("now") Instant now);
+
     @Modifying
     @Query(value = """
             update push_deliveries
@@ -73,18 +112,12 @@ public interface PushDeliveryRepository extends JpaRepository<PushDelivery, Long
                     @Param("lastHttpStatus") Integer lastHttpStatus,
                     @Param("now") Instant now);
 
+    /** Завершённая доставка уходит из очереди в {@code push_delivery_history} (секция месяца {@code now}). */
     @Modifying
-    @Query(value = """
-            update push_deliveries
-            set status = :status,
-                sent_at = :sentAt,
-                next_attempt_at = null,
-                locked_until = null,
-                lock_owner = null,
-                last_error = :lastError,
-                last_http_status = :lastHttpStatus,
-                updated_at = :now
-            where id = :id
+    @Query(value = ARCHIVE + """
+            select id, ref_type, ref_id, restaurant_id, user_id, payload, :status, attempts,
+                   :sentAt, :lastError, :lastHttpStatus, created_at, :now
+            from done
             """, nativeQuery = true)
     int markSent(@Param("id") Long id,
                  @Param("status") String status,
@@ -94,20 +127,25 @@ public interface PushDeliveryRepository extends JpaRepository<PushDelivery, Long
                  @Param("now") Instant now);
 
     @Modifying
-    @Query(value = """
-            update push_deliveries
-            set status = :status,
-                next_attempt_at = null,
-                locked_until = null,
-                lock_owner = null,
-                last_error = :lastError,
-                last_http_status = :lastHttpStatus,
-                updated_at = :now
-            where id = :id
+    @Query(value = ARCHIVE + """
+            select id, ref_type, ref_id, restaurant_id, user_id, payload, :status, attempts,
+                   cast(null as timestamptz), :lastError, :lastHttpStatus, created_at, :now
+            from done
             """, nativeQuery = true)
     int markFailed(@Param("id") Long id,
                    @Param("status") String status,
                    @Param("lastError") String lastError,
                    @Param("lastHttpStatus") Integer lastHttpStatus,
                    @Param("now") Instant now);
+
+    @Modifying
+    @Query(value = "delete from push_delivery_keys where ref_type = :refType and ref_id in (:refIds)", nativeQuery = true)
+    int deleteKeys(@Param("refType") String refType, @Param("refIds") List<Long> refIds);
+
+    @Query(value = """
+            select status, count(*) from push_deliveries
+            where status in (:statuses)
+            group by status
+            """, nativeQuery = true)
+    List<Object[]> countByStatuses(@Param("statuses") List<String> statuses);
 }
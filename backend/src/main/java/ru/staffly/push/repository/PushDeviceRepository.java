@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import ru.staffly.push.model.PushDevice;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 public interface PushDeviceRepository extends JpaRepository<PushDevice, Long> {
@@ -14,6 +15,9 @@ public interface PushDeviceRepository extends JpaRepository<PushDevice, Long> {
     @Query("select d from PushDevice d where d.user.id = :userId and d.disabledAt is null")
     List<PushDevice> findActiveDevicesByUserId(@Param("userId") Long userId);
 
+    @Query("select d from PushDevice d where d.user.id in :userIds and d.disabledAt is null")
+    List<PushDevice> findActiveDevicesByUserIds(@Param("userIds") Collection<Long> userIds);
+
     @Modifying
     @Query(value = """
             insert into push_devices (user_id, endpoint, p256dh, auth, expiration_time, user_agent, platform, created_at, updated_at, last_seen_at)
@@ -26,6 +30,7 @@ public interface PushDeviceRepository extends JpaRepository<PushDevice, Long> {
                 user_agent = excluded.user_agent,
                 platform = excluded.platform,
                 disabled_at = null,
+                consecutive_failures = 0,
                 last_seen_at = :now,
                 updated_at = :now
             """, nativeQuery = true)
@@ -47,15 +52,6 @@ public interface PushDeviceRepository extends JpaRepository<PushDevice, Long> {
             """, nativeQuery = true)
     int disableByEndpoint(@Param("endpoint") String endpoint, @Param("now") Instant now);
 
-    @Modifying
-    @Query(value = """
-            update push_devices
-            set disabled_at = :now,
-                updated_at = :now
-            where id = :id and disabled_at is null
-            """, nativeQuery = true)
-    int disableById(@Param("id") Long id, @Param("now") Instant now);
-
     @Modifying
     @Query(value = """
         update push_devices
@@ -68,4 +64,31 @@ public interface PushDeviceRepository extends JpaRepository<PushDevice, Long> {
     int disableByEndpointAndUserId(@Param("endpoint") String endpoint,
                                    @Param("userId") Long userId,
                                    @Param("now") Instant now);
+
+    @Modifying
+    @Query(value = """
+            update push_devices
+            set disabled_at = :now,
+                updated_at = :now
+            where id in (:ids) and disabled_at is null
+            """, nativeQuery = true)
+    int disableByIds(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    @Modifying
+    @Query(value = """
+            update push_devices
+            set last_success_at = :now,
+                consecutive_failures = 0
+            where id in (:ids)
+            """, nativeQuery = true)
+    int recordSuccess(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    @Modifying
+    @Query(value = """
+            update push_devices
+            set last_failure_at = :now,
+                consecutive_failures = consecutive_failures + 1
+            where id in (:ids)
+            """, nativeQuery = true)
+    int recordFailure(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
 }
@@ -1,11 +1,13 @@
 package ru.staffly.push.service;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.staffly.common.time.TimeProvider;
 import ru.staffly.push.config.PushProperties;
 import ru.staffly.push.model.PushDelivery;
@@ -15,8 +17,19 @@ import ru.staffly.push.repository.PushDeliveryRepository;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -32,76 +45,201 @@ public class PushDeliveryWorker {
     private static final int BATCH_SIZE = 50;
     private static final int MAX_ATTEMPTS = 10;
     private static final Duration LOCK_DURATION = Duration.ofMinutes(1);
+    private static final int CHRONIC_FAILURES = 5;
+    private static final Duration CHRONIC_PROBE_INTERVAL = Duration.ofMinutes(30);
 
     private final PushDeliveryRepository deliveryRepository;
     private final PushDeviceService deviceService;
     private final WebPushSender sender;
     private final PushProperties properties;
+    private final PushMetrics metrics;
+    private final PushPayloadFactory payloadFactory;
+    private final TransactionTemplate tx;
 
     private final String lockOwner = "worker-" + UUID.randomUUID();
 
+    /** Получатель сводного push: все его доставки из пачки уходят одним уведомлением. */
+    private record Recipient(Long userId, Long restaurantId) {
+    }
+
+    /** Доставки одного получателя, push для них и итог отправки на его устройства. */
+    private static final class Group {
+        final List<PushDelivery> deliveries;
+        final String payload;
+        int successCount;
+        String lastError;
+        Integer lastStatus;
+
+        Group(List<PushDelivery> deliveries, String payload) {
+            this.deliveries = deliveries;
+            this.payload = payload;
+        }
+    }
+
+    /** Одна отправка: push группы на одно устройство. */
+    private record SendUnit(Group group, PushDevice device) {
+    }
+
+    private ExecutorService senders;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger counter = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(properties.worker().sendThreads(), r -> {
+            Thread t = new Thread(r, "push-send-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdownNow();
+    }
+
+    /**
+     * Захват пачки и запись итогов — две короткие транзакции; отправка между ними идёт без транзакции
+     * и без соединения из пула. Если итоги не записались, строки вернутся в очередь по истечении блокировки.
+     */
     @Scheduled(fixedDelayString = "PT5S")
-    @Transactional
     public void run() {
         if (!properties.enabled()) {
             return;
         }
-        List<PushDelivery> deliveries = lockBatch();
-        for (PushDelivery delivery : deliveries) {
-            handleDelivery(delivery);
+        List<PushDelivery> batch = tx.execute(status -> lockBatch());
+        if (batch == null || batch.isEmpty()) {
+            return;
+        }
+        Map<Recipient, List<PushDelivery>> byRecipient = new LinkedHashMap<>();
+        for (PushDelivery delivery : batch) {
+            byRecipient.computeIfAbsent(new Recipient(delivery.getUserId(), delivery.getRestaurantId()),
+                    key -> new ArrayList<>()).add(delivery);
+        }
+        Map<Long, List<PushDevice>> devicesByUser = deviceService.findActiveDevices(
+                byRecipient.keySet().stream().map(Recipient::userId).collect(Collectors.toSet()));
+
+        Instant now = TimeProvider.now();
+        List<Group> groups = new ArrayList<>();
+        List<SendUnit> units = new ArrayList<>();
+        List<PushDelivery> noDevices = new ArrayList<>();
+        byRecipient.forEach((recipient, deliveries) -> {
+            List<PushDevice> devices = selectDevices(devicesByUser.getOrDefault(recipient.userId(), List.of()), now);
+            if (devices.isEmpty()) {
+                noDevices.addAll(deliveries);
+                return;
+            }
+            deliveries.sort(Comparator.comparing(PushDelivery::getId));
+            Group group = new Group(deliveries, payloadFor(deliveries));
+            groups.add(group);
+            devices.forEach(device -> units.add(new SendUnit(group, device)));
+        });
+
+        List<CompletableFuture<WebPushSender.PushSendResult>> results = units.stream()
+                .map(unit -> CompletableFuture.supplyAsync(() -> send(unit), senders))
+                .toList();
+
+        List<Long> succeeded = new ArrayList<>();
+        List<Long> failed = new ArrayList<>();
+        List<Long> gone = new ArrayList<>();
+        for (int i = 0; i < units.size(); i++) {
+            SendUnit unit = units.get(i);
+            WebPushSender.PushSendResult result = results.get(i).join();
+            Group group = unit.group();
+            group.lastStatus = result.httpStatus();
+            if (result.success()) {
+                group.successCount++;
+                succeeded.add(unit.device().getId());
+            } else {
+                group.lastError = result.errorMessage();
+                (result.isGone() ? gone : failed).add(unit.device().getId());
+            }
+        }
+
+        tx.executeWithoutResult(status -> {
+            noDevices.forEach(delivery -> markDead(delivery, "No active devices", null));
+            deviceService.recordResults(succeeded, failed, gone);
+            for (Group group : groups) {
+                for (PushDelivery delivery : group.deliveries) {
+                    if (group.successCount > 0) {
+                        markSent(delivery, null, group.lastStatus);
+                    } else if (delivery.getAttempts() >= MAX_ATTEMPTS) {
+                        markFailed(delivery, group.lastError, group.lastStatus, PushDeliveryStatus.FAILED);
+                    } else {
+                        markRetry(delivery, group.lastError, group.lastStatus, delivery.getAttempts());
+                    }
+                }
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "PT30S")
+    public void refreshQueueMetrics() {
+        Map<PushDeliveryStatus, Long> counts = new EnumMap<>(PushDeliveryStatus.class);
+        for (Object[] row : deliveryRepository.countByStatuses(
+                Arrays.stream(PushMetrics.QUEUED).map(Enum::name).toList())) {
+            counts.put(PushDeliveryStatus.valueOf((String) row[0]), ((Number) row[1]).longValue());
         }
+        metrics.queueDepth(counts);
     }
 
-    @Transactional
-    public List<PushDelivery> lockBatch() {
+    private List<PushDelivery> lockBatch() {
         Instant now = TimeProvider.now();
         List<Long> ids = deliveryRepository.lockBatchForSending(now, BATCH_SIZE);
         if (ids.isEmpty()) {
             return List.of();
         }
+        // окно группировки ещё не истекло, но раз push этому пользователю всё равно уходит — забираем и их
+        List<Long> siblings = deliveryRepository.lockPendingSiblings(ids, now);
+        if (!siblings.isEmpty()) {
+            ids = new ArrayList<>(ids);
+            ids.addAll(siblings);
+        }
         deliveryRepository.markAsSending(ids, lockOwner, now.plus(LOCK_DURATION), now);
         return deliveryRepository.findAllById(ids);
     }
 
-    public void handleDelivery(PushDelivery delivery) {
-        Long userId = delivery.getUserId();
-        List<PushDevice> devices = deviceService.findActiveDevices(userId);
-        if (devices.isEmpty()) {
-            markDead(delivery, "No active devices", null);
-            return;
+    /**
+     * Хронически падающие устройства (неудач подряд не меньше {@value #CHRONIC_FAILURES}) не тормозят
+     * пачку: если у пользователя есть здоровые, такие пробуются не чаще раза в {@code CHRONIC_PROBE_INTERVAL}.
+     */
+    private List<PushDevice> selectDevices(List<PushDevice> devices, Instant now) {
+        if (devices.stream().allMatch(this::isChronic)) {
+            return devices;
         }
+        Instant probeBefore = now.minus(CHRONIC_PROBE_INTERVAL);
+        return devices.stream()
+                .filter(device -> !isChronic(device)
+                        || device.getLastFailureAt() == null
+                        || device.getLastFailureAt().isBefore(probeBefore))
+                .toList();
+    }
 
-        int successCount = 0;
-        String lastError = null;
-        Integer lastStatus = null;
-
-        for (PushDevice device : devices) {
-            WebPushSender.PushSendResult result = sender.send(device, delivery.getPayload());
-            if (result.success()) {
-                successCount++;
-                lastStatus = result.httpStatus();
-            } else if (result.isGone()) {
-                lastStatus = result.httpStatus();
-                lastError = result.errorMessage();
-                deviceService.disableById(device.getId());
-            } else {
-                lastStatus = result.httpStatus();
-                lastError = result.errorMessage();
-            }
-        }
+    private boolean isChronic(PushDevice device) {
+        return device.getConsecutiveFailures() >= CHRONIC_FAILURES;
+    }
 
-        if (successCount > 0) {
-            markSent(delivery, null, lastStatus);
-            return;
+    /** Несколько доставок одному получателю — один сводный push. */
+    private String payloadFor(List<PushDelivery> deliveries) {
+        if (deliveries.size() == 1) {
+            return deliveries.get(0).getPayload();
         }
+        metrics.coalesced(deliveries.size());
+        return payloadFactory.buildDigest(deliveries.stream().map(PushDelivery::getPayload).toList());
+    }
 
-        int attempts = delivery.getAttempts();
-        if (attempts >= MAX_ATTEMPTS) {
-            markFailed(delivery, lastError, lastStatus, PushDeliveryStatus.FAILED);
-            return;
+    /** Исключение одной отправки — неудача этого устройства, а не всей пачки. */
+    private WebPushSender.PushSendResult send(SendUnit unit) {
+        var sample = metrics.startSend();
+        WebPushSender.PushSendResult result;
+        try {
+            result = sender.send(unit.device(), unit.group().payload);
+        } catch (RuntimeException e) {
+            log.warn("Push send failed deviceId={} error={}", unit.device().getId(), e.toString());
+            result = WebPushSender.PushSendResult.failure(null, e.getClass().getSimpleName() + ": " + e.getMessage());
         }
-
-        markRetry(delivery, lastError, lastStatus, attempts);
+        String outcome = result.success() ? "ok" : result.isGone() ? "gone" : "error";
+        metrics.stopSend(sample, unit.device().getEndpoint(), outcome);
+        return result;
     }
 
     private void markDead(PushDelivery delivery, String error, Integer status) {
@@ -113,6 +251,7 @@ public class PushDeliveryWorker {
                 status,
                 now
         );
+        metrics.delivery(PushDeliveryStatus.DEAD);
         log.info("Push delivery dead id={} userId={} restaurantId={} refId={} attempts={} status={} error={}",
                 delivery.getId(),
                 delivery.getUserId(),
@@ -133,7 +272,9 @@ public class PushDeliveryWorker {
                 status,
                 now
         );
-        log.info("Push delivery sent id={} userId={} restaurantId={} refId={} attempts={} status={} httpStatus={}",
+        metrics.delivery(PushDeliveryStatus.SENT);
+        // успешные доставки видны в метриках; построчный лог только для отладки
+        log.debug("Push delivery sent id={} userId={} restaurantId={} refId={} attempts={} status={} httpStatus={}",
                 delivery.getId(),
                 delivery.getUserId(),
                 delivery.getRestaurantId(),
@@ -154,6 +295,7 @@ public class PushDeliveryWorker {
                 status,
                 now
         );
+        metrics.delivery(PushDeliveryStatus.RETRY);
         log.info("Push delivery retry id={} userId={} restaurantId={} refId={} attempts={} status={} nextAttemptAt={} httpStatus={} error={}",
                 delivery.getId(),
                 delivery.getUserId(),
@@ -175,6 +317,7 @@ public class PushDeliveryWorker {
                 status,
                 now
         );
+        metrics.delivery(finalStatus);
         log.info("Push delivery failed id={} userId={} restaurantId={} refId={} attempts={} status={} httpStatus={} error={}",
                 delivery.getId(),
                 delivery.getUserId(),
@@ -8,7 +8,10 @@ import ru.staffly.push.model.PushDevice;
 import ru.staffly.push.repository.PushDeviceRepository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -20,6 +23,33 @@ public class PushDeviceService {
         return repository.findActiveDevicesByUserId(userId);
     }
 
+    /** Активные устройства сразу для всех получателей пачки, по userId. */
+    public Map<Long, List<PushDevice>> findActiveDevices(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        return repository.findActiveDevicesByUserIds(userIds).stream()
+                .collect(Collectors.groupingBy(device -> device.getUser().getId()));
+    }
+
+    /**
+     * Итоги отправок пачки одним махом: ушедшие подписки (404/410) отключаются,
+     * у остальных обновляется счётчик неудач подряд.
+     */
+    @Transactional
+    public void recordResults(Collection<Long> succeeded, Collection<Long> failed, Collection<Long> gone) {
+        Instant now = TimeProvider.now();
+        if (!succeeded.isEmpty()) {
+            repository.recordSuccess(succeeded, now);
+        }
+        if (!failed.isEmpty()) {
+            repository.recordFailure(failed, now);
+        }
+        if (!gone.isEmpty()) {
+            repository.disableByIds(gone, now);
+        }
+    }
+
     @Transactional
     public void upsertDevice(Long userId,
                              String endpoint,
@@ -37,11 +67,6 @@ public class PushDeviceService {
         repository.disableByEndpoint(endpoint, TimeProvider.now());
     }
 
-    @Transactional
-    public void disableById(Long deviceId) {
-        repository.disableById(deviceId, TimeProvider.now());
-    }
-
     @Transactional
     public void disableByEndpoint(Long userId, String endpoint) {
         repository.disableByEndpointAndUserId(endpoint, userId, TimeProvider.now());
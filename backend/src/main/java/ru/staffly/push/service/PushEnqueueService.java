@@ -38,6 +38,7 @@ public class PushEnqueueService {
         }
         String payload = payloadFactory.buildForMessage(message);
         Instant now = TimeProvider.now();
+        Instant runAt = now.plus(properties.coalesceWindow());
         Long restaurantId = message.getRestaurant().getId();
         Long refId = message.getId();
 
@@ -49,9 +50,18 @@ public class PushEnqueueService {
                     userId,
                     payload,
                     "PENDING",
-                    now,
+                    runAt,
                     now
             );
         }
     }
+
+    /** Вызывать при удалении сообщений: после этого их ключи доставки больше ничего не защищают. */
+    @Transactional
+    public void forgetMessages(List<Long> messageIds) {
+        if (messageIds.isEmpty()) {
+            return;
+        }
+        deliveryRepository.deleteKeys(REF_TYPE_INBOX, messageIds);
+    }
 }
@@ -0,0 +1,75 @@
+package ru.staffly.push.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import ru.staffly.push.model.PushDeliveryStatus;
+
+import java.net.URI;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Метрики очереди push. Глубину очереди обновляет {@link PushDeliveryWorker}, чтобы скрейп не ходил в БД;
+ * считаются только незавершённые статусы — SENT/DEAD/FAILED видны по счётчику {@code push.deliveries}.
+ */
+@Component
+public class PushMetrics {
+
+    static final PushDeliveryStatus[] QUEUED = {
+            PushDeliveryStatus.PENDING, PushDeliveryStatus.RETRY, PushDeliveryStatus.SENDING
+    };
+
+    private final MeterRegistry registry;
+    private final Map<PushDeliveryStatus, AtomicLong> queueDepth = new EnumMap<>(PushDeliveryStatus.class);
+
+    public PushMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (PushDeliveryStatus status : QUEUED) {
+            AtomicLong depth = new AtomicLong();
+            queueDepth.put(status, depth);
+            Gauge.builder("push.queue.depth", depth, AtomicLong::get)
+                    .tag("status", status.name())
+                    .description("push_deliveries rows waiting to be sent")
+                    .register(registry);
+        }
+    }
+
+    void queueDepth(Map<PushDeliveryStatus, Long> counts) {
+        queueDepth.forEach((status, depth) -> depth.set(counts.getOrDefault(status, 0L)));
+    }
+
+    Timer.Sample startSend() {
+        return Timer.start(registry);
+    }
+
+    /** outcome: ok | gone | error; host — хост push-сервиса (FCM, Mozilla, Apple), кардинальность мала. */
+    void stopSend(Timer.Sample sample, String endpoint, String outcome) {
+        sample.stop(Timer.builder("push.send")
+                .tag("host", host(endpoint))
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    void delivery(PushDeliveryStatus finalStatus) {
+        Counter.builder("push.deliveries").tag("outcome", finalStatus.name()).register(registry).increment();
+    }
+
+    /** Сколько доставок ушло в составе сводного push. */
+    void coalesced(int deliveries) {
+        Counter.builder("push.coalesced").register(registry).increment(deliveries);
+    }
+
+    private static String host(String endpoint) {
+        try {
+            String host = URI.create(endpoint).getHost();
+            return host != null ? host : "unknown";
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return "unknown";
+        }
+    }
+}
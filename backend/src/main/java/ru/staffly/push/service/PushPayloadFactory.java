@@ -1,6 +1,7 @@
 package ru.staffly.push.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
@@ -8,6 +9,7 @@ import ru.staffly.inbox.model.InboxMessage;
 import ru.staffly.inbox.model.InboxMessageType;
 
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Component
@@ -47,6 +49,61 @@ public class PushPayloadFactory {
         }
     }
 
+    /**
+     * Один push вместо нескольких для одного пользователя в одном ресторане. Тег общий на ресторан:
+     * следующая сводка заменяет предыдущую в шторке, а не добавляется к ней.
+     */
+    public String buildDigest(List<String> payloads) {
+        List<JsonNode> items = payloads.stream().map(this::read).toList();
+        JsonNode first = items.get(0);
+        long restaurantId = first.path("restaurantId").asLong();
+
+        StringBuilder body = new StringBuilder();
+        for (JsonNode item : items) {
+            if (body.length() >= MAX_BODY_LENGTH) break;
+            if (!body.isEmpty()) body.append(" · ");
+            body.append(item.path("title").asText()).append(": ").append(item.path("body").asText());
+        }
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("title", digestTitle(items.size()));
+        payload.put("body", truncate(body.toString(), MAX_BODY_LENGTH));
+        payload.put("tag", "inbox:digest:" + restaurantId);
+        payload.put("rid", restaurantId);
+        payload.put("to", "/inbox");
+        payload.put("url", "/push?rid=" + restaurantId + "&to=/inbox");
+        payload.put("restaurantId", restaurantId);
+        payload.put("restaurantName", first.path("restaurantName").asText(null));
+        payload.put("count", items.size());
+        payload.put("type", "DIGEST");
+
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize push payload", e);
+        }
+    }
+
+    private JsonNode read(String payload) {
+        try {
+            return objectMapper.readTree(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to parse push payload", e);
+        }
+    }
+
+    private String digestTitle(int count) {
+        int mod10 = count % 10;
+        int mod100 = count % 100;
+        if (mod10 == 1 && mod100 != 11) {
+            return count + " новое уведомление";
+        }
+        if (mod10 >= 2 && mod10 <= 4 && (mod100 < 12 || mod100 > 14)) {
+            return count + " новых уведомления";
+        }
+        return count + " новых уведомлений";
+    }
+
     private String resolveTitle(InboxMessageType type) {
         return switch (type) {
             case ANNOUNCEMENT -> "Объявление";
@@ -4,6 +4,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.staffly.reminder.model.Reminder;
+import ru.staffly.reminder.repository.projection.ReminderFire;
 
 import java.time.Instant;
 import java.util.List;
@@ -28,17 +29,23 @@ public interface ReminderRepository extends JpaRepository<Reminder, Long> {
 
     @Query("""
         select r from Reminder r
+        join fetch r.restaurant
         left join fetch r.targetPosition
         left join fetch r.targetMember tm
         left join fetch tm.user
-        left join fetch tm.position
         left join fetch r.createdByMember cb
         left join fetch cb.user
-        left join fetch cb.position
-        where r.restaurant.id = :restaurantId
-          and r.active = true
+        where r.id = :id
+        """)
+    Optional<Reminder> findDetailedById(@Param("id") Long id);
+
+    @Query("""
+        select new ru.staffly.reminder.repository.projection.ReminderFire(r.id, r.nextFireAt)
+        from Reminder r
+        where r.active = true
           and r.nextFireAt is not null
-          and r.nextFireAt <= :now
+          and r.nextFireAt <= :until
         """)
-    List<Reminder> findDueReminders(@Param("restaurantId") Long restaurantId, @Param("now") Instant now);
+    List<ReminderFire> findFiresUntil(@Param("until") Instant until);
+
 }
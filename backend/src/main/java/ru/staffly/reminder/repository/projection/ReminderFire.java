@@ -0,0 +1,9 @@
+package ru.staffly.reminder.repository.projection;
+
+import java.time.Instant;
+
+public record ReminderFire(
+        Long id,
+        Instant nextFireAt
+) {
+}
@@ -1,9 +1,7 @@
-package ru.staffly.reminder.job;
+package ru.staffly.reminder.service;
 
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.staffly.common.time.RestaurantTimeService;
 import ru.staffly.inbox.model.InboxEventSubtype;
@@ -16,71 +14,43 @@ import ru.staffly.reminder.model.Reminder;
 import ru.staffly.reminder.model.ReminderPeriodicity;
 import ru.staffly.reminder.model.ReminderTargetType;
 import ru.staffly.reminder.repository.ReminderRepository;
-import ru.staffly.reminder.service.ReminderScheduleCalculator;
 import ru.staffly.restaurant.model.Restaurant;
-import ru.staffly.restaurant.repository.RestaurantRepository;
 import ru.staffly.user.model.User;
 
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.List;
-import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
-@Slf4j
-@Component
+/**
+ * Срабатывание одного напоминания: событие во входящие адресатам и следующий {@code nextFireAt}.
+ * Вызывается {@link ReminderTimer} в момент срабатывания.
+ */
+@Service
 @RequiredArgsConstructor
-public class ReminderDispatchJob {
+public class ReminderDispatcher {
 
-    private final RestaurantRepository restaurants;
     private final ReminderRepository reminders;
     private final RestaurantMemberRepository members;
     private final InboxMessageService inboxMessages;
     private final InboxMessageRepository inboxMessageRepository;
     private final RestaurantTimeService restaurantTime;
 
-    @Scheduled(cron = "0 */2 * * * *")
+    /**
+     * @param fireAt момент, на который напоминание было поставлено в таймер; если с тех пор его изменили
+     *               или удалили, срабатывание пропускается — новое время придёт отдельно
+     * @return следующее время срабатывания; {@code null}, если напоминание больше не сработает или пропущено
+     */
     @Transactional
-    public void dispatchReminders() {
-        Instant now = restaurantTime.nowInstant();
-        List<Restaurant> allRestaurants = restaurants.findAll();
-        for (Restaurant restaurant : allRestaurants) {
-            List<Reminder> dueReminders = reminders.findDueReminders(restaurant.getId(), now);
-            if (dueReminders.isEmpty()) {
-                continue;
-            }
-            List<RestaurantMember> memberList = members.findWithUserByRestaurantId(restaurant.getId()).stream()
-                    .filter(member -> member.getUser() != null)
-                    .toList();
-            Map<Long, RestaurantMember> memberById = memberList.stream()
-                    .filter(member -> member.getId() != null)
-                    .collect(Collectors.toMap(RestaurantMember::getId, Function.identity(), (first, second) -> first));
-
-            for (Reminder reminder : dueReminders) {
-                try {
-                    processReminder(restaurant, reminder, memberList, memberById, now);
-                } catch (Exception ex) {
-                    log.error("Failed to process reminder {} for restaurant {}", reminder.getId(), restaurant.getId(), ex);
-                }
-            }
+    public Instant fire(Long reminderId, Instant fireAt) {
+        Reminder reminder = reminders.findDetailedById(reminderId).orElse(null);
+        if (reminder == null || !reminder.isActive() || !Objects.equals(reminder.getNextFireAt(), fireAt)) {
+            return null;
         }
-        log.info("Reminder dispatch job completed");
-    }
+        Restaurant restaurant = reminder.getRestaurant();
+        Instant now = restaurantTime.nowInstant();
 
-    private void processReminder(Restaurant restaurant,
-                                 Reminder reminder,
-                                 List<RestaurantMember> memberList,
-                                 Map<Long, RestaurantMember> memberById,
-                                 Instant now) {
-        Instant fireAt = reminder.getNextFireAt();
-        if (fireAt == null) {
-            reminder.setActive(false);
-            reminder.setNextFireAt(null);
-            reminders.save(reminder);
-            return;
-        }
         String meta = String.format("reminder:%d:%d", reminder.getId(), fireAt.toEpochMilli());
         boolean alreadySent = inboxMessageRepository.existsByRestaurantIdAndTypeAndMeta(
                 restaurant.getId(),
@@ -89,7 +59,7 @@ public class ReminderDispatchJob {
         );
 
         if (!alreadySent) {
-            List<RestaurantMember> recipients = resolveRecipients(reminder, memberList, memberById);
+            List<RestaurantMember> recipients = resolveRecipients(reminder);
             if (!recipients.isEmpty()) {
                 String content = buildContent(reminder);
                 User creator = reminder.getCreatedByMember() != null ? reminder.getCreatedByMember().getUser() : null;
@@ -118,29 +88,23 @@ public class ReminderDispatchJob {
         reminder.setActive(active);
         reminder.setNextFireAt(nextFireAt);
         reminders.save(reminder);
+        return nextFireAt;
     }
 
-    private List<RestaurantMember> resolveRecipients(Reminder reminder,
-                                                     List<RestaurantMember> memberList,
-                                                     Map<Long, RestaurantMember> memberById) {
+    private List<RestaurantMember> resolveRecipients(Reminder reminder) {
+        Long restaurantId = reminder.getRestaurant().getId();
         if (reminder.getTargetType() == ReminderTargetType.ALL) {
-            return memberList;
+            return members.findWithUserByRestaurantId(restaurantId);
         }
         if (reminder.getTargetType() == ReminderTargetType.POSITION) {
             if (reminder.getTargetPosition() == null) {
                 return List.of();
             }
-            Long positionId = reminder.getTargetPosition().getId();
-            return memberList.stream()
-                    .filter(member -> member.getPosition() != null && positionId.equals(member.getPosition().getId()))
-                    .toList();
+            return members.findWithUserByRestaurantIdAndPositionId(restaurantId, reminder.getTargetPosition().getId());
         }
         if (reminder.getTargetType() == ReminderTargetType.MEMBER) {
-            if (reminder.getTargetMember() == null) {
-                return List.of();
-            }
-            RestaurantMember member = memberById.get(reminder.getTargetMember().getId());
-            return member == null ? List.of() : List.of(member);
+            RestaurantMember member = reminder.getTargetMember();
+            return member == null || member.getUser() == null ? List.of() : List.of(member);
         }
         return List.of();
     }
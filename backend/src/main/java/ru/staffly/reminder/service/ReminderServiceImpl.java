@@ -45,6 +45,7 @@ public class ReminderServiceImpl implements ReminderService {
     private final ReminderMapper mapper;
     private final SecurityService security;
     private final RestaurantTimeService restaurantTime;
+    private final ReminderTimer timer;
 
     @Override
     @Transactional(Transactional.TxType.SUPPORTS)
@@ -126,6 +127,7 @@ public class ReminderServiceImpl implements ReminderService {
         reminder.setNextFireAt(nextFireAt);
 
         Reminder saved = reminders.save(reminder);
+        timer.publish(saved);
         return mapper.toDto(saved);
     }
 
@@ -193,6 +195,7 @@ public class ReminderServiceImpl implements ReminderService {
         reminder.setActive(true);
 
         Reminder saved = reminders.save(reminder);
+        timer.publish(saved);
         return mapper.toDto(saved);
     }
 
@@ -218,6 +221,7 @@ public class ReminderServiceImpl implements ReminderService {
         }
 
         reminders.delete(reminder);
+        timer.publishRemoved(reminder.getId());
     }
 
     private boolean isVisible(Reminder reminder, boolean canManage, RestaurantMember member, Long myPositionId) {
@@ -0,0 +1,223 @@
+package ru.staffly.reminder.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.staffly.common.db.DbLease;
+import ru.staffly.common.db.PgChannelHandler;
+import ru.staffly.common.metrics.JobMetrics;
+import ru.staffly.common.time.TimeProvider;
+import ru.staffly.reminder.model.Reminder;
+import ru.staffly.reminder.repository.ReminderRepository;
+import ru.staffly.reminder.repository.projection.ReminderFire;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Срабатывание напоминаний точно в {@code nextFireAt}. Раз в {@code refresh-interval} из БД
+ * загружаются напоминания, которые сработают в ближайший {@code horizon} (и просроченные), и
+ * ставятся в очередь с задержкой; отдельный поток забирает их в срок и передаёт {@link ReminderDispatcher}.
+ * <p>
+ * Таймер работает на одном инстансе — том, кто держит аренду {@value #LEASE}. Изменения напоминаний
+ * с любого инстанса приходят через NOTIFY на канал {@value #CHANNEL} с новым временем срабатывания.
+ */
+@Slf4j
+@Component
+public class ReminderTimer implements PgChannelHandler {
+
+    public static final String CHANNEL = "reminder_schedule";
+    static final String LEASE = "reminder-timer";
+
+    /** Запись очереди; устаревшая, если в {@link #scheduled} для напоминания уже другое время. */
+    private record Due(Long id, Instant fireAt) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Duration.between(TimeProvider.now(), fireAt));
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return fireAt.compareTo(((Due) other).fireAt);
+        }
+    }
+
+    private final ReminderRepository reminders;
+    private final ReminderDispatcher dispatcher;
+    private final DbLease lease;
+    private final JdbcTemplate jdbc;
+    private final JobMetrics jobMetrics;
+    private final Duration horizon;
+    private final Duration leaseTtl;
+
+    private final DelayQueue<Due> queue = new DelayQueue<>();
+    private final Map<Long, Instant> scheduled = new ConcurrentHashMap<>();
+    /**
+     * Последнее отработанное время по напоминанию с начала текущей загрузки горизонта: загрузка могла
+     * прочитать {@code nextFireAt} до коммита срабатывания и не должна вернуть уже отработанное время.
+     */
+    private final Map<Long, Instant> dispatched = new ConcurrentHashMap<>();
+    /** До какого момента (System.nanoTime) аренда точно наша; 0 — не наша. */
+    private volatile long leaseValidUntil;
+    private volatile Instant horizonEnd = Instant.MIN;
+    private volatile boolean running;
+    private Thread thread;
+
+    public ReminderTimer(ReminderRepository reminders,
+                         ReminderDispatcher dispatcher,
+                         DbLease lease,
+                         JdbcTemplate jdbc,
+                         JobMetrics jobMetrics,
+                         @Value("${app.reminders.horizon:PT10M}") Duration horizon,
+                         @Value("${app.reminders.lease-ttl:PT2M}") Duration leaseTtl) {
+        this.reminders = reminders;
+        this.dispatcher = dispatcher;
+        this.lease = lease;
+        this.jdbc = jdbc;
+        this.jobMetrics = jobMetrics;
+        this.horizon = horizon;
+        this.leaseTtl = leaseTtl;
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        thread = new Thread(this::run, "reminder-timer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        thread.interrupt();
+        if (holdsLease()) {
+            lease.release(LEASE);
+        }
+    }
+
+    /**
+     * Сообщить таймеру о новом времени срабатывания; вызывать в транзакции, которая его сохраняет, —
+     * NOTIFY уйдёт только после коммита.
+     */
+    public void publish(Reminder reminder) {
+        Instant fireAt = reminder.isActive() ? reminder.getNextFireAt() : null;
+        publish(reminder.getId(), fireAt);
+    }
+
+    public void publishRemoved(Long reminderId) {
+        publish(reminderId, null);
+    }
+
+    private void publish(Long reminderId, Instant fireAt) {
+        String payload = reminderId + ":" + (fireAt == null ? "" : Long.toString(fireAt.toEpochMilli()));
+        jdbc.query("select pg_notify(?, ?)", rs -> null, CHANNEL, payload);
+    }
+
+    @Scheduled(fixedDelayString = "${app.reminders.refresh-interval:PT30S}")
+    public void refresh() {
+        jobMetrics.record("reminder-horizon", this::loadHorizon);
+    }
+
+    // refresh зовут и планировщик, и поток LISTEN после переподключения; пересечься им не даёт JobMetrics.record
+    private int loadHorizon() {
+        long acquiredAt = System.nanoTime();
+        if (!lease.tryAcquire(LEASE, leaseTtl)) {
+            if (leaseValidUntil != 0) {
+                log.info("Reminder timer lease lost, dropping {} scheduled reminders", scheduled.size());
+            }
+            leaseValidUntil = 0;
+            queue.clear();
+            scheduled.clear();
+            dispatched.clear();
+            return 0;
+        }
+        leaseValidUntil = acquiredAt + leaseTtl.toNanos();
+        Instant until = TimeProvider.now().plus(horizon);
+        horizonEnd = until;
+        // всё, что отработало до этой точки, уже закоммичено и видно запросу ниже
+        dispatched.clear();
+        List<ReminderFire> fires = reminders.findFiresUntil(until);
+        for (ReminderFire fire : fires) {
+            Instant last = dispatched.get(fire.id());
+            if (last != null && !fire.nextFireAt().isAfter(last)) continue;
+            schedule(fire.id(), fire.nextFireAt());
+        }
+        return fires.size();
+    }
+
+    @Override
+    public String channel() {
+        return CHANNEL;
+    }
+
+    @Override
+    public void onNotification(String payload) {
+        if (!holdsLease()) return;
+        int sep = payload.indexOf(':');
+        Long id = Long.parseLong(payload.substring(0, sep));
+        String millis = payload.substring(sep + 1);
+        Instant fireAt = millis.isEmpty() ? null : Instant.ofEpochMilli(Long.parseLong(millis));
+        if (fireAt != null && !fireAt.isAfter(horizonEnd)) {
+            schedule(id, fireAt);
+        } else {
+            // дальше горизонта — подхватит очередная загрузка
+            scheduled.remove(id);
+        }
+    }
+
+    @Override
+    public void onReconnect() {
+        if (holdsLease()) {
+            refresh();
+        }
+    }
+
+    private void schedule(Long id, Instant fireAt) {
+        Instant previous = scheduled.put(id, fireAt);
+        if (!fireAt.equals(previous)) {
+            queue.add(new Due(id, fireAt));
+        }
+    }
+
+    private boolean holdsLease() {
+        long until = leaseValidUntil;
+        return until != 0 && until - System.nanoTime() > 0;
+    }
+
+    private void run() {
+        while (running) {
+            Due due;
+            try {
+                due = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (!scheduled.remove(due.id(), due.fireAt())) continue;
+            // аренду не продлили вовремя — возможно, её уже забрал другой инстанс
+            if (!holdsLease()) continue;
+            try {
+                Instant next = dispatcher.fire(due.id(), due.fireAt());
+                dispatched.put(due.id(), due.fireAt());
+                if (next != null && !next.isAfter(horizonEnd)) {
+                    schedule(due.id(), next);
+                }
+            } catch (RuntimeException e) {
+                // nextFireAt в БД не сдвинулся — очередная загрузка горизонта повторит попытку
+                log.error("Failed to fire reminder {}", due.id(), e);
+            }
+        }
+    }
+}
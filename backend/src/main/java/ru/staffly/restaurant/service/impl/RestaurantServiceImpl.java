@@ -3,6 +3,7 @@ package ru.staffly.restaurant.service.impl;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import ru.staffly.common.cache.ReferenceDataCache;
 import ru.staffly.common.exception.ConflictException;
 import ru.staffly.common.exception.NotFoundException;
 import ru.staffly.dictionary.model.Position;
@@ -31,6 +32,7 @@ public class RestaurantServiceImpl implements RestaurantService {
     private final UserRepository users;
     private final RestaurantMemberRepository members;
     private final PositionRepository positions;
+    private final ReferenceDataCache referenceData;
 
     @Override
     @Transactional
@@ -75,7 +77,9 @@ public class RestaurantServiceImpl implements RestaurantService {
         restaurant.setName(name);
         restaurant.setDescription(req.description());
         restaurant.setTimezone(normalizeTimezone(req.timezone()));
-        return restaurants.save(restaurant);
+        Restaurant saved = restaurants.save(restaurant);
+        referenceData.evictRestaurant(restaurantId);
+        return saved;
     }
 
     @Override
@@ -84,7 +88,9 @@ public class RestaurantServiceImpl implements RestaurantService {
         Restaurant restaurant = restaurants.findById(restaurantId)
                 .orElseThrow(() -> new NotFoundException("Restaurant not found: " + restaurantId));
         restaurant.setLocked(!restaurant.isLocked());
-        return restaurants.save(restaurant);
+        Restaurant saved = restaurants.save(restaurant);
+        referenceData.evictRestaurant(restaurantId);
+        return saved;
     }
 
     @Override
@@ -99,6 +105,7 @@ public class RestaurantServiceImpl implements RestaurantService {
         }
 
         restaurants.delete(restaurant);
+        referenceData.evictRestaurant(restaurantId);
     }
 
     @Override
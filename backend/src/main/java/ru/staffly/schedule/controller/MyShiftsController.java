@@ -0,0 +1,60 @@
+package ru.staffly.schedule.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.staffly.schedule.dto.MyShiftDto;
+import ru.staffly.schedule.service.MemberShiftService;
+import ru.staffly.security.UserPrincipal;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+public class MyShiftsController {
+
+    private static final MediaType TEXT_CALENDAR = MediaType.parseMediaType("text/calendar;charset=UTF-8");
+
+    private final MemberShiftService memberShifts;
+
+    // GET /api/me/shifts?from=2024-05-01&to=2024-05-14 — смены по всем графикам, по умолчанию 14 дней от сегодня
+    @PreAuthorize("isAuthenticated()")
+    @GetMapping("/me/shifts")
+    public List<MyShiftDto> myShifts(@AuthenticationPrincipal UserPrincipal principal,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return memberShifts.myShifts(principal.userId(), from, to);
+    }
+
+    // POST /api/me/shifts/calendar — новая ссылка на подписку, прежняя отзывается
+    @PreAuthorize("isAuthenticated()")
+    @PostMapping("/me/shifts/calendar")
+    public Map<String, String> rotateCalendar(@AuthenticationPrincipal UserPrincipal principal) {
+        return Map.of("url", memberShifts.rotateCalendarUrl(principal.userId()));
+    }
+
+    // Публичный: доступ по секретному токену в URL, календарные приложения не шлют Authorization
+    @GetMapping("/calendar/{token}.ics")
+    public ResponseEntity<StreamingResponseBody> calendar(@PathVariable String token, WebRequest webRequest) {
+        Long userId = memberShifts.resolveCalendarToken(token);
+        String etag = memberShifts.calendarETag(userId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(TEXT_CALENDAR)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(etag)
+                .body(out -> memberShifts.writeCalendar(userId, out));
+    }
+}
@@ -2,9 +2,14 @@ package ru.staffly.schedule.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.staffly.common.util.VersionETags;
+import ru.staffly.schedule.dto.PatchScheduleRequest;
+import ru.staffly.schedule.dto.ScheduleColumnarDto;
 import ru.staffly.schedule.dto.SaveScheduleRequest;
 import ru.staffly.schedule.dto.ScheduleDto;
 import ru.staffly.schedule.dto.ScheduleSummaryDto;
@@ -31,16 +36,39 @@ public class ScheduleController {
     @PreAuthorize("@securityService.isMember(principal.userId, #restaurantId)")
     @GetMapping("/schedules")
     public List<ScheduleSummaryDto> list(@PathVariable Long restaurantId,
-                                         @AuthenticationPrincipal UserPrincipal principal) {
-        return schedules.list(restaurantId, principal.userId());
+                                         @AuthenticationPrincipal UserPrincipal principal,
+                                         @RequestParam(defaultValue = "0") int page,
+                                         @RequestParam(defaultValue = "100") int size) {
+        return schedules.list(restaurantId, principal.userId(), page, size);
     }
 
     @PreAuthorize("@securityService.isMember(principal.userId, #restaurantId)")
     @GetMapping("/schedules/{scheduleId}")
-    public ScheduleDto get(@PathVariable Long restaurantId,
-                           @PathVariable Long scheduleId,
-                           @AuthenticationPrincipal UserPrincipal principal) {
-        return schedules.get(restaurantId, scheduleId, principal.userId());
+    public ResponseEntity<ScheduleDto> get(@PathVariable Long restaurantId,
+                                           @PathVariable Long scheduleId,
+                                           @AuthenticationPrincipal UserPrincipal principal,
+                                           WebRequest webRequest) {
+        long version = schedules.getVersion(restaurantId, scheduleId, principal.userId());
+        if (webRequest.checkNotModified(VersionETags.of("schedule", scheduleId, version))) {
+            return null;
+        }
+        ScheduleDto dto = schedules.get(restaurantId, scheduleId, principal.userId());
+        return VersionETags.ok(VersionETags.of("schedule", scheduleId, dto.version()), dto);
+    }
+
+    // ?format=columnar — строки массивами по дням + словарь значений
+    @PreAuthorize("@securityService.isMember(principal.userId, #restaurantId)")
+    @GetMapping(value = "/schedules/{scheduleId}", params = "format=columnar")
+    public ResponseEntity<ScheduleColumnarDto> getColumnar(@PathVariable Long restaurantId,
+                                                           @PathVariable Long scheduleId,
+                                                           @AuthenticationPrincipal UserPrincipal principal,
+                                                           WebRequest webRequest) {
+        long version = schedules.getVersion(restaurantId, scheduleId, principal.userId());
+        if (webRequest.checkNotModified(VersionETags.of("schedule-columnar", scheduleId, version))) {
+            return null;
+        }
+        ScheduleColumnarDto dto = schedules.getColumnar(restaurantId, scheduleId, principal.userId());
+        return VersionETags.ok(VersionETags.of("schedule-columnar", scheduleId, dto.version()), dto);
     }
 
     @PreAuthorize("@securityService.hasAtLeastManager(principal.userId, #restaurantId)")
@@ -52,6 +80,15 @@ public class ScheduleController {
         return schedules.update(restaurantId, scheduleId, principal.userId(), request);
     }
 
+    @PreAuthorize("@securityService.hasAtLeastManager(principal.userId, #restaurantId)")
+    @PatchMapping("/schedules/{scheduleId}")
+    public ScheduleDto patch(@PathVariable Long restaurantId,
+                             @PathVariable Long scheduleId,
+                             @AuthenticationPrincipal UserPrincipal principal,
+                             @Valid @RequestBody PatchScheduleRequest request) {
+        return schedules.patch(restaurantId, scheduleId, principal.userId(), request);
+    }
+
     @PreAuthorize("@securityService.hasAtLeastManager(principal.userId, #restaurantId)")
     @DeleteMapping("/schedules/{scheduleId}")
     public void delete(@PathVariable Long restaurantId,
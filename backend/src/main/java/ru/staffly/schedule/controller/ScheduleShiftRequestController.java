@@ -5,6 +5,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import ru.staffly.schedule.dto.BulkShiftDecisionRequest;
 import ru.staffly.schedule.dto.CreateReplacementShiftRequest;
 import ru.staffly.schedule.dto.CreateSwapShiftRequest;
 import ru.staffly.schedule.dto.ShiftDecisionRequest;
@@ -57,6 +58,16 @@ public class ScheduleShiftRequestController {
         return service.decideAsManager(restaurantId, id, principal.userId(), request.accepted());
     }
 
+    @PreAuthorize("@securityService.hasAtLeastManager(principal.userId, #restaurantId)")
+    @PostMapping("/manager-decision")
+    public List<ShiftRequestDto> managerDecisionBulk(@PathVariable Long restaurantId,
+                                                     @PathVariable Long scheduleId,
+                                                     @AuthenticationPrincipal UserPrincipal principal,
+                                                     @Valid @RequestBody BulkShiftDecisionRequest request) {
+        return service.decideManyAsManager(restaurantId, scheduleId, principal.userId(),
+                request.requestIds(), request.accepted());
+    }
+
     @PreAuthorize("@securityService.isMember(principal.userId, #restaurantId)")
     @DeleteMapping("/{requestId}")
     public void cancelOwn(@PathVariable Long restaurantId,
@@ -0,0 +1,13 @@
+package ru.staffly.schedule.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BulkShiftDecisionRequest(
+        @NotEmpty @Size(max = 200) List<@NotNull Long> requestIds,
+        @NotNull Boolean accepted
+) {
+}
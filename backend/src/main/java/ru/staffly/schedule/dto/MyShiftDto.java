@@ -0,0 +1,12 @@
+package ru.staffly.schedule.dto;
+
+import java.time.LocalDate;
+
+public record MyShiftDto(
+        Long restaurantId,
+        String restaurantName,
+        Long scheduleId,
+        String scheduleTitle,
+        LocalDate day,
+        String value
+) {}
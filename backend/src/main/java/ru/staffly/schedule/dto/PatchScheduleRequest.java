@@ -0,0 +1,19 @@
+package ru.staffly.schedule.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * Точечное изменение графика.
+ *
+ * @param version  версия, с которой работал редактор; при расхождении — 409
+ * @param cells    изменённые ячейки
+ * @param rowOrder новый порядок строк (memberId всех строк), {@code null} — порядок не меняется
+ */
+public record PatchScheduleRequest(
+        @NotNull Long version,
+        List<@Valid ScheduleCellChange> cells,
+        List<Long> rowOrder
+) {}
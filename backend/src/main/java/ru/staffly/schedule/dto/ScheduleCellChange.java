@@ -0,0 +1,14 @@
+package ru.staffly.schedule.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+
+/**
+ * Изменение одной ячейки. Пустое {@code value} удаляет смену.
+ */
+public record ScheduleCellChange(
+        @NotNull Long memberId,
+        @NotNull LocalDate day,
+        String value
+) {}
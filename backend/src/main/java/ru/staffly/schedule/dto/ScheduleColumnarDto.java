@@ -0,0 +1,17 @@
+package ru.staffly.schedule.dto;
+
+import java.util.List;
+
+/**
+ * Компактное представление графика: значения ячеек строки идут массивом по порядку {@code days},
+ * а вместо строк смен — индекс в словаре {@code values} (0 — пустая ячейка, i — {@code values[i - 1]}).
+ */
+public record ScheduleColumnarDto(
+        Long id,
+        String title,
+        ScheduleConfigDto config,
+        List<ScheduleDayDto> days,
+        List<String> values,
+        List<ScheduleColumnarRowDto> rows,
+        long version
+) {}
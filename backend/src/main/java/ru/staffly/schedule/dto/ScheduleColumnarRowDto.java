@@ -0,0 +1,10 @@
+package ru.staffly.schedule.dto;
+
+public record ScheduleColumnarRowDto(
+        Long id,
+        Long memberId,
+        String displayName,
+        Long positionId,
+        String positionName,
+        int[] cells
+) {}
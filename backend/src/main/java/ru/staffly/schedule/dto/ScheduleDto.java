@@ -9,5 +9,6 @@ public record ScheduleDto(
         ScheduleConfigDto config,
         List<ScheduleDayDto> days,
         List<ScheduleRowDto> rows,
-        Map<String, String> cellValues
+        Map<String, String> cellValues,
+        long version
 ) {}
\ No newline at end of file
@@ -3,6 +3,8 @@ package ru.staffly.schedule.model;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import ru.staffly.common.time.TimeProvider;
 import ru.staffly.restaurant.model.Restaurant;
 
@@ -50,11 +52,14 @@ public class Schedule {
     @Column(name = "show_full_name", nullable = false)
     private boolean showFullName;
 
-    @Column(name = "position_ids", columnDefinition = "text")
-    @Convert(converter = PositionIdsConverter.class)
+    @Column(name = "position_ids", nullable = false, columnDefinition = "bigint[]")
+    @JdbcTypeCode(SqlTypes.ARRAY)
     @Builder.Default
     private List<Long> positionIds = new ArrayList<>();
 
+    @Version
+    private long version;
+
     @OneToMany(mappedBy = "schedule", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("sortOrder ASC")
     @BatchSize(size = 64)
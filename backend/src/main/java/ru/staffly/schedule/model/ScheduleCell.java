@@ -21,7 +21,8 @@ import java.time.LocalDate;
 public class ScheduleCell {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "schedule_cell_seq")
+    @SequenceGenerator(name = "schedule_cell_seq", sequenceName = "schedule_cell_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
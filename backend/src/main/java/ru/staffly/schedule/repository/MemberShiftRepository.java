@@ -0,0 +1,87 @@
+package ru.staffly.schedule.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import ru.staffly.schedule.dto.MyShiftDto;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Таблица {@code member_shift}: копия непустых ячеек графиков с ключом (сотрудник, день).
+ * Пересобирается целиком для графика после каждого его изменения — это два set-based запроса
+ * на стороне БД, зато индекс не может разойтись с ячейками, каким бы путём они ни менялись.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MemberShiftRepository {
+
+    private static final String SELECT_FOR_USER = """
+            select ms.restaurant_id, rest.name as restaurant_name, ms.schedule_id, s.title,
+                   ms.day, ms.value
+            from member_shift ms
+            join restaurant_member m on m.id = ms.member_id
+            join schedule s on s.id = ms.schedule_id
+            join restaurants rest on rest.id = ms.restaurant_id
+            where m.user_id = ?
+              and ms.day between ? and ?
+            order by ms.day, s.title
+            """;
+
+    private static final RowMapper<MyShiftDto> MAPPER = (rs, i) -> new MyShiftDto(
+            rs.getLong("restaurant_id"),
+            rs.getString("restaurant_name"),
+            rs.getLong("schedule_id"),
+            rs.getString("title"),
+            rs.getDate("day").toLocalDate(),
+            rs.getString("value")
+    );
+
+    private final JdbcTemplate jdbc;
+
+    public record Stamp(long count, Timestamp lastIndexedAt) {}
+
+    public void reindexSchedule(Long scheduleId) {
+        jdbc.update("delete from member_shift where schedule_id = ?", scheduleId);
+        jdbc.update("""
+                insert into member_shift (member_id, day, schedule_id, restaurant_id, value, indexed_at)
+                select r.member_id, c.day, s.id, s.restaurant_id, c.value, now()
+                from schedule_cell c
+                join schedule_row r on r.id = c.row_id
+                join schedule s on s.id = r.schedule_id
+                where s.id = ?
+                  and r.member_id is not null
+                  and btrim(c.value) <> ''
+                on conflict do nothing
+                """, scheduleId);
+    }
+
+    public List<MyShiftDto> findForUser(Long userId, LocalDate from, LocalDate to) {
+        return jdbc.query(SELECT_FOR_USER, MAPPER, userId, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /** То же, что {@link #findForUser}, но построчно — для потоковой отдачи. */
+    public void streamForUser(Long userId, LocalDate from, LocalDate to, Consumer<MyShiftDto> consumer) {
+        jdbc.query(SELECT_FOR_USER, rs -> {
+            consumer.accept(MAPPER.mapRow(rs, 0));
+        }, userId, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /** Дешёвый «отпечаток» смен сотрудника в окне — основа ETag календаря. */
+    public Stamp stampForUser(Long userId, LocalDate from, LocalDate to) {
+        return jdbc.queryForObject("""
+                        select count(*) as cnt, max(ms.indexed_at) as last_indexed_at
+                        from member_shift ms
+                        join restaurant_member m on m.id = ms.member_id
+                        where m.user_id = ?
+                          and ms.day between ? and ?
+                        """,
+                (rs, i) -> new Stamp(rs.getLong("cnt"), rs.getTimestamp("last_indexed_at")),
+                userId, Date.valueOf(from), Date.valueOf(to));
+    }
+}
@@ -0,0 +1,141 @@
+package ru.staffly.schedule.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Точечная запись ячеек графика пачками JDBC — без загрузки и каскадов сущностей.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ScheduleCellJdbcRepository {
+
+    private final JdbcTemplate jdbc;
+
+    public record ScheduleHeader(long version, LocalDate startDate, LocalDate endDate) {}
+
+    public record RowRef(long id, Long memberId, int sortOrder) {}
+
+    public record StoredCell(long rowId, LocalDate day, String value) {}
+
+    public record CellWrite(long rowId, LocalDate day, String value) {}
+
+    /**
+     * Поднимает версию графика, только если она совпадает с ожидаемой. Заодно блокирует строку
+     * графика до конца транзакции, так что параллельные правки выстраиваются в очередь.
+     *
+     * @return пусто, если графика нет или версия уже другая
+     */
+    public Optional<ScheduleHeader> bumpVersion(Long scheduleId, Long restaurantId, long expectedVersion, Instant now) {
+        return jdbc.query("""
+                        update schedule
+                        set version = version + 1,
+                            updated_at = ?
+                        where id = ? and restaurant_id = ? and version = ?
+                        returning version, start_date, end_date
+                        """,
+                rs -> rs.next()
+                        ? Optional.of(new ScheduleHeader(
+                        rs.getLong("version"),
+                        rs.getDate("start_date").toLocalDate(),
+                        rs.getDate("end_date").toLocalDate()))
+                        : Optional.empty(),
+                Timestamp.from(now), scheduleId, restaurantId, expectedVersion);
+    }
+
+    public boolean exists(Long scheduleId, Long restaurantId) {
+        Boolean found = jdbc.queryForObject(
+                "select exists(select 1 from schedule where id = ? and restaurant_id = ?)",
+                Boolean.class, scheduleId, restaurantId);
+        return Boolean.TRUE.equals(found);
+    }
+
+    public List<RowRef> findRows(Long scheduleId) {
+        return jdbc.query("""
+                        select id, member_id, sort_order
+                        from schedule_row
+                        where schedule_id = ?
+                        """,
+                (rs, i) -> new RowRef(rs.getLong("id"), rs.getObject("member_id", Long.class), rs.getInt("sort_order")),
+                scheduleId);
+    }
+
+    public List<StoredCell> findCells(Long scheduleId) {
+        return jdbc.query("""
+                        select c.row_id, c.day, c.value
+                        from schedule_cell c
+                        join schedule_row r on r.id = c.row_id
+                        where r.schedule_id = ?
+                        """,
+                (rs, i) -> new StoredCell(rs.getLong("row_id"), rs.getDate("day").toLocalDate(), rs.getString("value")),
+                scheduleId);
+    }
+
+    /** Вставка или замена значения по {@code uq_schedule_cell_row_day}. */
+    public void upsertCells(List<CellWrite> cells) {
+        if (cells.isEmpty()) return;
+        jdbc.batchUpdate("""
+                insert into schedule_cell (row_id, day, value)
+                values (?, ?, ?)
+                on conflict (row_id, day) do update set value = excluded.value
+                """, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                CellWrite c = cells.get(i);
+                ps.setLong(1, c.rowId());
+                ps.setDate(2, Date.valueOf(c.day()));
+                ps.setString(3, c.value());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return cells.size();
+            }
+        });
+    }
+
+    public void deleteCells(List<CellWrite> cells) {
+        if (cells.isEmpty()) return;
+        jdbc.batchUpdate("delete from schedule_cell where row_id = ? and day = ?", new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                CellWrite c = cells.get(i);
+                ps.setLong(1, c.rowId());
+                ps.setDate(2, Date.valueOf(c.day()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return cells.size();
+            }
+        });
+    }
+
+    /** @param rows пары (id строки, новый sort_order) */
+    public void updateSortOrders(List<RowRef> rows) {
+        if (rows.isEmpty()) return;
+        jdbc.batchUpdate("update schedule_row set sort_order = ? where id = ?", new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setInt(1, rows.get(i).sortOrder());
+                ps.setLong(2, rows.get(i).id());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+}
@@ -1,21 +1,79 @@
 package ru.staffly.schedule.repository;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.staffly.schedule.model.Schedule;
+import ru.staffly.schedule.model.ScheduleShiftRequestStatus;
+import ru.staffly.schedule.repository.projection.ScheduleSummaryRow;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
 
-    List<Schedule> findByRestaurantIdOrderByCreatedAtDesc(Long restaurantId);
+    /** Все графики ресторана с флагом заявок, ожидающих менеджера. */
+    @Query("""
+            select new ru.staffly.schedule.repository.projection.ScheduleSummaryRow(
+                s.id, s.title, s.startDate, s.endDate, s.createdAt,
+                case when exists (
+                    select 1 from ScheduleShiftRequest r
+                    where r.schedule = s and r.status = :status
+                ) then true else false end,
+                s.positionIds
+            )
+            from Schedule s
+            where s.restaurant.id = :restaurantId
+            order by s.createdAt desc, s.id desc
+            """)
+    List<ScheduleSummaryRow> findSummaries(@Param("restaurantId") Long restaurantId,
+                                           @Param("status") ScheduleShiftRequestStatus status,
+                                           Pageable pageable);
+
+    /**
+     * Графики для должности сотрудника; флаг — только по заявкам, где он участник.
+     * {@code array_contains} с одним элементом — «в графике есть эта должность»; на PostgreSQL Hibernate переводит
+     * его в {@code @>}, что идёт по GIN-индексу.
+     */
+    @Query("""
+            select new ru.staffly.schedule.repository.projection.ScheduleSummaryRow(
+                s.id, s.title, s.startDate, s.endDate, s.createdAt,
+                case when exists (
+                    select 1 from ScheduleShiftRequest r
+                    where r.schedule = s and r.status = :status
+                      and (r.fromMemberId = :memberId or r.toMemberId = :memberId)
+                ) then true else false end,
+                s.positionIds
+            )
+            from Schedule s
+            where s.restaurant.id = :restaurantId
+              and array_contains(s.positionIds, :positionId)
+            order by s.createdAt desc, s.id desc
+            """)
+    List<ScheduleSummaryRow> findSummariesForMember(@Param("restaurantId") Long restaurantId,
+                                                    @Param("positionId") Long positionId,
+                                                    @Param("memberId") Long memberId,
+                                                    @Param("status") ScheduleShiftRequestStatus status,
+                                                    Pageable pageable);
 
     @EntityGraph(attributePaths = {"rows"})
     Optional<Schedule> findByIdAndRestaurantId(Long id, Long restaurantId);
 
+    /**
+     * Блокирует строку графика до конца транзакции. Все изменения ячеек (сохранение, patch, решения по заявкам)
+     * обновляют эту строку, поэтому под блокировкой ячейки графика никто не меняет.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from Schedule s where s.id = :id and s.restaurant.id = :restaurantId")
+    Optional<Schedule> findByIdAndRestaurantIdForUpdate(@Param("id") Long id, @Param("restaurantId") Long restaurantId);
+
+    @Query("select s.version from Schedule s where s.id = :id and s.restaurant.id = :restaurantId")
+    Optional<Long> findVersion(@Param("id") Long id, @Param("restaurantId") Long restaurantId);
+
     @Query("select s.title from Schedule s where s.restaurant.id = :restaurantId")
     List<String> findTitlesByRestaurantId(@Param("restaurantId") Long restaurantId);
 }
\ No newline at end of file
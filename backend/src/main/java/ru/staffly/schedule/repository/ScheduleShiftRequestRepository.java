@@ -1,11 +1,15 @@
 package ru.staffly.schedule.repository;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.staffly.schedule.model.ScheduleShiftRequest;
 import ru.staffly.schedule.model.ScheduleShiftRequestStatus;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +19,14 @@ public interface ScheduleShiftRequestRepository extends JpaRepository<ScheduleSh
 
     Optional<ScheduleShiftRequest> findByIdAndScheduleRestaurantId(Long id, Long restaurantId);
 
+    @Query("select r.schedule.id from ScheduleShiftRequest r where r.id = :id and r.schedule.restaurant.id = :restaurantId")
+    Optional<Long> findScheduleId(@Param("id") Long id, @Param("restaurantId") Long restaurantId);
+
+    /** Заявки графика под блокировкой, в порядке id — одинаковый порядок захвата у параллельных решений. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from ScheduleShiftRequest r where r.schedule.id = :scheduleId and r.id in :ids order by r.id")
+    List<ScheduleShiftRequest> findAllForUpdate(@Param("scheduleId") Long scheduleId, @Param("ids") Collection<Long> ids);
+
     boolean existsByScheduleIdAndStatus(Long scheduleId, ScheduleShiftRequestStatus status);
 
     @Query("""
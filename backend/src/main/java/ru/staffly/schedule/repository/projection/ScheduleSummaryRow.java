@@ -0,0 +1,15 @@
+package ru.staffly.schedule.repository.projection;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+public record ScheduleSummaryRow(
+        Long id,
+        String title,
+        LocalDate startDate,
+        LocalDate endDate,
+        Instant createdAt,
+        Boolean hasPendingShiftRequests,
+        List<Long> positionIds
+) {}
@@ -0,0 +1,26 @@
+package ru.staffly.schedule.service;
+
+import ru.staffly.schedule.dto.MyShiftDto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface MemberShiftService {
+
+    /** Пересобирает индекс смен графика; вызывать после того, как изменения сброшены в БД. */
+    void reindexSchedule(Long scheduleId);
+
+    List<MyShiftDto> myShifts(Long userId, LocalDate from, LocalDate to);
+
+    /** Выдаёт новый токен подписки (старая ссылка перестаёт работать) и возвращает URL календаря. */
+    String rotateCalendarUrl(Long userId);
+
+    /** @return id пользователя по токену подписки */
+    Long resolveCalendarToken(String token);
+
+    String calendarETag(Long userId);
+
+    void writeCalendar(Long userId, OutputStream out) throws IOException;
+}
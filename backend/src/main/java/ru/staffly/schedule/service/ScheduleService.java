@@ -1,5 +1,7 @@
 package ru.staffly.schedule.service;
 
+import ru.staffly.schedule.dto.PatchScheduleRequest;
+import ru.staffly.schedule.dto.ScheduleColumnarDto;
 import ru.staffly.schedule.dto.SaveScheduleRequest;
 import ru.staffly.schedule.dto.ScheduleDto;
 import ru.staffly.schedule.dto.ScheduleSummaryDto;
@@ -10,11 +12,18 @@ public interface ScheduleService {
 
     ScheduleDto create(Long restaurantId, Long userId, SaveScheduleRequest request);
 
-    List<ScheduleSummaryDto> list(Long restaurantId, Long userId);
+    List<ScheduleSummaryDto> list(Long restaurantId, Long userId, int page, int size);
 
     ScheduleDto get(Long restaurantId, Long scheduleId, Long userId);
 
+    ScheduleColumnarDto getColumnar(Long restaurantId, Long scheduleId, Long userId);
+
+    /** Текущая версия графика — для проверки If-None-Match без загрузки ячеек. */
+    long getVersion(Long restaurantId, Long scheduleId, Long userId);
+
     ScheduleDto update(Long restaurantId, Long scheduleId, Long userId, SaveScheduleRequest request);
 
+    ScheduleDto patch(Long restaurantId, Long scheduleId, Long userId, PatchScheduleRequest request);
+
     void delete(Long restaurantId, Long scheduleId, Long userId);
 }
\ No newline at end of file
@@ -14,6 +14,9 @@ public interface ScheduleShiftRequestService {
 
     ShiftRequestDto decideAsManager(Long restaurantId, Long requestId, Long userId, boolean accepted);
 
+    /** Решение по нескольким заявкам графика в одной транзакции: либо применяются все, либо ни одна. */
+    List<ShiftRequestDto> decideManyAsManager(Long restaurantId, Long scheduleId, Long userId, List<Long> requestIds, boolean accepted);
+
     List<ShiftRequestDto> listForSchedule(Long restaurantId, Long scheduleId, Long userId);
 
     void cancelOwn(Long restaurantId, Long scheduleId, Long userId, Long requestId);
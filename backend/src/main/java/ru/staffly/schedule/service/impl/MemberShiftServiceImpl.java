@@ -0,0 +1,160 @@
+package ru.staffly.schedule.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.staffly.common.exception.BadRequestException;
+import ru.staffly.common.exception.NotFoundException;
+import ru.staffly.common.time.TimeProvider;
+import ru.staffly.common.util.InviteUtils;
+import ru.staffly.schedule.dto.MyShiftDto;
+import ru.staffly.schedule.repository.MemberShiftRepository;
+import ru.staffly.schedule.service.MemberShiftService;
+import ru.staffly.user.model.User;
+import ru.staffly.user.repository.UserRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class MemberShiftServiceImpl implements MemberShiftService {
+
+    private static final int MAX_RANGE_DAYS = 62;
+    /** Окно календарной подписки относительно сегодняшнего дня. */
+    private static final int CALENDAR_DAYS_BACK = 7;
+    private static final int CALENDAR_DAYS_AHEAD = 62;
+    private static final DateTimeFormatter ICS_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final DateTimeFormatter ICS_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+    private final MemberShiftRepository memberShifts;
+    private final UserRepository users;
+
+    @Value("${app.public-base-url:http://localhost:8080}")
+    private String publicBaseUrl;
+
+    @Override
+    @Transactional
+    public void reindexSchedule(Long scheduleId) {
+        memberShifts.reindexSchedule(scheduleId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<MyShiftDto> myShifts(Long userId, LocalDate from, LocalDate to) {
+        LocalDate start = from != null ? from : TimeProvider.todayUtc();
+        LocalDate end = to != null ? to : start.plusDays(13);
+        if (end.isBefore(start)) {
+            throw new BadRequestException("to must not be before from");
+        }
+        if (start.plusDays(MAX_RANGE_DAYS).isBefore(end)) {
+            throw new BadRequestException("Range cannot be longer than " + MAX_RANGE_DAYS + " days");
+        }
+        return memberShifts.findForUser(userId, start, end);
+    }
+
+    @Override
+    @Transactional
+    public String rotateCalendarUrl(Long userId) {
+        User user = users.findById(userId)
+                .orElseThrow(() -> new NotFoundException("User not found: " + userId));
+        String token = InviteUtils.genToken(32);
+        user.setCalendarToken(token);
+        users.save(user);
+        return publicBaseUrl + "/api/calendar/" + token + ".ics";
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Long resolveCalendarToken(String token) {
+        if (token == null || token.isBlank()) {
+            throw new NotFoundException("Calendar not found");
+        }
+        return users.findByCalendarToken(token)
+                .map(User::getId)
+                .orElseThrow(() -> new NotFoundException("Calendar not found"));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String calendarETag(Long userId) {
+        LocalDate today = TimeProvider.todayUtc();
+        var stamp = memberShifts.stampForUser(userId, today.minusDays(CALENDAR_DAYS_BACK), today.plusDays(CALENDAR_DAYS_AHEAD));
+        long last = stamp.lastIndexedAt() == null ? 0 : stamp.lastIndexedAt().getTime();
+        // окно сдвигается каждый день, поэтому дата тоже входит в ETag
+        return "W/\"shifts-" + userId + "-" + today + "-" + stamp.count() + "-" + last + "\"";
+    }
+
+    @Override
+    public void writeCalendar(Long userId, OutputStream out) throws IOException {
+        LocalDate today = TimeProvider.todayUtc();
+        String stamp = ICS_STAMP.format(TimeProvider.now().atOffset(ZoneOffset.UTC));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        line(writer, "BEGIN:VCALENDAR");
+        line(writer, "VERSION:2.0");
+        line(writer, "PRODID:-//Staffly//Shifts//RU");
+        line(writer, "CALSCALE:GREGORIAN");
+        line(writer, "X-WR-CALNAME:Мои смены");
+        try {
+            memberShifts.streamForUser(userId, today.minusDays(CALENDAR_DAYS_BACK), today.plusDays(CALENDAR_DAYS_AHEAD), shift -> {
+                try {
+                    writeEvent(writer, shift, stamp);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        line(writer, "END:VCALENDAR");
+        writer.flush();
+    }
+
+    private void writeEvent(Writer writer, MyShiftDto shift, String stamp) throws IOException {
+        line(writer, "BEGIN:VEVENT");
+        line(writer, "UID:shift-" + shift.scheduleId() + "-" + shift.day() + "@staffly");
+        line(writer, "DTSTAMP:" + stamp);
+        line(writer, "DTSTART;VALUE=DATE:" + ICS_DATE.format(shift.day()));
+        line(writer, "DTEND;VALUE=DATE:" + ICS_DATE.format(shift.day().plusDays(1)));
+        line(writer, "SUMMARY:" + escape(shift.value() + " · " + shift.restaurantName()));
+        line(writer, "DESCRIPTION:" + escape(shift.scheduleTitle()));
+        line(writer, "TRANSP:TRANSPARENT");
+        line(writer, "END:VEVENT");
+    }
+
+    /** RFC 5545: строки не длиннее 75 октетов, продолжение начинается с пробела. */
+    private static void line(Writer writer, String text) throws IOException {
+        int octets = 0;
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            int size = cp < 0x80 ? 1 : cp < 0x800 ? 2 : cp < 0x10000 ? 3 : 4;
+            if (octets + size > 75) {
+                writer.write("\r\n ");
+                octets = 1;
+            }
+            writer.write(Character.toChars(cp));
+            octets += size;
+            i += Character.charCount(cp);
+        }
+        writer.write("\r\n");
+    }
+
+    private static String escape(String value) {
+        if (value == null) return "";
+        return value.replace("\\", "\\\\")
+                .replace(";", "\\;")
+                .replace(",", "\\,")
+                .replace("\r", "")
+                .replace("\n", "\\n");
+    }
+}
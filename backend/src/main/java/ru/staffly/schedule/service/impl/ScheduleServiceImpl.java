@@ -1,11 +1,14 @@
 package ru.staffly.schedule.service.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.staffly.common.cache.ReferenceDataCache;
 import ru.staffly.common.exception.BadRequestException;
+import ru.staffly.common.exception.ConflictException;
 import ru.staffly.common.exception.NotFoundException;
-import ru.staffly.dictionary.repository.PositionRepository;
 import ru.staffly.member.model.RestaurantMember;
 import ru.staffly.member.repository.RestaurantMemberRepository;
 import ru.staffly.restaurant.model.Restaurant;
@@ -16,8 +19,13 @@ import ru.staffly.schedule.model.ScheduleCell;
 import ru.staffly.schedule.model.ScheduleRow;
 import ru.staffly.schedule.model.ScheduleShiftMode;
 import ru.staffly.schedule.model.ScheduleShiftRequestStatus;
+import ru.staffly.common.time.TimeProvider;
+import ru.staffly.schedule.repository.ScheduleCellJdbcRepository;
+import ru.staffly.schedule.repository.ScheduleCellJdbcRepository.CellWrite;
+import ru.staffly.schedule.repository.ScheduleCellJdbcRepository.RowRef;
 import ru.staffly.schedule.repository.ScheduleRepository;
-import ru.staffly.schedule.repository.ScheduleShiftRequestRepository;
+import ru.staffly.schedule.repository.projection.ScheduleSummaryRow;
+import ru.staffly.schedule.service.MemberShiftService;
 import ru.staffly.schedule.service.ScheduleService;
 import ru.staffly.security.SecurityService;
 
@@ -31,11 +39,14 @@ import java.util.stream.Collectors;
 public class ScheduleServiceImpl implements ScheduleService {
 
     private static final String[] WEEKDAY_LABELS = {"", "пн", "вт", "ср", "чт", "пт", "сб", "вс"};
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final String STALE_VERSION = "График был изменён другим пользователем. Обновите страницу.";
 
     private final ScheduleRepository schedules;
+    private final ScheduleCellJdbcRepository cellWriter;
+    private final MemberShiftService memberShifts;
     private final RestaurantRepository restaurants;
-    private final PositionRepository positions;
-    private final ScheduleShiftRequestRepository shiftRequests;
+    private final ReferenceDataCache referenceData;
     private final RestaurantMemberRepository members;
     private final SecurityService securityService;
 
@@ -83,45 +94,47 @@ public class ScheduleServiceImpl implements ScheduleService {
         List<ScheduleRow> rowEntities = buildRows(schedule, request.rows(), request.cellValues(), days);
         schedule.setRows(rowEntities);
 
-        Schedule saved = schedules.save(schedule);
+        Schedule saved = schedules.saveAndFlush(schedule);
+        memberShifts.reindexSchedule(saved.getId());
         return toDto(saved, days);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<ScheduleSummaryDto> list(Long restaurantId, Long userId) {
+    public List<ScheduleSummaryDto> list(Long restaurantId, Long userId, int page, int size) {
         securityService.assertMember(userId, restaurantId);
 
-        final boolean canManage = securityService.hasAtLeastManager(userId, restaurantId);
-        Optional<RestaurantMember> membership = !canManage
-                ? members.findByUserIdAndRestaurantId(userId, restaurantId)
-                : Optional.<RestaurantMember>empty();
-
-        final Long memberId = membership.map(m -> m.getId()).orElse(null);
-        final Long positionId = membership
-                .map(m -> m.getPosition())
-                .map(p -> p.getId())
-                .orElse(null);
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+        List<ScheduleSummaryRow> rows;
+        if (securityService.hasAtLeastManager(userId, restaurantId)) {
+            rows = schedules.findSummaries(restaurantId, ScheduleShiftRequestStatus.PENDING_MANAGER, pageable);
+        } else {
+            Optional<RestaurantMember> membership = members.findByUserIdAndRestaurantId(userId, restaurantId);
+            Long positionId = membership
+                    .map(RestaurantMember::getPosition)
+                    .map(p -> p.getId())
+                    .orElse(null);
+            if (positionId == null) {
+                return List.of();
+            }
+            rows = schedules.findSummariesForMember(
+                    restaurantId,
+                    positionId,
+                    membership.get().getId(),
+                    ScheduleShiftRequestStatus.PENDING_MANAGER,
+                    pageable
+            );
+        }
 
-        return schedules.findByRestaurantIdOrderByCreatedAtDesc(restaurantId).stream()
-                .filter(schedule -> canManage || (positionId != null && schedule.getPositionIds().contains(positionId)))
+        return rows.stream()
                 .map(s -> new ScheduleSummaryDto(
-                        s.getId(),
-                        s.getTitle(),
-                        s.getStartDate().toString(),
-                        s.getEndDate().toString(),
-                        s.getCreatedAt(),
-                        canManage
-                                ? shiftRequests.existsByScheduleIdAndStatus(
-                                s.getId(),
-                                ScheduleShiftRequestStatus.PENDING_MANAGER
-                        )
-                                : memberId != null && shiftRequests.existsActiveForMember(
-                                s.getId(),
-                                ScheduleShiftRequestStatus.PENDING_MANAGER,
-                                memberId
-                        ),
-                        s.getPositionIds()
+                        s.id(),
+                        s.title(),
+                        s.startDate().toString(),
+                        s.endDate().toString(),
+                        s.createdAt(),
+                        Boolean.TRUE.equals(s.hasPendingShiftRequests()),
+                        s.positionIds() != null ? s.positionIds() : List.of()
                 ))
                 .toList();
     }
@@ -137,12 +150,33 @@ public class ScheduleServiceImpl implements ScheduleService {
         return toDto(schedule, days);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public ScheduleColumnarDto getColumnar(Long restaurantId, Long scheduleId, Long userId) {
+        securityService.assertMember(userId, restaurantId);
+        Schedule schedule = schedules.findByIdAndRestaurantId(scheduleId, restaurantId)
+                .orElseThrow(() -> new NotFoundException("Schedule not found: " + scheduleId));
+        List<LocalDate> days = collectDays(schedule.getStartDate(), schedule.getEndDate());
+        return toColumnarDto(schedule, days);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long getVersion(Long restaurantId, Long scheduleId, Long userId) {
+        securityService.assertMember(userId, restaurantId);
+        return schedules.findVersion(scheduleId, restaurantId)
+                .orElseThrow(() -> new NotFoundException("Schedule not found: " + scheduleId));
+    }
+
     @Override
     public ScheduleDto update(Long restaurantId, Long scheduleId, Long userId, SaveScheduleRequest request) {
         securityService.assertAtLeastManager(userId, restaurantId);
 
         Schedule schedule = schedules.findByIdAndRestaurantId(scheduleId, restaurantId)
                 .orElseThrow(() -> new NotFoundException("Schedule not found: " + scheduleId));
+        if (request.version() != null && request.version() != schedule.getVersion()) {
+            throw new ConflictException(STALE_VERSION);
+        }
 
         ScheduleConfigDto config = Objects.requireNonNull(request.config(), "config");
         LocalDate startDate = parseDate(config.startDate(), "startDate");
@@ -175,15 +209,46 @@ public class ScheduleServiceImpl implements ScheduleService {
         schedule.setShowFullName(config.showFullName());
         schedule.setPositionIds(new ArrayList<>(positionIds));
 
-        schedule.getRows().clear();
-        List<ScheduleRow> rowEntities = buildRows(schedule, request.rows(), request.cellValues(), days);
-        schedule.getRows().addAll(rowEntities);
+        // Строки и ячейки правим на месте: Hibernate запишет только реально изменившееся
+        mergeRows(schedule, request.rows(), request.cellValues(), days);
+        // версия должна вырасти, даже если поменялись только ячейки
+        schedule.setUpdatedAt(TimeProvider.now());
 
-        Schedule saved = schedules.save(schedule);
-        saved.getRows().forEach(row -> row.getCells().size());
+        Schedule saved = schedules.saveAndFlush(schedule);
+        memberShifts.reindexSchedule(saved.getId());
         return toDto(saved, days);
     }
 
+    @Override
+    public ScheduleDto patch(Long restaurantId, Long scheduleId, Long userId, PatchScheduleRequest request) {
+        securityService.assertAtLeastManager(userId, restaurantId);
+
+        var header = cellWriter.bumpVersion(scheduleId, restaurantId, request.version(), TimeProvider.now())
+                .orElseThrow(() -> cellWriter.exists(scheduleId, restaurantId)
+                        ? new ConflictException(STALE_VERSION)
+                        : new NotFoundException("Schedule not found: " + scheduleId));
+
+        List<RowRef> rows = cellWriter.findRows(scheduleId);
+        Map<Long, RowRef> rowsByMember = new HashMap<>();
+        for (RowRef row : rows) {
+            if (row.memberId() != null) {
+                rowsByMember.putIfAbsent(row.memberId(), row);
+            }
+        }
+
+        if (request.cells() != null && !request.cells().isEmpty()) {
+            applyCellChanges(scheduleId, header, rowsByMember, request.cells());
+            memberShifts.reindexSchedule(scheduleId);
+        }
+        if (request.rowOrder() != null) {
+            applyRowOrder(rows, rowsByMember, request.rowOrder());
+        }
+
+        Schedule saved = schedules.findByIdAndRestaurantId(scheduleId, restaurantId)
+                .orElseThrow(() -> new NotFoundException("Schedule not found: " + scheduleId));
+        return toDto(saved, collectDays(saved.getStartDate(), saved.getEndDate()));
+    }
+
     @Override
     public void delete(Long restaurantId, Long scheduleId, Long userId) {
         securityService.assertAtLeastManager(userId, restaurantId);
@@ -248,6 +313,136 @@ public class ScheduleServiceImpl implements ScheduleService {
         return cells;
     }
 
+    private void mergeRows(Schedule schedule,
+                           List<ScheduleRowPayload> rows,
+                           Map<String, String> cellValues,
+                           List<LocalDate> days) {
+        List<ScheduleRowPayload> safeRows = rows != null ? rows : List.of();
+        Map<String, String> values = cellValues != null ? cellValues : Map.of();
+
+        Map<Long, ScheduleRow> existing = new HashMap<>();
+        for (ScheduleRow row : schedule.getRows()) {
+            if (row.getMemberId() != null) {
+                existing.putIfAbsent(row.getMemberId(), row);
+            }
+        }
+
+        List<ScheduleRow> next = new ArrayList<>(safeRows.size());
+        int index = 0;
+        for (ScheduleRowPayload payload : safeRows) {
+            if (payload.memberId() == null) {
+                throw new BadRequestException("memberId is required for each row");
+            }
+            ScheduleRow row = existing.remove(payload.memberId());
+            if (row == null) {
+                row = ScheduleRow.builder()
+                        .schedule(schedule)
+                        .memberId(payload.memberId())
+                        .build();
+            }
+            row.setDisplayName(Optional.ofNullable(payload.displayName()).orElse(""));
+            row.setPositionId(payload.positionId());
+            row.setPositionName(payload.positionName());
+            row.setSortOrder(index++);
+            mergeCells(row, payload.memberId(), values, days);
+            next.add(row);
+        }
+
+        Set<ScheduleRow> keep = Collections.newSetFromMap(new IdentityHashMap<>());
+        keep.addAll(next);
+        schedule.getRows().removeIf(row -> !keep.contains(row));
+        for (ScheduleRow row : next) {
+            if (row.getId() == null) {
+                schedule.getRows().add(row);
+            }
+        }
+    }
+
+    private void mergeCells(ScheduleRow row,
+                            Long memberId,
+                            Map<String, String> values,
+                            List<LocalDate> days) {
+        Map<LocalDate, ScheduleCell> existing = new HashMap<>();
+        for (ScheduleCell cell : row.getCells()) {
+            existing.put(cell.getDay(), cell);
+        }
+        Set<LocalDate> daySet = new HashSet<>(days);
+        row.getCells().removeIf(cell -> !daySet.contains(cell.getDay()));
+
+        for (LocalDate day : days) {
+            String value = values.get(memberId + ":" + day);
+            String trimmed = value == null ? "" : value.trim();
+            ScheduleCell cell = existing.get(day);
+            if (trimmed.isEmpty()) {
+                if (cell != null) {
+                    row.getCells().remove(cell);
+                }
+            } else if (cell == null) {
+                row.getCells().add(ScheduleCell.builder()
+                        .row(row)
+                        .day(day)
+                        .value(trimmed)
+                        .build());
+            } else if (!trimmed.equals(cell.getValue())) {
+                cell.setValue(trimmed);
+            }
+        }
+    }
+
+    private void applyCellChanges(Long scheduleId,
+                                  ScheduleCellJdbcRepository.ScheduleHeader header,
+                                  Map<Long, RowRef> rowsByMember,
+                                  List<ScheduleCellChange> changes) {
+        Map<String, String> stored = new HashMap<>();
+        for (var cell : cellWriter.findCells(scheduleId)) {
+            stored.put(cell.rowId() + ":" + cell.day(), cell.value());
+        }
+
+        // последнее изменение одной ячейки в запросе побеждает
+        Map<String, CellWrite> upserts = new LinkedHashMap<>();
+        Map<String, CellWrite> deletes = new LinkedHashMap<>();
+        for (ScheduleCellChange change : changes) {
+            RowRef row = rowsByMember.get(change.memberId());
+            if (row == null) {
+                throw new BadRequestException("Member " + change.memberId() + " is not in the schedule");
+            }
+            if (change.day().isBefore(header.startDate()) || change.day().isAfter(header.endDate())) {
+                throw new BadRequestException("Day " + change.day() + " is outside the schedule");
+            }
+            String key = row.id() + ":" + change.day();
+            String value = change.value() == null ? "" : change.value().trim();
+            upserts.remove(key);
+            deletes.remove(key);
+            if (value.isEmpty()) {
+                if (stored.containsKey(key)) {
+                    deletes.put(key, new CellWrite(row.id(), change.day(), null));
+                }
+            } else if (!value.equals(stored.get(key))) {
+                upserts.put(key, new CellWrite(row.id(), change.day(), value));
+            }
+        }
+
+        cellWriter.deleteCells(new ArrayList<>(deletes.values()));
+        cellWriter.upsertCells(new ArrayList<>(upserts.values()));
+    }
+
+    private void applyRowOrder(List<RowRef> rows, Map<Long, RowRef> rowsByMember, List<Long> rowOrder) {
+        if (rowOrder.size() != rows.size() || new HashSet<>(rowOrder).size() != rowOrder.size()) {
+            throw new BadRequestException("rowOrder must list every row of the schedule exactly once");
+        }
+        List<RowRef> changed = new ArrayList<>();
+        for (int i = 0; i < rowOrder.size(); i++) {
+            RowRef row = rowsByMember.get(rowOrder.get(i));
+            if (row == null) {
+                throw new BadRequestException("Member " + rowOrder.get(i) + " is not in the schedule");
+            }
+            if (row.sortOrder() != i) {
+                changed.add(new RowRef(row.id(), row.memberId(), i));
+            }
+        }
+        cellWriter.updateSortOrders(changed);
+    }
+
     private List<LocalDate> collectDays(LocalDate start, LocalDate end) {
         List<LocalDate> result = new ArrayList<>();
         LocalDate cursor = start;
@@ -279,21 +474,64 @@ public class ScheduleServiceImpl implements ScheduleService {
                 ))
                 .toList();
 
-        ScheduleConfigDto config = new ScheduleConfigDto(
-                schedule.getStartDate().toString(),
-                schedule.getEndDate().toString(),
-                new ArrayList<>(schedule.getPositionIds()),
-                schedule.isShowFullName(),
-                schedule.getShiftMode()
-        );
-
         return new ScheduleDto(
                 schedule.getId(),
                 schedule.getTitle(),
-                config,
+                toConfigDto(schedule),
                 dayDtos,
                 rowDtos,
-                cellValues
+                cellValues,
+                schedule.getVersion()
+        );
+    }
+
+    private ScheduleColumnarDto toColumnarDto(Schedule schedule, List<LocalDate> days) {
+        Map<LocalDate, Integer> dayIndex = new HashMap<>(days.size() * 2);
+        for (int i = 0; i < days.size(); i++) {
+            dayIndex.put(days.get(i), i);
+        }
+
+        // коды смен сильно повторяются, поэтому каждое значение передаётся один раз
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        List<ScheduleColumnarRowDto> rowDtos = schedule.getRows().stream()
+                .sorted(Comparator.comparingInt(ScheduleRow::getSortOrder))
+                .map(row -> {
+                    int[] cells = new int[days.size()];
+                    for (ScheduleCell cell : row.getCells()) {
+                        Integer index = dayIndex.get(cell.getDay());
+                        if (index != null) {
+                            cells[index] = dictionary.computeIfAbsent(cell.getValue(), v -> dictionary.size() + 1);
+                        }
+                    }
+                    return new ScheduleColumnarRowDto(
+                            row.getId(),
+                            row.getMemberId(),
+                            row.getDisplayName(),
+                            row.getPositionId(),
+                            row.getPositionName(),
+                            cells
+                    );
+                })
+                .toList();
+
+        return new ScheduleColumnarDto(
+                schedule.getId(),
+                schedule.getTitle(),
+                toConfigDto(schedule),
+                days.stream().map(this::toDayDto).toList(),
+                new ArrayList<>(dictionary.keySet()),
+                rowDtos,
+                schedule.getVersion()
+        );
+    }
+
+    private ScheduleConfigDto toConfigDto(Schedule schedule) {
+        return new ScheduleConfigDto(
+                schedule.getStartDate().toString(),
+                schedule.getEndDate().toString(),
+                new ArrayList<>(schedule.getPositionIds()),
+                schedule.isShowFullName(),
+                schedule.getShiftMode()
         );
     }
 
@@ -318,9 +556,7 @@ public class ScheduleServiceImpl implements ScheduleService {
         if (positionIds.isEmpty()) {
             return;
         }
-        Set<Long> allowed = positions.findByRestaurantId(restaurantId).stream()
-                .map(p -> p.getId())
-                .collect(Collectors.toSet());
+        Set<Long> allowed = referenceData.positionIds(restaurantId);
         for (Long id : positionIds) {
             if (!allowed.contains(id)) {
                 throw new BadRequestException("Position " + id + " does not belong to the restaurant");
@@ -4,8 +4,10 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.staffly.common.exception.BadRequestException;
+import ru.staffly.common.exception.ConflictException;
 import ru.staffly.common.exception.ForbiddenException;
 import ru.staffly.common.exception.NotFoundException;
+import ru.staffly.common.time.TimeProvider;
 import ru.staffly.member.model.RestaurantMember;
 import ru.staffly.member.repository.RestaurantMemberRepository;
 import ru.staffly.inbox.model.InboxEventSubtype;
@@ -22,6 +24,7 @@ import ru.staffly.schedule.model.ScheduleShiftRequestStatus;
 import ru.staffly.schedule.model.ScheduleShiftRequestType;
 import ru.staffly.schedule.repository.ScheduleRepository;
 import ru.staffly.schedule.repository.ScheduleShiftRequestRepository;
+import ru.staffly.schedule.service.MemberShiftService;
 import ru.staffly.schedule.service.ScheduleShiftRequestService;
 import ru.staffly.security.SecurityService;
 import ru.staffly.restaurant.model.RestaurantRole;
@@ -30,9 +33,11 @@ import ru.staffly.user.model.User;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
 
 @Service
 @RequiredArgsConstructor
@@ -48,6 +53,7 @@ public class ScheduleShiftRequestServiceImpl implements ScheduleShiftRequestServ
     private final RestaurantMemberRepository members;
     private final InboxMessageService inboxMessages;
     private final SecurityService securityService;
+    private final MemberShiftService memberShifts;
 
     @Override
     public ShiftRequestDto createReplacement(Long restaurantId, Long scheduleId, Long userId, CreateReplacementShiftRequest request) {
@@ -135,12 +141,55 @@ public class ScheduleShiftRequestServiceImpl implements ScheduleShiftRequestServ
     public ShiftRequestDto decideAsManager(Long restaurantId, Long requestId, Long userId, boolean accepted) {
         securityService.assertAtLeastManager(userId, restaurantId);
 
-        ScheduleShiftRequest entity = loadRequest(requestId, restaurantId);
+        Long scheduleId = requests.findScheduleId(requestId, restaurantId)
+                .orElseThrow(() -> new NotFoundException("Запрос не найден"));
+        Schedule schedule = lockSchedule(scheduleId, restaurantId);
+        ScheduleShiftRequest entity = requests.findAllForUpdate(scheduleId, List.of(requestId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new NotFoundException("Запрос не найден"));
+
+        ShiftRequestDto result = decide(schedule, entity, accepted);
+        if (accepted) {
+            cellsChanged(schedule);
+        }
+        return result;
+    }
+
+    @Override
+    public List<ShiftRequestDto> decideManyAsManager(Long restaurantId, Long scheduleId, Long userId,
+                                                     List<Long> requestIds, boolean accepted) {
+        securityService.assertAtLeastManager(userId, restaurantId);
+
+        Set<Long> ids = new TreeSet<>(requestIds);
+        Schedule schedule = lockSchedule(scheduleId, restaurantId);
+        List<ScheduleShiftRequest> locked = requests.findAllForUpdate(scheduleId, ids);
+        if (locked.size() != ids.size()) {
+            Set<Long> missing = new TreeSet<>(ids);
+            locked.forEach(r -> missing.remove(r.getId()));
+            throw new NotFoundException("Заявки не найдены: " + missing);
+        }
+
+        // по порядку создания: если две заявки претендуют на одну смену, вторая упадёт и откатит всю пачку
+        List<ShiftRequestDto> result = new ArrayList<>(locked.size());
+        for (ScheduleShiftRequest entity : locked) {
+            result.add(decide(schedule, entity, accepted));
+        }
+        if (accepted) {
+            cellsChanged(schedule);
+        }
+        return result;
+    }
+
+    /**
+     * Применяет решение по заявке. Вызывать только под блокировкой графика и заявки —
+     * тогда проверки ниже видят актуальные ячейки и никто не изменит их до коммита.
+     */
+    private ShiftRequestDto decide(Schedule schedule, ScheduleShiftRequest entity, boolean accepted) {
         if (entity.getStatus() != ScheduleShiftRequestStatus.PENDING_MANAGER) {
-            throw new BadRequestException("Заявка не требует решения менеджера");
+            throw new ConflictException("Заявка уже рассмотрена",
+                    Map.of("requestId", entity.getId(), "status", entity.getStatus()));
         }
 
-        Schedule schedule = loadSchedule(entity.getSchedule().getId(), restaurantId);
         ScheduleRow fromRow = requireRow(schedule, entity.getFromRow().getId());
         ScheduleRow toRow = requireRow(schedule, entity.getToRow().getId());
 
@@ -155,13 +204,17 @@ public class ScheduleShiftRequestServiceImpl implements ScheduleShiftRequestServ
             return toDto(entity);
         }
 
+        if (!Objects.equals(fromRow.getMemberId(), entity.getFromMemberId())
+                || !Objects.equals(toRow.getMemberId(), entity.getToMemberId())) {
+            throw stale(entity, "Строки графика переназначены другим сотрудникам");
+        }
         if (entity.getType() == ScheduleShiftRequestType.REPLACEMENT) {
-            transferShift(fromRow, toRow, dayFrom);
+            transferShift(entity, fromRow, toRow, dayFrom);
         } else {
             if (dayTo == null) {
                 throw new BadRequestException("Не указана дата обмена");
             }
-            swapShifts(fromRow, toRow, dayFrom, dayTo);
+            swapShifts(entity, fromRow, toRow, dayFrom, dayTo);
         }
 
         entity.setStatus(ScheduleShiftRequestStatus.APPROVED);
@@ -169,6 +222,17 @@ public class ScheduleShiftRequestServiceImpl implements ScheduleShiftRequestServ
         return toDto(entity);
     }
 
+    /** Поднимает версию графика (ETag, конкурентные правки) и пересобирает индекс смен. */
+    private void cellsChanged(Schedule schedule) {
+        schedule.setUpdatedAt(TimeProvider.now());
+        schedules.flush();
+        memberShifts.reindexSchedule(schedule.getId());
+    }
+
+    private static ConflictException stale(ScheduleShiftRequest request, String message) {
+        return new ConflictException(message, Map.of("requestId", request.getId()));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<ShiftRequestDto> listForSchedule(Long restaurantId, Long scheduleId, Long userId) {
@@ -194,12 +258,15 @@ public class ScheduleShiftRequestServiceImpl implements ScheduleShiftRequestServ
     public void cancelOwn(Long restaurantId, Long scheduleId, Long userId, Long requestId) {
         RestaurantMember member = requireMember(userId, restaurantId);
 
-        ScheduleShiftRequest request = requests.findByIdAndScheduleRestaurantId(requestId, restaurantId)
+        Long requestScheduleId = requests.findScheduleId(requestId, restaurantId)
                 .orElseThrow(() -> new NotFoundException("Заявка не найдена"));
-
-        if (!Objects.equals(request.getSchedule().getId(), scheduleId)) {
+        if (!Objects.equals(requestScheduleId, scheduleId)) {
             throw new BadRequestException("Заявка не относится к этому графику");
         }
+        // та же блокировка, что при решении менеджера: статус ниже проверяется уже после его коммита
+        ScheduleShiftRequest request = requests.findAllForUpdate(scheduleId, List.of(requestId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new NotFoundException("Заявка не найдена"));
 
         if (!Objects.equals(request.getInitiatorMemberId(), member.getId())) {
             throw new ForbiddenException("Можно отменять только свои заявки");
@@ -212,9 +279,11 @@ public class ScheduleShiftRequestServiceImpl implements ScheduleShiftRequestServ
         requests.delete(request);
     }
 
-    private ScheduleShiftRequest loadRequest(Long requestId, Long restaurantId) {
-        return requests.findByIdAndScheduleRestaurantId(requestId, restaurantId)
-                .orElseThrow(() -> new NotFoundException("Запрос не найден"));
+    private Schedule lockSchedule(Long scheduleId, Long restaurantId) {
+        Schedule schedule = schedules.findByIdAndRestaurantIdForUpdate(scheduleId, restaurantId)
+                .orElseThrow(() -> new NotFoundException("График не найден"));
+        schedule.getRows().forEach(row -> row.getCells().size());
+        return schedule;
     }
 
     private Schedule loadSchedule(Long scheduleId, Long restaurantId) {
@@ -326,12 +395,12 @@ public class ScheduleShiftRequestServiceImpl implements ScheduleShiftRequestServ
                 .findFirst();
     }
 
-    private void transferShift(ScheduleRow fromRow, ScheduleRow toRow, LocalDate day) {
+    private void transferShift(ScheduleShiftRequest request, ScheduleRow fromRow, ScheduleRow toRow, LocalDate day) {
         String value = removeCell(fromRow, day)
-                .orElseThrow(() -> new BadRequestException("Смена отсутствует"));
+                .orElseThrow(() -> stale(request, "Смена уже отсутствует в графике"));
 
         if (findCellValue(toRow, day).isPresent()) {
-            throw new BadRequestException("Целевая строка уже содержит смену");
+            throw stale(request, "Целевая строка уже содержит смену");
         }
 
         ScheduleCell newCell = ScheduleCell.builder()
@@ -342,14 +411,15 @@ public class ScheduleShiftRequestServiceImpl implements ScheduleShiftRequestServ
         toRow.getCells().add(newCell);
     }
 
-    private void swapShifts(ScheduleRow fromRow, ScheduleRow toRow, LocalDate dayFrom, LocalDate dayTo) {
+    private void swapShifts(ScheduleShiftRequest request, ScheduleRow fromRow, ScheduleRow toRow,
+                            LocalDate dayFrom, LocalDate dayTo) {
         String fromValue = removeCell(fromRow, dayFrom)
-                .orElseThrow(() -> new BadRequestException("Смена сотрудника не найдена"));
+                .orElseThrow(() -> stale(request, "Смена сотрудника уже отсутствует в графике"));
         String toValue = removeCell(toRow, dayTo)
-                .orElseThrow(() -> new BadRequestException("Смена коллеги не найдена"));
+                .orElseThrow(() -> stale(request, "Смена коллеги уже отсутствует в графике"));
 
         if (findCellValue(fromRow, dayTo).isPresent() || findCellValue(toRow, dayFrom).isPresent()) {
-            throw new BadRequestException("Одна из дат уже занята");
+            throw stale(request, "Одна из дат уже занята");
         }
 
         fromRow.getCells().add(ScheduleCell.builder()
@@ -3,10 +3,10 @@ package ru.staffly.security;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import ru.staffly.common.cache.ReferenceDataCache;
 import ru.staffly.common.exception.ForbiddenException;
 import ru.staffly.member.model.RestaurantMember;
 import ru.staffly.member.repository.RestaurantMemberRepository;
-import ru.staffly.restaurant.repository.RestaurantRepository;
 import ru.staffly.restaurant.model.RestaurantRole;
 
 @Component("securityService") // имя для SpEL в @PreAuthorize
@@ -14,7 +14,7 @@ import ru.staffly.restaurant.model.RestaurantRole;
 public class SecurityService {
 
     private final RestaurantMemberRepository members;
-    private final RestaurantRepository restaurants;
+    private final ReferenceDataCache referenceData;
 
     private boolean isCreator() {
         var a = SecurityContextHolder.getContext().getAuthentication();
@@ -23,8 +23,8 @@ public class SecurityService {
     }
 
     private boolean isLocked(Long restaurantId) {
-        return restaurants.findById(restaurantId)
-                .map(r -> r.isLocked())
+        return referenceData.restaurant(restaurantId)
+                .map(ReferenceDataCache.RestaurantRef::locked)
                 .orElse(false);
     }
 
@@ -11,6 +11,7 @@ import ru.staffly.task.dto.TaskCommentPageDto;
 import ru.staffly.task.dto.TaskCommentRequest;
 import ru.staffly.task.dto.TaskCreateRequest;
 import ru.staffly.task.dto.TaskDto;
+import ru.staffly.task.dto.TaskFeedPageDto;
 import ru.staffly.task.model.TaskStatus;
 import ru.staffly.task.service.TaskService;
 
@@ -33,6 +34,18 @@ public class TaskController {
         return service.list(restaurantId, principal.userId(), scope, status, overdue);
     }
 
+    @PreAuthorize("@securityService.isMember(principal.userId, #restaurantId)")
+    @GetMapping("/restaurants/{restaurantId}/tasks/feed")
+    public TaskFeedPageDto feed(@PathVariable Long restaurantId,
+                                @AuthenticationPrincipal UserPrincipal principal,
+                                @RequestParam(name = "scope", defaultValue = "MINE") TaskService.TaskScope scope,
+                                @RequestParam(name = "status", required = false) TaskStatus status,
+                                @RequestParam(name = "overdue", required = false) Boolean overdue,
+                                @RequestParam(name = "cursor", required = false) String cursor,
+                                @RequestParam(name = "size", defaultValue = "20") int size) {
+        return service.feed(restaurantId, principal.userId(), scope, status, overdue, cursor, size);
+    }
+
     @PreAuthorize("@securityService.hasAtLeastManager(principal.userId, #restaurantId)")
     @PostMapping("/restaurants/{restaurantId}/tasks")
     public TaskDto create(@PathVariable Long restaurantId,
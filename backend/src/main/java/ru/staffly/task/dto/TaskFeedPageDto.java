@@ -0,0 +1,11 @@
+package ru.staffly.task.dto;
+
+import java.util.List;
+
+public record TaskFeedPageDto(
+        List<TaskDto> items,
+        String nextCursor,
+        boolean hasNext,
+        TaskScopeCountsDto counts
+) {
+}
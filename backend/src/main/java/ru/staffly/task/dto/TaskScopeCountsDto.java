@@ -0,0 +1,12 @@
+package ru.staffly.task.dto;
+
+/**
+ * Счётчики вкладок ленты задач.
+ *
+ * @param all задачи вкладки «Все»; {@code null} для сотрудников без прав менеджера — у них этой вкладки нет
+ */
+public record TaskScopeCountsDto(
+        Long mine,
+        Long all
+) {
+}
@@ -49,6 +49,15 @@ public class Task {
     @Column(name = "due_date")
     private LocalDate dueDate;
 
+    // Ключ сортировки ленты, вычисляет БД (V46); читается только в запросах
+    @Setter(AccessLevel.NONE)
+    @Column(name = "priority_rank", insertable = false, updatable = false)
+    private Integer priorityRank;
+
+    @Setter(AccessLevel.NONE)
+    @Column(name = "due_sort", insertable = false, updatable = false)
+    private LocalDate dueSort;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
     private TaskStatus status;
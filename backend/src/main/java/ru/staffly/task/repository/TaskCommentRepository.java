@@ -2,12 +2,28 @@ package ru.staffly.task.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.staffly.task.model.TaskComment;
+import ru.staffly.task.repository.projection.TaskCommentRow;
 
 public interface TaskCommentRepository extends JpaRepository<TaskComment, Long> {
 
-    @EntityGraph(attributePaths = "author")
-    Page<TaskComment> findByTaskId(Long taskId, Pageable pageable);
+    @Query(value = """
+           select new ru.staffly.task.repository.projection.TaskCommentRow(
+             c.id, c.task.id,
+             a.id, a.fullName, a.firstName, a.lastName, p.id, p.name,
+             c.text, c.createdAt
+           )
+           from TaskComment c
+           join c.author a
+           left join RestaurantMember m on m.user = a and m.restaurant.id = :restaurantId
+           left join m.position p
+           where c.task.id = :taskId
+           """,
+           countQuery = """
+           select count(c) from TaskComment c
+           where c.task.id = :taskId
+           """)
+    Page<TaskCommentRow> findRowsByTaskId(Long taskId, Long restaurantId, Pageable pageable);
 }
\ No newline at end of file
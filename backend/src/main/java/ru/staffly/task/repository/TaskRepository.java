@@ -1,9 +1,12 @@
 package ru.staffly.task.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.staffly.task.model.Task;
 import ru.staffly.task.model.TaskStatus;
+import ru.staffly.task.repository.projection.TaskRow;
+import ru.staffly.task.repository.projection.TaskScopeCounts;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -16,44 +19,99 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
            left join fetch t.assignedUser
            left join fetch t.assignedPosition
            left join fetch t.createdBy
+           where t.id = :taskId
+             and t.deletedAt is null
+           """)
+    Optional<Task> findActiveById(Long taskId);
+
+    /**
+     * Лента задач в порядке priority → dueDate (без срока — в конце) → id.
+     * Keyset: строки строго после (afterRank, afterDueDate, afterId).
+     * Ключ — хранимые колонки priorityRank и dueSort (пустой срок — 9999-12-31), их покрывает idx_task_feed.
+     */
+    @Query("""
+           select new ru.staffly.task.repository.projection.TaskRow(
+             t.id, t.restaurant.id, t.title, t.description, t.priority, t.dueDate, t.status, t.completedAt,
+             t.assignedToAll,
+             ap.id, ap.name,
+             au.id, au.fullName, au.firstName, au.lastName, amp.id, amp.name,
+             cu.id, cu.fullName, cu.firstName, cu.lastName, cmp.id, cmp.name,
+             t.createdAt
+           )
+           from Task t
+           left join t.assignedPosition ap
+           left join t.assignedUser au
+           left join RestaurantMember am on am.user = au and am.restaurant = t.restaurant
+           left join am.position amp
+           left join t.createdBy cu
+           left join RestaurantMember cm on cm.user = cu and cm.restaurant = t.restaurant
+           left join cm.position cmp
            where t.restaurant.id = :restaurantId
              and t.deletedAt is null
              and (
                :viewAll = true
                or t.assignedToAll = true
-               or t.assignedUser.id = :userId
-               or t.assignedPosition.id = :positionId
+               or au.id = :userId
+               or ap.id = :positionId
              )
              and (:status is null or t.status = :status)
              and (
                :overdue = false
                or (t.dueDate is not null and t.dueDate < :today)
              )
+             and (
+               t.priorityRank > :afterRank
+               or (
+                 t.priorityRank = :afterRank
+                 and (
+                   t.dueSort > :afterDueDate
+                   or (t.dueSort = :afterDueDate and t.id > :afterId)
+                 )
+               )
+             )
            order by
-             case
-               when t.priority = ru.staffly.task.model.TaskPriority.HIGH then 0
-               when t.priority = ru.staffly.task.model.TaskPriority.MEDIUM then 1
-               when t.priority = ru.staffly.task.model.TaskPriority.LOW then 2
-               else 99
-             end,
-             case when t.dueDate is null then 1 else 0 end,
-             t.dueDate
+             t.priorityRank,
+             t.dueSort,
+             t.id
            """)
-    List<Task> findActiveByFilters(Long restaurantId,
-                                   Long userId,
-                                   Long positionId,
-                                   boolean viewAll,
-                                   TaskStatus status,
-                                   boolean overdue,
-                                   LocalDate today);
+    List<TaskRow> findFeed(Long restaurantId,
+                           Long userId,
+                           Long positionId,
+                           boolean viewAll,
+                           TaskStatus status,
+                           boolean overdue,
+                           LocalDate today,
+                           int afterRank,
+                           LocalDate afterDueDate,
+                           long afterId,
+                           Pageable pageable);
 
+    /**
+     * Сколько задач попадает во вкладки «Мои» и «Все» при тех же фильтрах статуса/просрочки.
+     */
     @Query("""
-           select t from Task t
-           left join fetch t.assignedUser
-           left join fetch t.assignedPosition
-           left join fetch t.createdBy
-           where t.id = :taskId
+           select new ru.staffly.task.repository.projection.TaskScopeCounts(
+             sum(case
+                   when t.assignedToAll = true or au.id = :userId or ap.id = :positionId then 1L
+                   else 0L
+                 end),
+             count(t)
+           )
+           from Task t
+           left join t.assignedUser au
+           left join t.assignedPosition ap
+           where t.restaurant.id = :restaurantId
              and t.deletedAt is null
+             and (:status is null or t.status = :status)
+             and (
+               :overdue = false
+               or (t.dueDate is not null and t.dueDate < :today)
+             )
            """)
-    Optional<Task> findActiveById(Long taskId);
+    TaskScopeCounts countByScope(Long restaurantId,
+                                 Long userId,
+                                 Long positionId,
+                                 TaskStatus status,
+                                 boolean overdue,
+                                 LocalDate today);
 }
\ No newline at end of file
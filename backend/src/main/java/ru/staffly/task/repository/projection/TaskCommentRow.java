@@ -0,0 +1,17 @@
+package ru.staffly.task.repository.projection;
+
+import java.time.Instant;
+
+public record TaskCommentRow(
+        Long id,
+        Long taskId,
+        Long authorId,
+        String authorFullName,
+        String authorFirstName,
+        String authorLastName,
+        Long authorPositionId,
+        String authorPositionName,
+        String text,
+        Instant createdAt
+) {
+}
@@ -0,0 +1,40 @@
+package ru.staffly.task.repository.projection;
+
+import ru.staffly.task.model.TaskPriority;
+import ru.staffly.task.model.TaskStatus;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Плоская строка ленты задач: задача + исполнитель/автор с их должностью в ресторане.
+ * Собирается одним запросом, без загрузки сущностей RestaurantMember.
+ */
+public record TaskRow(
+        Long id,
+        Long restaurantId,
+        String title,
+        String description,
+        TaskPriority priority,
+        LocalDate dueDate,
+        TaskStatus status,
+        LocalDateTime completedAt,
+        boolean assignedToAll,
+        Long assignedPositionId,
+        String assignedPositionName,
+        Long assignedUserId,
+        String assignedUserFullName,
+        String assignedUserFirstName,
+        String assignedUserLastName,
+        Long assignedUserPositionId,
+        String assignedUserPositionName,
+        Long createdById,
+        String createdByFullName,
+        String createdByFirstName,
+        String createdByLastName,
+        Long createdByPositionId,
+        String createdByPositionName,
+        Instant createdAt
+) {
+}
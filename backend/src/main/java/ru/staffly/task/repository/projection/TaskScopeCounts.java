@@ -0,0 +1,11 @@
+package ru.staffly.task.repository.projection;
+
+public record TaskScopeCounts(
+        Long mine,
+        Long all
+) {
+    public TaskScopeCounts {
+        if (mine == null) mine = 0L;
+        if (all == null) all = 0L;
+    }
+}
@@ -1,6 +1,8 @@
 package ru.staffly.task.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.staffly.common.exception.BadRequestException;
@@ -24,15 +26,18 @@ import ru.staffly.task.model.TaskPriority;
 import ru.staffly.task.model.TaskStatus;
 import ru.staffly.task.repository.TaskCommentRepository;
 import ru.staffly.task.repository.TaskRepository;
+import ru.staffly.task.repository.projection.TaskCommentRow;
+import ru.staffly.task.repository.projection.TaskRow;
+import ru.staffly.task.repository.projection.TaskScopeCounts;
 import ru.staffly.user.model.User;
 import ru.staffly.user.repository.UserRepository;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -43,6 +48,8 @@ public class TaskService {
         ALL
     }
 
+    private static final int MAX_FEED_PAGE_SIZE = 100;
+
     private final TaskRepository tasks;
     private final TaskCommentRepository comments;
     private final RestaurantRepository restaurants;
@@ -61,34 +68,59 @@ public class TaskService {
                               Boolean overdue) {
         securityService.assertMember(userId, restaurantId);
         RestaurantMember member = resolveMember(userId, restaurantId);
+        boolean viewAll = isManager(member) && scope == TaskScope.ALL;
+        Long positionId = member.getPosition() == null ? null : member.getPosition().getId();
+
+        return findFeedRows(restaurantId, userId, positionId, viewAll, status, overdue, FeedCursor.START, Pageable.unpaged())
+                .stream()
+                .map(this::toDto)
+                .toList();
+    }
+
+    /**
+     * Постраничная лента задач. Страница строится одним запросом-проекцией,
+     * следующая страница запрашивается по {@code nextCursor} (keyset, без offset).
+     */
+    @Transactional(readOnly = true)
+    public TaskFeedPageDto feed(Long restaurantId,
+                                Long userId,
+                                TaskScope scope,
+                                TaskStatus status,
+                                Boolean overdue,
+                                String cursor,
+                                int size) {
+        securityService.assertMember(userId, restaurantId);
+        RestaurantMember member = resolveMember(userId, restaurantId);
         boolean isManager = isManager(member);
         boolean viewAll = isManager && scope == TaskScope.ALL;
         Long positionId = member.getPosition() == null ? null : member.getPosition().getId();
 
-        boolean overdueFilter = Boolean.TRUE.equals(overdue);
-        LocalDate today = restaurantTime.today(restaurantId);
-        List<Task> tasksList = tasks.findActiveByFilters(
-                restaurantId,
-                userId,
-                positionId,
-                viewAll,
-                status,
-                overdueFilter,
-                today
-        );
+        int limit = Math.min(Math.max(size, 1), MAX_FEED_PAGE_SIZE);
+        FeedCursor after = FeedCursor.decode(cursor);
+        List<TaskRow> rows = findFeedRows(restaurantId, userId, positionId, viewAll, status, overdue, after,
+                PageRequest.of(0, limit + 1));
 
-        Map<Long, RestaurantMember> memberByUser = members.findByRestaurantId(restaurantId)
-                .stream()
-                .collect(Collectors.toMap(
-                        m -> m.getUser().getId(),
-                        m -> m,
-                        (first, second) -> first
-                ));
-
-        return tasksList.stream()
-                .map(task -> toDto(task, memberByUser.get(task.getAssignedUser() != null ? task.getAssignedUser().getId() : null),
-                        memberByUser.get(task.getCreatedBy() != null ? task.getCreatedBy().getId() : null)))
-                .toList();
+        boolean hasNext = rows.size() > limit;
+        if (hasNext) {
+            rows = rows.subList(0, limit);
+        }
+        String nextCursor = hasNext ? FeedCursor.of(rows.get(rows.size() - 1)).encode() : null;
+
+        TaskScopeCountsDto counts = null;
+        if (after == FeedCursor.START) {
+            // счётчики нужны только для первой страницы — дальше клиент их уже знает
+            TaskScopeCounts raw = tasks.countByScope(
+                    restaurantId,
+                    userId,
+                    positionId,
+                    status,
+                    Boolean.TRUE.equals(overdue),
+                    restaurantTime.today(restaurantId)
+            );
+            counts = new TaskScopeCountsDto(raw.mine(), isManager ? raw.all() : null);
+        }
+
+        return new TaskFeedPageDto(rows.stream().map(this::toDto).toList(), nextCursor, hasNext, counts);
     }
 
     @Transactional(readOnly = true)
@@ -255,16 +287,9 @@ public class TaskService {
                 Math.max(size, 1),
                 org.springframework.data.domain.Sort.by("createdAt").ascending()
         );
-        var commentPage = comments.findByTaskId(taskId, pageable);
-        Map<Long, RestaurantMember> memberByUser = members.findByRestaurantId(task.getRestaurant().getId())
-                .stream()
-                .collect(Collectors.toMap(
-                        m -> m.getUser().getId(),
-                        m -> m,
-                        (first, second) -> first
-                ));
+        var commentPage = comments.findRowsByTaskId(taskId, task.getRestaurant().getId(), pageable);
         List<TaskCommentDto> items = commentPage.stream()
-                .map(comment -> toCommentDto(comment, memberByUser.get(comment.getAuthor().getId())))
+                .map(this::toCommentDto)
                 .toList();
         return new TaskCommentPageDto(
                 items,
@@ -276,6 +301,47 @@ public class TaskService {
         );
     }
 
+    private List<TaskRow> findFeedRows(Long restaurantId,
+                                       Long userId,
+                                       Long positionId,
+                                       boolean viewAll,
+                                       TaskStatus status,
+                                       Boolean overdue,
+                                       FeedCursor after,
+                                       Pageable pageable) {
+        return tasks.findFeed(
+                restaurantId,
+                userId,
+                positionId,
+                viewAll,
+                status,
+                Boolean.TRUE.equals(overdue),
+                restaurantTime.today(restaurantId),
+                after.rank(),
+                after.dueDate(),
+                after.id(),
+                pageable
+        );
+    }
+
+    private TaskCommentDto toCommentDto(TaskCommentRow row) {
+        TaskUserDto author = new TaskUserDto(
+                row.authorId(),
+                row.authorFullName(),
+                row.authorFirstName(),
+                row.authorLastName(),
+                row.authorPositionId(),
+                row.authorPositionName()
+        );
+        return new TaskCommentDto(
+                row.id(),
+                row.taskId(),
+                author,
+                row.text(),
+                row.createdAt() == null ? null : row.createdAt().toString()
+        );
+    }
+
     private TaskCommentDto toCommentDto(TaskComment comment, RestaurantMember authorMember) {
         TaskUserDto author = toUserDto(comment.getAuthor(), authorMember);
         return new TaskCommentDto(
@@ -312,6 +378,48 @@ public class TaskService {
         );
     }
 
+    private TaskDto toDto(TaskRow row) {
+        TaskPositionDto assignedPosition = row.assignedPositionId() == null
+                ? null
+                : new TaskPositionDto(row.assignedPositionId(), row.assignedPositionName());
+        TaskUserDto assignedUser = row.assignedUserId() == null
+                ? null
+                : new TaskUserDto(
+                        row.assignedUserId(),
+                        row.assignedUserFullName(),
+                        row.assignedUserFirstName(),
+                        row.assignedUserLastName(),
+                        row.assignedUserPositionId(),
+                        row.assignedUserPositionName()
+                );
+        TaskUserDto createdBy = row.createdById() == null
+                ? null
+                : new TaskUserDto(
+                        row.createdById(),
+                        row.createdByFullName(),
+                        row.createdByFirstName(),
+                        row.createdByLastName(),
+                        row.createdByPositionId(),
+                        row.createdByPositionName()
+                );
+
+        return new TaskDto(
+                row.id(),
+                row.restaurantId(),
+                row.title(),
+                row.description(),
+                row.priority() == null ? null : row.priority().name(),
+                row.dueDate() == null ? null : row.dueDate().toString(),
+                row.status() == null ? null : row.status().name(),
+                row.completedAt() == null ? null : row.completedAt().toString(),
+                row.assignedToAll(),
+                assignedPosition,
+                assignedUser,
+                createdBy,
+                row.createdAt() == null ? null : row.createdAt().toString()
+        );
+    }
+
     private TaskUserDto toUserDto(User user, RestaurantMember member) {
         if (user == null) {
             return null;
@@ -397,4 +505,54 @@ public class TaskService {
     private String normalize(String value) {
         return value == null ? null : value.trim();
     }
-}
\ No newline at end of file
+
+    /**
+     * Позиция в ленте: (ранг приоритета, срок, id). Срок без даты кодируется как {@link #NO_DUE_DATE}, как в колонке task.due_sort.
+     */
+    private record FeedCursor(int rank, LocalDate dueDate, long id) {
+
+        static final LocalDate NO_DUE_DATE = LocalDate.of(9999, 12, 31);
+        static final FeedCursor START = new FeedCursor(-1, LocalDate.of(1, 1, 1), 0L);
+
+        static FeedCursor of(TaskRow row) {
+            return new FeedCursor(
+                    priorityRank(row.priority()),
+                    row.dueDate() == null ? NO_DUE_DATE : row.dueDate(),
+                    row.id()
+            );
+        }
+
+        static FeedCursor decode(String value) {
+            if (value == null || value.isBlank()) {
+                return START;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(value.trim()), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|");
+                if (parts.length != 3) {
+                    throw new BadRequestException("Некорректный курсор");
+                }
+                return new FeedCursor(Integer.parseInt(parts[0]), LocalDate.parse(parts[1]), Long.parseLong(parts[2]));
+            } catch (IllegalArgumentException | DateTimeParseException ex) {
+                throw new BadRequestException("Некорректный курсор");
+            }
+        }
+
+        String encode() {
+            String raw = rank + "|" + dueDate + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        // должен совпадать с колонкой task.priority_rank (V46)
+        private static int priorityRank(TaskPriority priority) {
+            if (priority == null) {
+                return 99;
+            }
+            return switch (priority) {
+                case HIGH -> 0;
+                case MEDIUM -> 1;
+                case LOW -> 2;
+            };
+        }
+    }
+}
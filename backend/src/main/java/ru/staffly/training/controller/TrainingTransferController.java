@@ -0,0 +1,94 @@
+package ru.staffly.training.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.staffly.security.UserPrincipal;
+import ru.staffly.training.dto.CloneQuestionBankRequest;
+import ru.staffly.training.dto.TrainingImportJobDto;
+import ru.staffly.training.service.transfer.TrainingTransferService;
+import ru.staffly.training.service.transfer.TransferFormat;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/restaurants/{restaurantId}/training")
+@RequiredArgsConstructor
+public class TrainingTransferController {
+    private final TrainingTransferService transferService;
+
+    @PreAuthorize("@securityService.hasAtLeastManager(#principal.userId, #restaurantId)")
+    @PostMapping(value = "/questions/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<TrainingImportJobDto> importQuestions(@PathVariable Long restaurantId,
+                                                                @AuthenticationPrincipal UserPrincipal principal,
+                                                                @RequestParam Long folderId,
+                                                                @RequestParam("file") MultipartFile file) throws IOException {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(transferService.startQuestionImport(restaurantId, folderId, file));
+    }
+
+    @PreAuthorize("@securityService.hasAtLeastManager(#principal.userId, #restaurantId)")
+    @PostMapping("/questions/clone")
+    public ResponseEntity<TrainingImportJobDto> cloneQuestions(@PathVariable Long restaurantId,
+                                                               @AuthenticationPrincipal UserPrincipal principal,
+                                                               @Valid @RequestBody CloneQuestionBankRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(transferService.startQuestionBankClone(restaurantId, principal.userId(), request));
+    }
+
+    @PreAuthorize("@securityService.hasAtLeastManager(#principal.userId, #restaurantId)")
+    @GetMapping("/questions/export")
+    public ResponseEntity<StreamingResponseBody> exportQuestions(@PathVariable Long restaurantId,
+                                                                 @AuthenticationPrincipal UserPrincipal principal,
+                                                                 @RequestParam Long folderId,
+                                                                 @RequestParam(defaultValue = "XLSX") TransferFormat format) {
+        transferService.checkQuestionExport(restaurantId, folderId);
+        return attachment("questions-" + folderId, format,
+                out -> transferService.exportQuestions(restaurantId, folderId, format, out));
+    }
+
+    @PreAuthorize("@securityService.hasAtLeastManager(#principal.userId, #restaurantId)")
+    @PostMapping(value = "/knowledge-items/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<TrainingImportJobDto> importKnowledgeItems(@PathVariable Long restaurantId,
+                                                                     @AuthenticationPrincipal UserPrincipal principal,
+                                                                     @RequestParam(required = false) Long folderId,
+                                                                     @RequestParam("file") MultipartFile file) throws IOException {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(transferService.startKnowledgeImport(restaurantId, folderId, file));
+    }
+
+    @PreAuthorize("@securityService.hasAtLeastManager(#principal.userId, #restaurantId)")
+    @GetMapping("/knowledge-items/export")
+    public ResponseEntity<StreamingResponseBody> exportKnowledgeItems(@PathVariable Long restaurantId,
+                                                                      @AuthenticationPrincipal UserPrincipal principal,
+                                                                      @RequestParam(required = false) Long folderId,
+                                                                      @RequestParam(defaultValue = "XLSX") TransferFormat format) {
+        transferService.checkKnowledgeExport(restaurantId, folderId);
+        return attachment("knowledge-" + (folderId == null ? "root" : folderId), format,
+                out -> transferService.exportKnowledgeItems(restaurantId, folderId, format, out));
+    }
+
+    @PreAuthorize("@securityService.hasAtLeastManager(#principal.userId, #restaurantId)")
+    @GetMapping("/imports/{jobId}")
+    public TrainingImportJobDto getImportJob(@PathVariable Long restaurantId,
+                                             @PathVariable String jobId,
+                                             @AuthenticationPrincipal UserPrincipal principal) {
+        return transferService.getImportJob(restaurantId, jobId);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> attachment(String name, TransferFormat format, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(name + "." + format.extension())
+                        .build()
+                        .toString())
+                .contentType(MediaType.parseMediaType(format.contentType()))
+                .body(body);
+    }
+}
@@ -0,0 +1,9 @@
+package ru.staffly.training.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+public record CloneQuestionBankRequest(
+        @NotNull Long sourceRestaurantId,
+        @NotNull Long sourceFolderId,
+        @NotNull Long targetFolderId
+) {}
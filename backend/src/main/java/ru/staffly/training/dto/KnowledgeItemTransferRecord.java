@@ -0,0 +1,13 @@
+package ru.staffly.training.dto;
+
+/**
+ * Карточка базы знаний в формате импорта/экспорта.
+ */
+public record KnowledgeItemTransferRecord(
+        String title,
+        String description,
+        String composition,
+        String allergens,
+        String imageUrl,
+        Integer sortOrder
+) {}
@@ -0,0 +1,21 @@
+package ru.staffly.training.dto;
+
+import ru.staffly.training.model.TrainingQuestionGroup;
+import ru.staffly.training.model.TrainingQuestionType;
+
+import java.util.List;
+
+/**
+ * Вопрос в формате импорта/экспорта: без id и без привязки к ресторану/папке.
+ */
+public record QuestionTransferRecord(
+        TrainingQuestionType type,
+        TrainingQuestionGroup questionGroup,
+        String title,
+        String prompt,
+        String explanation,
+        Integer sortOrder,
+        List<TrainingQuestionOptionDto> options,
+        List<TrainingQuestionMatchPairDto> matchPairs,
+        List<TrainingQuestionBlankDto> blanks
+) {}
@@ -0,0 +1,6 @@
+package ru.staffly.training.dto;
+
+public record TrainingImportErrorDto(
+        long row,
+        String message
+) {}
@@ -0,0 +1,14 @@
+package ru.staffly.training.dto;
+
+import java.util.List;
+
+public record TrainingImportJobDto(
+        String id,
+        String kind,
+        String status,
+        int processed,
+        int imported,
+        int failed,
+        List<TrainingImportErrorDto> errors,
+        String message
+) {}
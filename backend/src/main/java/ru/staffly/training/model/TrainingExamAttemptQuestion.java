@@ -12,7 +12,8 @@ import lombok.*;
 @Builder
 public class TrainingExamAttemptQuestion {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "training_exam_attempt_question_seq")
+    @SequenceGenerator(name = "training_exam_attempt_question_seq", sequenceName = "training_exam_attempt_question_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -42,6 +42,9 @@ public class TrainingKnowledgeItem {
     @Column(name = "image_url")
     private String imageUrl;
 
+    @Column(name = "image_srcset", columnDefinition = "text")
+    private String imageSrcset;
+
     @Column(name = "sort_order", nullable = false)
     @Builder.Default
     private int sortOrder = 0;
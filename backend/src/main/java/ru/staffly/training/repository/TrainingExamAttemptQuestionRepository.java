@@ -1,6 +1,9 @@
 package ru.staffly.training.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.staffly.training.model.TrainingExamAttemptQuestion;
 
 import java.util.List;
@@ -8,5 +11,7 @@ import java.util.List;
 public interface TrainingExamAttemptQuestionRepository extends JpaRepository<TrainingExamAttemptQuestion, Long> {
     List<TrainingExamAttemptQuestion> findByAttemptId(Long attemptId);
     List<TrainingExamAttemptQuestion> findByAttemptIdIn(List<Long> attemptIds);
-    void deleteByAttemptId(Long attemptId);
+    @Modifying(flushAutomatically = true)
+    @Query("delete from TrainingExamAttemptQuestion q where q.attempt.id = :attemptId")
+    int deleteByAttemptId(@Param("attemptId") Long attemptId);
 }
@@ -1,6 +1,7 @@
 package ru.staffly.training.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.staffly.training.dto.ExamUsageDto;
@@ -16,5 +17,7 @@ public interface TrainingExamSourceFolderRepository extends JpaRepository<Traini
             "where s.folder.id in :folderIds and e.restaurant.id = :restaurantId")
     List<ExamUsageDto> findExamUsagesByRestaurantIdAndFolderIds(@Param("restaurantId") Long restaurantId, @Param("folderIds") List<Long> folderIds);
 
-    void deleteByExamId(Long examId);
+    @Modifying(flushAutomatically = true)
+    @Query("delete from TrainingExamSourceFolder s where s.exam.id = :examId")
+    int deleteByExamId(@Param("examId") Long examId);
 }
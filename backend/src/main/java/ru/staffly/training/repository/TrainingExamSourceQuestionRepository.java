@@ -1,6 +1,7 @@
 package ru.staffly.training.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.staffly.training.model.TrainingExamSourceQuestion;
@@ -16,5 +17,7 @@ public interface TrainingExamSourceQuestionRepository extends JpaRepository<Trai
             "where s.question.id = :questionId and e.restaurant.id = :restaurantId")
     List<TrainingExamUsageProjection> findExamUsagesByRestaurantIdAndQuestionId(@Param("restaurantId") Long restaurantId, @Param("questionId") Long questionId);
 
-    void deleteByExamId(Long examId);
+    @Modifying(flushAutomatically = true)
+    @Query("delete from TrainingExamSourceQuestion s where s.exam.id = :examId")
+    int deleteByExamId(@Param("examId") Long examId);
 }
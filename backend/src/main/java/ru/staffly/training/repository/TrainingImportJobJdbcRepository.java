@@ -0,0 +1,93 @@
+package ru.staffly.training.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.staffly.training.dto.TrainingImportErrorDto;
+import ru.staffly.training.dto.TrainingImportJobDto;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Состояние фоновых импортов обучения ({@code training_import_jobs}): пишет узел, выполняющий задачу,
+ * читает любой узел, на который пришёл опрос статуса.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TrainingImportJobJdbcRepository {
+
+    private static final TypeReference<List<TrainingImportErrorDto>> ERRORS = new TypeReference<>() {};
+
+    private final JdbcTemplate jdbc;
+    private final ObjectMapper objectMapper;
+
+    /** Задача со временем последней записи — по нему видно, что узел, который её вёл, пропал. */
+    public record StoredJob(TrainingImportJobDto job, Instant updatedAt) {}
+
+    public void insert(Long restaurantId, TrainingImportJobDto job, Instant now) {
+        jdbc.update("""
+                insert into training_import_jobs (id, restaurant_id, kind, status, created_at, updated_at)
+                values (?, ?, ?, ?, ?, ?)
+                """, job.id(), restaurantId, job.kind(), job.status(), Timestamp.from(now), Timestamp.from(now));
+    }
+
+    public void update(TrainingImportJobDto job, Instant finishedAt, Instant now) {
+        jdbc.update("""
+                update training_import_jobs
+                set status = ?, processed = ?, imported = ?, failed = ?, errors = cast(? as jsonb), message = ?,
+                    updated_at = ?, finished_at = ?
+                where id = ?
+                """,
+                job.status(), job.processed(), job.imported(), job.failed(), toJson(job.errors()), job.message(),
+                Timestamp.from(now), finishedAt == null ? null : Timestamp.from(finishedAt), job.id());
+    }
+
+    public Optional<StoredJob> find(String id, Long restaurantId) {
+        return jdbc.query("""
+                select id, kind, status, processed, imported, failed, errors, message, updated_at
+                from training_import_jobs
+                where id = ? and restaurant_id = ?
+                """, (rs, i) -> new StoredJob(
+                        new TrainingImportJobDto(
+                                rs.getString("id"),
+                                rs.getString("kind"),
+                                rs.getString("status"),
+                                rs.getInt("processed"),
+                                rs.getInt("imported"),
+                                rs.getInt("failed"),
+                                fromJson(rs.getString("errors")),
+                                rs.getString("message")),
+                        rs.getTimestamp("updated_at").toInstant()),
+                id, restaurantId).stream().findFirst();
+    }
+
+    public void delete(String id) {
+        jdbc.update("delete from training_import_jobs where id = ?", id);
+    }
+
+    public int deleteFinishedBefore(Instant threshold) {
+        return jdbc.update("delete from training_import_jobs where finished_at < ?", Timestamp.from(threshold));
+    }
+
+    private String toJson(List<TrainingImportErrorDto> errors) {
+        try {
+            return objectMapper.writeValueAsString(errors);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize import errors", e);
+        }
+    }
+
+    private List<TrainingImportErrorDto> fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, ERRORS);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read import errors", e);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package ru.staffly.training.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.staffly.training.model.TrainingQuestionBlankOption;
 
 import java.util.List;
@@ -8,5 +11,7 @@ import java.util.List;
 public interface TrainingQuestionBlankOptionRepository extends JpaRepository<TrainingQuestionBlankOption, Long> {
     List<TrainingQuestionBlankOption> findByBlankIdInOrderBySortOrderAscIdAsc(List<Long> blankIds);
     List<TrainingQuestionBlankOption> findByBlankIdOrderBySortOrderAscIdAsc(Long blankId);
-    void deleteByBlankIdIn(List<Long> blankIds);
+    @Modifying(flushAutomatically = true)
+    @Query("delete from TrainingQuestionBlankOption o where o.blank.id in :blankIds")
+    int deleteByBlankIdIn(@Param("blankIds") List<Long> blankIds);
 }
\ No newline at end of file
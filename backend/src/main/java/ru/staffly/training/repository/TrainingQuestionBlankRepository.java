@@ -1,6 +1,9 @@
 package ru.staffly.training.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.staffly.training.model.TrainingQuestionBlank;
 
 import java.util.List;
@@ -8,5 +11,7 @@ import java.util.List;
 public interface TrainingQuestionBlankRepository extends JpaRepository<TrainingQuestionBlank, Long> {
     List<TrainingQuestionBlank> findByQuestionIdInOrderBySortOrderAscIdAsc(List<Long> questionIds);
     List<TrainingQuestionBlank> findByQuestionIdOrderBySortOrderAscIdAsc(Long questionId);
-    void deleteByQuestionId(Long questionId);
+    @Modifying(flushAutomatically = true)
+    @Query("delete from TrainingQuestionBlank b where b.question.id = :questionId")
+    int deleteByQuestionId(@Param("questionId") Long questionId);
 }
\ No newline at end of file
@@ -1,6 +1,9 @@
 package ru.staffly.training.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.staffly.training.model.TrainingQuestionMatchPair;
 
 import java.util.List;
@@ -8,5 +11,7 @@ import java.util.List;
 public interface TrainingQuestionMatchPairRepository extends JpaRepository<TrainingQuestionMatchPair, Long> {
     List<TrainingQuestionMatchPair> findByQuestionIdOrderBySortOrderAscIdAsc(Long questionId);
     List<TrainingQuestionMatchPair> findByQuestionIdInOrderBySortOrderAscIdAsc(List<Long> questionIds);
-    void deleteByQuestionId(Long questionId);
+    @Modifying(flushAutomatically = true)
+    @Query("delete from TrainingQuestionMatchPair p where p.question.id = :questionId")
+    int deleteByQuestionId(@Param("questionId") Long questionId);
 }
@@ -1,6 +1,9 @@
 package ru.staffly.training.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.staffly.training.model.TrainingQuestionOption;
 
 import java.util.List;
@@ -8,5 +11,7 @@ import java.util.List;
 public interface TrainingQuestionOptionRepository extends JpaRepository<TrainingQuestionOption, Long> {
     List<TrainingQuestionOption> findByQuestionIdOrderBySortOrderAscIdAsc(Long questionId);
     List<TrainingQuestionOption> findByQuestionIdInOrderBySortOrderAscIdAsc(List<Long> questionIds);
-    void deleteByQuestionId(Long questionId);
+    @Modifying(flushAutomatically = true)
+    @Query("delete from TrainingQuestionOption o where o.question.id = :questionId")
+    int deleteByQuestionId(@Param("questionId") Long questionId);
 }
@@ -0,0 +1,298 @@
+package ru.staffly.training.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.staffly.training.dto.*;
+import ru.staffly.training.model.TrainingQuestionGroup;
+import ru.staffly.training.model.TrainingQuestionType;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Массовая запись/чтение банка вопросов и базы знаний в обход JPA.
+ * <p>
+ * Все id выделяются одним запросом к sequence, после чего каждая таблица
+ * пишется одним JDBC batch-ем — вместо INSERT на каждую строку у IDENTITY-сущностей.
+ * Чтение идёт порциями по id (keyset), чтобы экспорт не держал весь банк в памяти.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TrainingTransferJdbcRepository {
+
+    private final JdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate named;
+
+    public record Chunk<T>(List<T> items, long lastId) {
+        public boolean isEmpty() {
+            return items.isEmpty();
+        }
+    }
+
+    /* ================= questions: insert ================= */
+
+    /**
+     * Вставляет уже провалидированные вопросы в папку.
+     *
+     * @return сколько вопросов вставлено
+     */
+    public int insertQuestions(Long restaurantId, Long folderId, List<QuestionTransferRecord> records) {
+        if (records.isEmpty()) return 0;
+
+        List<Long> questionIds = nextIds("training_question_id_seq", records.size());
+        Timestamp now = Timestamp.from(Instant.now());
+
+        jdbc.batchUpdate("""
+                insert into training_question
+                  (id, restaurant_id, folder_id, type, question_group, title, prompt, explanation,
+                   sort_order, is_active, created_at, updated_at)
+                values (?, ?, ?, ?, ?, ?, ?, ?, ?, true, ?, ?)
+                """, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                var r = records.get(i);
+                ps.setLong(1, questionIds.get(i));
+                ps.setLong(2, restaurantId);
+                ps.setLong(3, folderId);
+                ps.setString(4, r.type().name());
+                ps.setString(5, r.questionGroup().name());
+                ps.setString(6, r.title().trim());
+                ps.setString(7, r.prompt().trim());
+                ps.setString(8, r.explanation());
+                ps.setInt(9, r.sortOrder() == null ? 0 : r.sortOrder());
+                ps.setTimestamp(10, now);
+                ps.setTimestamp(11, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return records.size();
+            }
+        });
+
+        List<Object[]> optionRows = new ArrayList<>();
+        List<Object[]> pairRows = new ArrayList<>();
+        List<Long> blankQuestionIds = new ArrayList<>();
+        List<Integer> blankSortOrders = new ArrayList<>();
+        List<List<TrainingQuestionBlankOptionDto>> blankOptionLists = new ArrayList<>();
+
+        for (int i = 0; i < records.size(); i++) {
+            var r = records.get(i);
+            Long questionId = questionIds.get(i);
+            if (r.options() != null) {
+                for (int j = 0; j < r.options().size(); j++) {
+                    var o = r.options().get(j);
+                    optionRows.add(new Object[]{questionId, o.text().trim(), o.correct(), o.sortOrder() == null ? j : o.sortOrder()});
+                }
+            }
+            if (r.matchPairs() != null) {
+                for (int j = 0; j < r.matchPairs().size(); j++) {
+                    var p = r.matchPairs().get(j);
+                    pairRows.add(new Object[]{questionId, p.leftText().trim(), p.rightText().trim(), p.sortOrder() == null ? j : p.sortOrder()});
+                }
+            }
+            if (r.blanks() != null) {
+                r.blanks().stream()
+                        .sorted(Comparator.comparing(TrainingQuestionBlankDto::index))
+                        .forEach(b -> {
+                            blankQuestionIds.add(questionId);
+                            blankSortOrders.add(b.index() - 1);
+                            blankOptionLists.add(b.options());
+                        });
+            }
+        }
+
+        if (!optionRows.isEmpty()) {
+            jdbc.batchUpdate("""
+                    insert into training_question_option (question_id, text, is_correct, sort_order)
+                    values (?, ?, ?, ?)
+                    """, optionRows);
+        }
+        if (!pairRows.isEmpty()) {
+            jdbc.batchUpdate("""
+                    insert into training_question_match_pair (question_id, left_text, right_text, sort_order)
+                    values (?, ?, ?, ?)
+                    """, pairRows);
+        }
+        if (!blankQuestionIds.isEmpty()) {
+            List<Long> blankIds = nextIds("training_question_blank_id_seq", blankQuestionIds.size());
+            List<Object[]> blankRows = new ArrayList<>(blankIds.size());
+            List<Object[]> blankOptionRows = new ArrayList<>();
+            for (int i = 0; i < blankIds.size(); i++) {
+                blankRows.add(new Object[]{blankIds.get(i), blankQuestionIds.get(i), blankSortOrders.get(i)});
+                var opts = blankOptionLists.get(i);
+                for (int j = 0; j < opts.size(); j++) {
+                    var o = opts.get(j);
+                    blankOptionRows.add(new Object[]{blankIds.get(i), o.text().trim(), Boolean.TRUE.equals(o.correct()), j});
+                }
+            }
+            jdbc.batchUpdate("""
+                    insert into training_question_blank (id, question_id, sort_order)
+                    values (?, ?, ?)
+                    """, blankRows);
+            jdbc.batchUpdate("""
+                    insert into training_question_blank_option (blank_id, text, is_correct, sort_order)
+                    values (?, ?, ?, ?)
+                    """, blankOptionRows);
+        }
+        return records.size();
+    }
+
+    /* ================= questions: read ================= */
+
+    /**
+     * Следующая порция вопросов папки (по возрастанию id) вместе с вариантами, парами и пропусками.
+     */
+    public Chunk<QuestionTransferRecord> loadQuestionChunk(Long restaurantId, Long folderId, long afterId, int limit) {
+        record Head(long id, QuestionTransferRecord base) {}
+
+        List<Head> heads = jdbc.query("""
+                select id, type, question_group, title, prompt, explanation, sort_order
+                from training_question
+                where restaurant_id = ? and folder_id = ? and id > ?
+                order by id
+                limit ?
+                """, (rs, n) -> new Head(
+                rs.getLong("id"),
+                new QuestionTransferRecord(
+                        TrainingQuestionType.valueOf(rs.getString("type")),
+                        TrainingQuestionGroup.valueOf(rs.getString("question_group")),
+                        rs.getString("title"),
+                        rs.getString("prompt"),
+                        rs.getString("explanation"),
+                        rs.getInt("sort_order"),
+                        null, null, null
+                )
+        ), restaurantId, folderId, afterId, limit);
+
+        if (heads.isEmpty()) return new Chunk<>(List.of(), afterId);
+
+        var params = new MapSqlParameterSource("ids", heads.stream().map(Head::id).toList());
+
+        Map<Long, List<TrainingQuestionOptionDto>> options = new HashMap<>();
+        named.query("""
+                select question_id, text, is_correct, sort_order
+                from training_question_option
+                where question_id in (:ids)
+                order by question_id, sort_order, id
+                """, params, rs -> {
+            options.computeIfAbsent(rs.getLong("question_id"), k -> new ArrayList<>())
+                    .add(new TrainingQuestionOptionDto(null, rs.getString("text"), rs.getBoolean("is_correct"), rs.getInt("sort_order")));
+        });
+
+        Map<Long, List<TrainingQuestionMatchPairDto>> pairs = new HashMap<>();
+        named.query("""
+                select question_id, left_text, right_text, sort_order
+                from training_question_match_pair
+                where question_id in (:ids)
+                order by question_id, sort_order, id
+                """, params, rs -> {
+            pairs.computeIfAbsent(rs.getLong("question_id"), k -> new ArrayList<>())
+                    .add(new TrainingQuestionMatchPairDto(null, rs.getString("left_text"), rs.getString("right_text"), rs.getInt("sort_order")));
+        });
+
+        Map<Long, Map<Long, List<TrainingQuestionBlankOptionDto>>> blanks = new HashMap<>();
+        named.query("""
+                select b.question_id, b.id as blank_id, o.text, o.is_correct, o.sort_order
+                from training_question_blank b
+                join training_question_blank_option o on o.blank_id = b.id
+                where b.question_id in (:ids)
+                order by b.question_id, b.sort_order, b.id, o.sort_order, o.id
+                """, params, rs -> {
+            blanks.computeIfAbsent(rs.getLong("question_id"), k -> new LinkedHashMap<>())
+                    .computeIfAbsent(rs.getLong("blank_id"), k -> new ArrayList<>())
+                    .add(new TrainingQuestionBlankOptionDto(null, rs.getString("text"), rs.getBoolean("is_correct"), rs.getInt("sort_order")));
+        });
+
+        List<QuestionTransferRecord> items = new ArrayList<>(heads.size());
+        for (Head h : heads) {
+            var base = h.base();
+            List<TrainingQuestionBlankDto> blankDtos = new ArrayList<>();
+            int index = 1;
+            for (var opts : blanks.getOrDefault(h.id(), Map.of()).values()) {
+                blankDtos.add(new TrainingQuestionBlankDto(null, index++, opts));
+            }
+            items.add(new QuestionTransferRecord(
+                    base.type(), base.questionGroup(), base.title(), base.prompt(), base.explanation(), base.sortOrder(),
+                    options.getOrDefault(h.id(), List.of()),
+                    pairs.getOrDefault(h.id(), List.of()),
+                    blankDtos
+            ));
+        }
+        return new Chunk<>(items, heads.get(heads.size() - 1).id());
+    }
+
+    /* ================= knowledge items ================= */
+
+    public int insertKnowledgeItems(Long restaurantId, Long folderId, List<KnowledgeItemTransferRecord> records) {
+        if (records.isEmpty()) return 0;
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbc.batchUpdate("""
+                insert into training_knowledge_item
+                  (restaurant_id, folder_id, title, description, composition, allergens, image_url,
+                   sort_order, is_active, created_at, updated_at)
+                values (?, ?, ?, ?, ?, ?, ?, ?, true, ?, ?)
+                """, records, records.size(), (ps, r) -> {
+            ps.setLong(1, restaurantId);
+            if (folderId == null) ps.setNull(2, Types.BIGINT);
+            else ps.setLong(2, folderId);
+            ps.setString(3, r.title().trim());
+            ps.setString(4, r.description());
+            ps.setString(5, r.composition());
+            ps.setString(6, r.allergens());
+            // картинка принадлежит исходному материалу (training/items/{id}/): ссылка на неё сделала бы объекты
+            // общими, а удаление у копии стёрло бы их у источника. Картинки загружаются заново.
+            ps.setNull(7, Types.VARCHAR);
+            ps.setInt(8, r.sortOrder() == null ? 0 : r.sortOrder());
+            ps.setTimestamp(9, now);
+            ps.setTimestamp(10, now);
+        });
+        return records.size();
+    }
+
+    public Chunk<KnowledgeItemTransferRecord> loadKnowledgeItemChunk(Long restaurantId, Long folderId, long afterId, int limit) {
+        long[] lastId = {afterId};
+        // корень базы знаний — folder_id is null
+        String folderFilter = folderId == null ? "folder_id is null" : "folder_id = ?";
+        List<Object> args = new ArrayList<>(List.of(restaurantId));
+        if (folderId != null) args.add(folderId);
+        args.add(afterId);
+        args.add(limit);
+        List<KnowledgeItemTransferRecord> items = jdbc.query("""
+                select id, title, description, composition, allergens, image_url, sort_order
+                from training_knowledge_item
+                where restaurant_id = ? and %s and id > ?
+                order by id
+                limit ?
+                """.formatted(folderFilter), (rs, n) -> {
+            lastId[0] = rs.getLong("id");
+            return new KnowledgeItemTransferRecord(
+                    rs.getString("title"),
+                    rs.getString("description"),
+                    rs.getString("composition"),
+                    rs.getString("allergens"),
+                    rs.getString("image_url"),
+                    rs.getInt("sort_order")
+            );
+        }, args.toArray());
+        return new Chunk<>(items, lastId[0]);
+    }
+
+    /* ================= helpers ================= */
+
+    private List<Long> nextIds(String sequence, int count) {
+        return jdbc.queryForList(
+                "select nextval('" + sequence + "') from generate_series(1, ?)",
+                Long.class,
+                count
+        );
+    }
+}
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.staffly.common.cache.ReferenceDataCache;
 import ru.staffly.common.exception.BadRequestException;
 import ru.staffly.common.exception.ConflictException;
 import ru.staffly.common.exception.NotFoundException;
@@ -38,6 +39,7 @@ public class ExamServiceImpl implements ExamService {
     private final TrainingFolderRepository folders;
     private final RestaurantMemberRepository members;
     private final PositionRepository positions;
+    private final ReferenceDataCache referenceData;
     private final ObjectMapper objectMapper;
 
     @Override
@@ -377,6 +379,7 @@ public class ExamServiceImpl implements ExamService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<TrainingExamResultDto> listExamResults(Long restaurantId, Long examId, Long positionId) {
         var exam = exams.findByIdAndRestaurantId(examId, restaurantId).orElseThrow(() -> new NotFoundException("Exam not found"));
         if (exam.getMode() != TrainingExamMode.CERTIFICATION) {
@@ -589,11 +592,10 @@ public class ExamServiceImpl implements ExamService {
     private void replaceVisibility(Long restaurantId, TrainingExam exam, List<Long> visibilityPositionIds) {
         exam.getVisibilityPositions().clear();
         if (visibilityPositionIds == null || visibilityPositionIds.isEmpty()) return;
-        var allowed = positions.findByRestaurantId(restaurantId).stream().collect(Collectors.toMap(Position::getId, Function.identity()));
+        var allowed = referenceData.positionIds(restaurantId);
         for (Long positionId : visibilityPositionIds.stream().distinct().toList()) {
-            var position = allowed.get(positionId);
-            if (position == null) throw new NotFoundException("Position not found");
-            exam.getVisibilityPositions().add(position);
+            if (!allowed.contains(positionId)) throw new NotFoundException("Position not found");
+            exam.getVisibilityPositions().add(positions.getReferenceById(positionId));
         }
     }
 
@@ -5,12 +5,14 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import jakarta.persistence.EntityManager;
+import ru.staffly.common.cache.ReferenceDataCache;
 import ru.staffly.common.exception.BadRequestException;
 import ru.staffly.common.exception.ConflictException;
 import ru.staffly.common.exception.ForbiddenException;
 import ru.staffly.common.exception.NotFoundException;
 import ru.staffly.dictionary.model.Position;
 import ru.staffly.dictionary.repository.PositionRepository;
+import ru.staffly.media.ImageFormat;
 import ru.staffly.media.TrainingImageStorage;
 import ru.staffly.member.repository.RestaurantMemberRepository;
 import ru.staffly.restaurant.model.Restaurant;
@@ -40,6 +42,7 @@ public class KnowledgeServiceImpl implements KnowledgeService {
     private final EntityManager entityManager;
     private final RestaurantMemberRepository members;
     private final PositionRepository positions;
+    private final ReferenceDataCache referenceData;
     private final SecurityService securityService;
 
     @Transactional(readOnly = true)
@@ -175,7 +178,7 @@ public class KnowledgeServiceImpl implements KnowledgeService {
         }
         var relatedItems = items.findByRestaurantIdAndFolderIdIn(restaurantId, allFolderIds);
         for (var item : relatedItems) {
-            storage.deleteByPublicUrl(item.getImageUrl());
+            storage.deleteByPublicUrl(item.getId(), item.getImageUrl());
             storage.deleteItemFolder(item.getId());
         }
         folders.delete(root);
@@ -274,7 +277,7 @@ public class KnowledgeServiceImpl implements KnowledgeService {
     public void deleteKnowledgeItem(Long restaurantId, Long itemId) {
         var entity = items.findByIdAndRestaurantId(itemId, restaurantId).orElseThrow(() -> new NotFoundException("Knowledge item not found"));
         if (entity.isActive()) throw new ConflictException("Сначала скройте материал, затем удаляйте.");
-        storage.deleteByPublicUrl(entity.getImageUrl());
+        storage.deleteByPublicUrl(itemId, entity.getImageUrl());
         storage.deleteItemFolder(itemId);
         items.delete(entity);
     }
@@ -286,8 +289,10 @@ public class KnowledgeServiceImpl implements KnowledgeService {
         if (file.getSize() > MAX_IMAGE_BYTES) throw new BadRequestException("Файл больше 2MB");
         validateImage(file);
         var entity = items.findByIdAndRestaurantId(itemId, restaurantId).orElseThrow(() -> new NotFoundException("Knowledge item not found"));
-        storage.deleteByPublicUrl(entity.getImageUrl());
-        entity.setImageUrl(storage.saveForItem(itemId, file));
+        storage.deleteByPublicUrl(itemId, entity.getImageUrl());
+        var stored = storage.saveForItem(itemId, file);
+        entity.setImageUrl(stored.url());
+        entity.setImageSrcset(stored.srcset());
         return toDto(entity);
     }
 
@@ -295,8 +300,9 @@ public class KnowledgeServiceImpl implements KnowledgeService {
     @Transactional
     public TrainingKnowledgeItemDto deleteKnowledgeImage(Long restaurantId, Long itemId) throws IOException {
         var entity = items.findByIdAndRestaurantId(itemId, restaurantId).orElseThrow(() -> new NotFoundException("Knowledge item not found"));
-        storage.deleteByPublicUrl(entity.getImageUrl());
+        storage.deleteByPublicUrl(itemId, entity.getImageUrl());
         entity.setImageUrl(null);
+        entity.setImageSrcset(null);
         return toDto(entity);
     }
 
@@ -305,13 +311,13 @@ public class KnowledgeServiceImpl implements KnowledgeService {
         if (!Set.of("image/jpeg", "image/png", "image/webp").contains(ct)) {
             throw new BadRequestException("Only JPEG, PNG or WEBP allowed");
         }
-        byte[] bytes = file.getBytes();
-        if (bytes.length < 12) throw new BadRequestException("Invalid image file");
-        boolean jpeg = (bytes[0] & 0xFF) == 0xFF && (bytes[1] & 0xFF) == 0xD8;
-        boolean png = (bytes[0] & 0xFF) == 0x89 && bytes[1] == 0x50 && bytes[2] == 0x4E && bytes[3] == 0x47;
-        boolean webp = bytes[0] == 'R' && bytes[1] == 'I' && bytes[2] == 'F' && bytes[3] == 'F'
-                && bytes[8] == 'W' && bytes[9] == 'E' && bytes[10] == 'B' && bytes[11] == 'P';
-        if (!jpeg && !png && !webp) throw new BadRequestException("Invalid image signature");
+        // достаточно префикса сигнатуры, весь файл в память не читаем
+        byte[] prefix;
+        try (var in = file.getInputStream()) {
+            prefix = in.readNBytes(ImageFormat.SIGNATURE_LENGTH);
+        }
+        if (prefix.length < ImageFormat.SIGNATURE_LENGTH) throw new BadRequestException("Invalid image file");
+        if (ImageFormat.sniff(prefix) == null) throw new BadRequestException("Invalid image signature");
     }
 
     private void ensureKnowledgeFolderHasNoPracticeExams(Long restaurantId, TrainingFolder root) {
@@ -449,9 +455,7 @@ public class KnowledgeServiceImpl implements KnowledgeService {
         }
 
         var descendants = folders.findAllByRestaurantIdAndIdInWithVisibility(restaurantId, descendantIds);
-        var allRestaurantPositionIds = positions.findByRestaurantId(restaurantId).stream()
-                .map(Position::getId)
-                .collect(java.util.stream.Collectors.toSet());
+        var allRestaurantPositionIds = new HashSet<>(referenceData.positionIds(restaurantId));
 
         var conflicts = new ArrayList<Map<String, Object>>();
         for (var descendant : descendants) {
@@ -487,6 +491,6 @@ public class KnowledgeServiceImpl implements KnowledgeService {
 
     private TrainingKnowledgeItemDto toDto(TrainingKnowledgeItem entity) {
         return new TrainingKnowledgeItemDto(entity.getId(), entity.getRestaurant().getId(), entity.getFolder() == null ? null : entity.getFolder().getId(), entity.getTitle(),
-                entity.getDescription(), entity.getComposition(), entity.getAllergens(), entity.getImageUrl(), entity.getSortOrder(), entity.isActive());
+                entity.getDescription(), entity.getComposition(), entity.getAllergens(), entity.getImageUrl(), entity.getImageSrcset(), entity.getSortOrder(), entity.isActive());
     }
 }
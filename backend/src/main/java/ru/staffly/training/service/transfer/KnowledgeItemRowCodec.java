@@ -0,0 +1,64 @@
+package ru.staffly.training.service.transfer;
+
+import ru.staffly.common.exception.BadRequestException;
+import ru.staffly.training.dto.KnowledgeItemTransferRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Строка таблицы ↔ карточка базы знаний.
+ * <pre>
+ * title | description | composition | allergens | imageUrl | sortOrder
+ * </pre>
+ * imageUrl выгружается для справки; при импорте картинка не переносится — её загружают заново.
+ */
+final class KnowledgeItemRowCodec {
+
+    static final List<String> HEADER = List.of("title", "description", "composition", "allergens", "imageUrl", "sortOrder");
+
+    private KnowledgeItemRowCodec() {
+    }
+
+    static boolean isHeader(List<String> cells) {
+        return !cells.isEmpty() && HEADER.get(0).equalsIgnoreCase(cells.get(0).trim());
+    }
+
+    static KnowledgeItemTransferRecord fromCells(List<String> cells) {
+        String sort = cell(cells, 5);
+        Integer sortOrder;
+        try {
+            sortOrder = sort == null ? 0 : (int) Double.parseDouble(sort);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Некорректный sortOrder: " + sort);
+        }
+        return new KnowledgeItemTransferRecord(
+                cell(cells, 0),
+                cell(cells, 1),
+                cell(cells, 2),
+                cell(cells, 3),
+                cell(cells, 4),
+                sortOrder
+        );
+    }
+
+    static List<String> toCells(KnowledgeItemTransferRecord r) {
+        List<String> cells = new ArrayList<>();
+        cells.add(r.title());
+        cells.add(nullToEmpty(r.description()));
+        cells.add(nullToEmpty(r.composition()));
+        cells.add(nullToEmpty(r.allergens()));
+        cells.add(nullToEmpty(r.imageUrl()));
+        cells.add(String.valueOf(r.sortOrder() == null ? 0 : r.sortOrder()));
+        return cells;
+    }
+
+    private static String cell(List<String> cells, int index) {
+        if (index >= cells.size() || cells.get(index) == null || cells.get(index).isBlank()) return null;
+        return cells.get(index).trim();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
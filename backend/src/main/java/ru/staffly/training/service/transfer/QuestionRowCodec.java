@@ -0,0 +1,144 @@
+package ru.staffly.training.service.transfer;
+
+import ru.staffly.common.exception.BadRequestException;
+import ru.staffly.training.dto.*;
+import ru.staffly.training.model.TrainingQuestionGroup;
+import ru.staffly.training.model.TrainingQuestionType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Строка таблицы ↔ вопрос.
+ * <pre>
+ * type | group | title | prompt | explanation | sortOrder | answer 1 | answer 2 | ...
+ * </pre>
+ * Ответы по типу вопроса:
+ * <ul>
+ *   <li>SINGLE / MULTI / TRUE_FALSE — одна ячейка на вариант, правильный начинается с {@code *};</li>
+ *   <li>MATCH — одна ячейка на пару: {@code левая => правая};</li>
+ *   <li>FILL_SELECT — ячейка на пропуск {{N}}: варианты через {@code |}, правильный с {@code *}.</li>
+ * </ul>
+ */
+final class QuestionRowCodec {
+
+    static final List<String> HEADER = List.of("type", "group", "title", "prompt", "explanation", "sortOrder", "answers...");
+
+    private static final int FIRST_ANSWER = 6;
+    private static final String CORRECT_MARK = "*";
+    private static final String PAIR_SEPARATOR = "=>";
+    private static final String BLANK_SEPARATOR = "|";
+
+    private QuestionRowCodec() {
+    }
+
+    static boolean isHeader(List<String> cells) {
+        return !cells.isEmpty() && HEADER.get(0).equalsIgnoreCase(cells.get(0).trim());
+    }
+
+    static QuestionTransferRecord fromCells(List<String> cells) {
+        TrainingQuestionType type = parseEnum(TrainingQuestionType.class, cell(cells, 0), "type");
+        TrainingQuestionGroup group = parseEnum(TrainingQuestionGroup.class, cell(cells, 1), "group");
+        String sort = cell(cells, 5);
+        Integer sortOrder;
+        try {
+            sortOrder = sort.isEmpty() ? 0 : (int) Double.parseDouble(sort);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Некорректный sortOrder: " + sort);
+        }
+
+        List<String> answers = new ArrayList<>();
+        for (int i = FIRST_ANSWER; i < cells.size(); i++) {
+            String value = cell(cells, i);
+            if (!value.isEmpty()) answers.add(value);
+        }
+
+        List<TrainingQuestionOptionDto> options = null;
+        List<TrainingQuestionMatchPairDto> pairs = null;
+        List<TrainingQuestionBlankDto> blanks = null;
+        switch (type) {
+            case MATCH -> {
+                pairs = new ArrayList<>();
+                for (int i = 0; i < answers.size(); i++) {
+                    String a = answers.get(i);
+                    int sep = a.indexOf(PAIR_SEPARATOR);
+                    if (sep < 0) throw new BadRequestException("Пара MATCH должна быть в формате «левая => правая»");
+                    pairs.add(new TrainingQuestionMatchPairDto(null, a.substring(0, sep).trim(), a.substring(sep + PAIR_SEPARATOR.length()).trim(), i));
+                }
+            }
+            case FILL_SELECT -> {
+                blanks = new ArrayList<>();
+                for (int i = 0; i < answers.size(); i++) {
+                    List<TrainingQuestionBlankOptionDto> blankOptions = new ArrayList<>();
+                    String[] parts = answers.get(i).split("\\" + BLANK_SEPARATOR);
+                    for (int j = 0; j < parts.length; j++) {
+                        String text = parts[j].trim();
+                        if (text.isEmpty()) continue;
+                        boolean correct = text.startsWith(CORRECT_MARK);
+                        blankOptions.add(new TrainingQuestionBlankOptionDto(null, stripMark(text), correct, j));
+                    }
+                    blanks.add(new TrainingQuestionBlankDto(null, i + 1, blankOptions));
+                }
+            }
+            default -> {
+                options = new ArrayList<>();
+                for (int i = 0; i < answers.size(); i++) {
+                    String a = answers.get(i);
+                    options.add(new TrainingQuestionOptionDto(null, stripMark(a), a.startsWith(CORRECT_MARK), i));
+                }
+            }
+        }
+
+        String explanation = cell(cells, 4);
+        return new QuestionTransferRecord(
+                type,
+                group,
+                cell(cells, 2),
+                cell(cells, 3),
+                explanation.isEmpty() ? null : explanation,
+                sortOrder,
+                options,
+                pairs,
+                blanks
+        );
+    }
+
+    static List<String> toCells(QuestionTransferRecord r) {
+        List<String> cells = new ArrayList<>();
+        cells.add(r.type().name());
+        cells.add(r.questionGroup().name());
+        cells.add(r.title());
+        cells.add(r.prompt());
+        cells.add(r.explanation() == null ? "" : r.explanation());
+        cells.add(String.valueOf(r.sortOrder() == null ? 0 : r.sortOrder()));
+        switch (r.type()) {
+            case MATCH -> r.matchPairs().forEach(p -> cells.add(p.leftText() + " " + PAIR_SEPARATOR + " " + p.rightText()));
+            case FILL_SELECT -> r.blanks().forEach(b -> {
+                List<String> parts = new ArrayList<>();
+                b.options().forEach(o -> parts.add((Boolean.TRUE.equals(o.correct()) ? CORRECT_MARK : "") + o.text()));
+                cells.add(String.join(" " + BLANK_SEPARATOR + " ", parts));
+            });
+            default -> r.options().forEach(o -> cells.add((o.correct() ? CORRECT_MARK : "") + o.text()));
+        }
+        return cells;
+    }
+
+    private static String stripMark(String value) {
+        return value.startsWith(CORRECT_MARK) ? value.substring(CORRECT_MARK.length()).trim() : value.trim();
+    }
+
+    private static String cell(List<String> cells, int index) {
+        if (index >= cells.size() || cells.get(index) == null) return "";
+        return cells.get(index).trim();
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String column) {
+        if (value.isEmpty()) throw new BadRequestException("Не заполнена колонка " + column);
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Некорректное значение " + column + ": " + value);
+        }
+    }
+}
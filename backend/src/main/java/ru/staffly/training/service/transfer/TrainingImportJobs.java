@@ -0,0 +1,161 @@
+package ru.staffly.training.service.transfer;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import ru.staffly.common.exception.NotFoundException;
+import ru.staffly.common.time.TimeProvider;
+import ru.staffly.training.dto.TrainingImportErrorDto;
+import ru.staffly.training.dto.TrainingImportJobDto;
+import ru.staffly.training.repository.TrainingImportJobJdbcRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Фоновые задачи импорта/клонирования и их прогресс.
+ * Задача выполняется на узле, принявшем запрос, а состояние пишется в {@code training_import_jobs}:
+ * опрос статуса может прийти на любой узел. После завершения результат хранится {@link #RETENTION},
+ * чтобы клиент успел его забрать.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TrainingImportJobs {
+
+    private static final Duration RETENTION = Duration.ofHours(1);
+    private static final int MAX_ERRORS = 100;
+    // прогресс пишется в БД не чаще раза в секунду, а не на каждую строку файла
+    private static final Duration FLUSH_INTERVAL = Duration.ofSeconds(1);
+    // незавершённая задача, которую так долго никто не обновлял, осталась на упавшем узле
+    private static final Duration STALE = Duration.ofMinutes(30);
+
+    public enum Status { QUEUED, RUNNING, DONE, FAILED }
+
+    private final TrainingImportJobJdbcRepository store;
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            1, 1, 0, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(8),
+            r -> {
+                Thread t = new Thread(r, "training-import");
+                t.setDaemon(true);
+                return t;
+            },
+            new ThreadPoolExecutor.AbortPolicy()
+    );
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public final class Job {
+        private final String id = UUID.randomUUID().toString();
+        private final String kind;
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger imported = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final List<TrainingImportErrorDto> errors = new ArrayList<>();
+        private volatile Status status = Status.QUEUED;
+        private volatile String message;
+        private Instant flushedAt = Instant.MIN;
+
+        private Job(String kind) {
+            this.kind = kind;
+        }
+
+        public void processed(int count) {
+            processed.addAndGet(count);
+            Instant now = TimeProvider.now();
+            if (now.isAfter(flushedAt.plus(FLUSH_INTERVAL))) {
+                flush(null);
+            }
+        }
+
+        public void imported(int count) {
+            imported.addAndGet(count);
+        }
+
+        public void error(long row, String text) {
+            failed.incrementAndGet();
+            synchronized (errors) {
+                if (errors.size() < MAX_ERRORS) errors.add(new TrainingImportErrorDto(row, text));
+            }
+        }
+
+        public TrainingImportJobDto toDto() {
+            List<TrainingImportErrorDto> snapshot;
+            synchronized (errors) {
+                snapshot = List.copyOf(errors);
+            }
+            return new TrainingImportJobDto(id, kind, status.name(), processed.get(), imported.get(), failed.get(), snapshot, message);
+        }
+
+        private void flush(Instant finishedAt) {
+            Instant now = TimeProvider.now();
+            store.update(toDto(), finishedAt, now);
+            flushedAt = now;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Work {
+        void run(Job job) throws Exception;
+    }
+
+    /**
+     * Ставит задачу в очередь. {@code cleanup} выполняется всегда — и после работы, и при отказе очереди.
+     */
+    public TrainingImportJobDto submit(String kind, Long restaurantId, Work work, Runnable cleanup) {
+        store.deleteFinishedBefore(TimeProvider.now().minus(RETENTION));
+        Job job = new Job(kind);
+        store.insert(restaurantId, job.toDto(), TimeProvider.now());
+        try {
+            executor.execute(() -> {
+                try {
+                    job.status = Status.RUNNING;
+                    job.flush(null);
+                    work.run(job);
+                    job.status = Status.DONE;
+                } catch (Exception e) {
+                    log.warn("Training import job {} failed", job.id, e);
+                    job.message = e.getMessage();
+                    job.status = Status.FAILED;
+                } finally {
+                    try {
+                        job.flush(TimeProvider.now());
+                    } catch (RuntimeException e) {
+                        log.error("Failed to store training import job {} result", job.id, e);
+                    }
+                    cleanup.run();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            store.delete(job.id);
+            cleanup.run();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Слишком много импортов в очереди, попробуйте позже");
+        }
+        return job.toDto();
+    }
+
+    public TrainingImportJobDto get(Long restaurantId, String jobId) {
+        TrainingImportJobJdbcRepository.StoredJob stored = store.find(jobId, restaurantId)
+                .orElseThrow(() -> new NotFoundException("Import job not found"));
+        TrainingImportJobDto job = stored.job();
+        boolean unfinished = Status.QUEUED.name().equals(job.status()) || Status.RUNNING.name().equals(job.status());
+        if (unfinished && stored.updatedAt().isBefore(TimeProvider.now().minus(STALE))) {
+            return new TrainingImportJobDto(job.id(), job.kind(), Status.FAILED.name(), job.processed(), job.imported(),
+                    job.failed(), job.errors(), "Импорт прерван: сервер был перезапущен");
+        }
+        return job;
+    }
+}
@@ -0,0 +1,19 @@
+package ru.staffly.training.service.transfer;
+
+import org.springframework.web.multipart.MultipartFile;
+import ru.staffly.training.dto.CloneQuestionBankRequest;
+import ru.staffly.training.dto.TrainingImportJobDto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface TrainingTransferService {
+    TrainingImportJobDto startQuestionImport(Long restaurantId, Long folderId, MultipartFile file) throws IOException;
+    TrainingImportJobDto startKnowledgeImport(Long restaurantId, Long folderId, MultipartFile file) throws IOException;
+    TrainingImportJobDto startQuestionBankClone(Long restaurantId, Long userId, CloneQuestionBankRequest request);
+    TrainingImportJobDto getImportJob(Long restaurantId, String jobId);
+    void checkQuestionExport(Long restaurantId, Long folderId);
+    void checkKnowledgeExport(Long restaurantId, Long folderId);
+    void exportQuestions(Long restaurantId, Long folderId, TransferFormat format, OutputStream out) throws IOException;
+    void exportKnowledgeItems(Long restaurantId, Long folderId, TransferFormat format, OutputStream out) throws IOException;
+}
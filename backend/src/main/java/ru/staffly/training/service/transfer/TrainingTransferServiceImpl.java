@@ -0,0 +1,234 @@
+package ru.staffly.training.service.transfer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import ru.staffly.common.exception.BadRequestException;
+import ru.staffly.common.exception.ConflictException;
+import ru.staffly.common.exception.NotFoundException;
+import ru.staffly.security.SecurityService;
+import ru.staffly.training.dto.CloneQuestionBankRequest;
+import ru.staffly.training.dto.KnowledgeItemTransferRecord;
+import ru.staffly.training.dto.QuestionTransferRecord;
+import ru.staffly.training.dto.TrainingImportJobDto;
+import ru.staffly.training.model.TrainingFolderType;
+import ru.staffly.training.repository.TrainingFolderRepository;
+import ru.staffly.training.repository.TrainingTransferJdbcRepository;
+import ru.staffly.training.service.QuestionValidator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TrainingTransferServiceImpl implements TrainingTransferService {
+
+    /** Сколько записей проверяется и вставляется за одну транзакцию. */
+    private static final int CHUNK_SIZE = 500;
+    private static final int TITLE_MAX_LENGTH = 150;
+
+    private final TrainingFolderRepository folders;
+    private final TrainingTransferJdbcRepository transfer;
+    private final QuestionValidator validator;
+    private final TrainingImportJobs jobs;
+    private final TransactionTemplate tx;
+    private final ObjectMapper objectMapper;
+    private final SecurityService securityService;
+
+    @Override
+    public TrainingImportJobDto startQuestionImport(Long restaurantId, Long folderId, MultipartFile file) throws IOException {
+        requireFolder(restaurantId, folderId, TrainingFolderType.QUESTION_BANK);
+        TransferFormat format = TransferFormat.fromFilename(file == null ? null : file.getOriginalFilename());
+        Path tmp = copyToTemp(file, format);
+        var reader = new TransferReader<>(QuestionTransferRecord.class, QuestionRowCodec::isHeader, QuestionRowCodec::fromCells, objectMapper);
+
+        return jobs.submit("QUESTIONS", restaurantId, job -> {
+            var chunk = new Chunk<QuestionTransferRecord>(records -> job.imported(
+                    tx.execute(s -> transfer.insertQuestions(restaurantId, folderId, records))));
+            reader.read(tmp, format, new TransferReader.Sink<>() {
+                @Override
+                public void record(long row, QuestionTransferRecord record) {
+                    job.processed(1);
+                    try {
+                        validateQuestion(record);
+                        chunk.add(record);
+                    } catch (BadRequestException | ConflictException e) {
+                        job.error(row, e.getMessage());
+                    }
+                }
+
+                @Override
+                public void error(long row, String message) {
+                    job.processed(1);
+                    job.error(row, message);
+                }
+            });
+            chunk.flush();
+        }, () -> deleteQuietly(tmp));
+    }
+
+    @Override
+    public TrainingImportJobDto startKnowledgeImport(Long restaurantId, Long folderId, MultipartFile file) throws IOException {
+        if (folderId != null) {
+            requireFolder(restaurantId, folderId, TrainingFolderType.KNOWLEDGE);
+        }
+        TransferFormat format = TransferFormat.fromFilename(file == null ? null : file.getOriginalFilename());
+        Path tmp = copyToTemp(file, format);
+        var reader = new TransferReader<>(KnowledgeItemTransferRecord.class, KnowledgeItemRowCodec::isHeader, KnowledgeItemRowCodec::fromCells, objectMapper);
+
+        return jobs.submit("KNOWLEDGE_ITEMS", restaurantId, job -> {
+            var chunk = new Chunk<KnowledgeItemTransferRecord>(records -> job.imported(
+                    tx.execute(s -> transfer.insertKnowledgeItems(restaurantId, folderId, records))));
+            reader.read(tmp, format, new TransferReader.Sink<>() {
+                @Override
+                public void record(long row, KnowledgeItemTransferRecord record) {
+                    job.processed(1);
+                    try {
+                        validateTitle(record.title());
+                        chunk.add(record);
+                    } catch (BadRequestException e) {
+                        job.error(row, e.getMessage());
+                    }
+                }
+
+                @Override
+                public void error(long row, String message) {
+                    job.processed(1);
+                    job.error(row, message);
+                }
+            });
+            chunk.flush();
+        }, () -> deleteQuietly(tmp));
+    }
+
+    @Override
+    public TrainingImportJobDto startQuestionBankClone(Long restaurantId, Long userId, CloneQuestionBankRequest request) {
+        securityService.assertAtLeastManager(userId, request.sourceRestaurantId());
+        requireFolder(request.sourceRestaurantId(), request.sourceFolderId(), TrainingFolderType.QUESTION_BANK);
+        requireFolder(restaurantId, request.targetFolderId(), TrainingFolderType.QUESTION_BANK);
+
+        return jobs.submit("CLONE_QUESTIONS", restaurantId, job -> {
+            long afterId = 0;
+            while (true) {
+                var chunk = transfer.loadQuestionChunk(request.sourceRestaurantId(), request.sourceFolderId(), afterId, CHUNK_SIZE);
+                if (chunk.isEmpty()) break;
+                job.processed(chunk.items().size());
+                job.imported(tx.execute(s -> transfer.insertQuestions(restaurantId, request.targetFolderId(), chunk.items())));
+                afterId = chunk.lastId();
+            }
+        }, () -> {});
+    }
+
+    @Override
+    public TrainingImportJobDto getImportJob(Long restaurantId, String jobId) {
+        return jobs.get(restaurantId, jobId);
+    }
+
+    @Override
+    public void checkQuestionExport(Long restaurantId, Long folderId) {
+        requireFolder(restaurantId, folderId, TrainingFolderType.QUESTION_BANK);
+    }
+
+    @Override
+    public void checkKnowledgeExport(Long restaurantId, Long folderId) {
+        if (folderId != null) {
+            requireFolder(restaurantId, folderId, TrainingFolderType.KNOWLEDGE);
+        }
+    }
+
+    @Override
+    public void exportQuestions(Long restaurantId, Long folderId, TransferFormat format, OutputStream out) throws IOException {
+        try (var writer = new TransferWriter<>(format, out, QuestionRowCodec.HEADER, QuestionRowCodec::toCells, objectMapper)) {
+            long afterId = 0;
+            while (true) {
+                var chunk = transfer.loadQuestionChunk(restaurantId, folderId, afterId, CHUNK_SIZE);
+                if (chunk.isEmpty()) break;
+                for (var record : chunk.items()) writer.write(record);
+                afterId = chunk.lastId();
+            }
+        }
+    }
+
+    @Override
+    public void exportKnowledgeItems(Long restaurantId, Long folderId, TransferFormat format, OutputStream out) throws IOException {
+        try (var writer = new TransferWriter<>(format, out, KnowledgeItemRowCodec.HEADER, KnowledgeItemRowCodec::toCells, objectMapper)) {
+            long afterId = 0;
+            while (true) {
+                var chunk = transfer.loadKnowledgeItemChunk(restaurantId, folderId, afterId, CHUNK_SIZE);
+                if (chunk.isEmpty()) break;
+                for (var record : chunk.items()) writer.write(record);
+                afterId = chunk.lastId();
+            }
+        }
+    }
+
+    /* ================= helpers ================= */
+
+    private void validateQuestion(QuestionTransferRecord r) {
+        if (r.type() == null) throw new BadRequestException("Не указан тип вопроса");
+        if (r.questionGroup() == null) throw new BadRequestException("Не указана группа вопроса");
+        validateTitle(r.title());
+        validator.validate(r.type(), r.title(), r.prompt(), r.options(), r.matchPairs(), r.blanks());
+    }
+
+    private void validateTitle(String title) {
+        if (title == null || title.isBlank()) throw new BadRequestException("Название обязательно.");
+        if (title.trim().length() > TITLE_MAX_LENGTH) throw new BadRequestException("Название длиннее " + TITLE_MAX_LENGTH + " символов");
+    }
+
+    private void requireFolder(Long restaurantId, Long folderId, TrainingFolderType type) {
+        var folder = folders.findByIdAndRestaurantId(folderId, restaurantId)
+                .orElseThrow(() -> new NotFoundException("Folder not found"));
+        if (folder.getType() != type) throw new BadRequestException("Wrong folder type");
+    }
+
+    private static Path copyToTemp(MultipartFile file, TransferFormat format) throws IOException {
+        if (file == null || file.isEmpty()) throw new BadRequestException("Файл не выбран");
+        Path tmp = Files.createTempFile("training-import-", "." + format.extension());
+        try {
+            file.transferTo(tmp);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(tmp);
+            throw e;
+        }
+        return tmp;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete temp file {}", path, e);
+        }
+    }
+
+    /** Буфер на {@link #CHUNK_SIZE} записей, сбрасываемый одной транзакцией. */
+    private static final class Chunk<T> {
+        private final Consumer<List<T>> flusher;
+        private List<T> buffer = new ArrayList<>(CHUNK_SIZE);
+
+        private Chunk(Consumer<List<T>> flusher) {
+            this.flusher = flusher;
+        }
+
+        void add(T record) {
+            buffer.add(record);
+            if (buffer.size() >= CHUNK_SIZE) flush();
+        }
+
+        void flush() {
+            if (buffer.isEmpty()) return;
+            flusher.accept(buffer);
+            buffer = new ArrayList<>(CHUNK_SIZE);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package ru.staffly.training.service.transfer;
+
+import ru.staffly.common.exception.BadRequestException;
+
+import java.util.Locale;
+
+public enum TransferFormat {
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx"),
+    JSONL("application/x-ndjson", "jsonl");
+
+    private final String contentType;
+    private final String extension;
+
+    TransferFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    /** Формат загружаемого файла определяем по расширению имени. */
+    public static TransferFormat fromFilename(String filename) {
+        String name = filename == null ? "" : filename.toLowerCase(Locale.ROOT).trim();
+        if (name.endsWith(".xlsx")) return XLSX;
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson") || name.endsWith(".json")) return JSONL;
+        throw new BadRequestException("Поддерживаются только файлы .xlsx и .jsonl");
+    }
+}
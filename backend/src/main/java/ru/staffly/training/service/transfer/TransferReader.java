@@ -0,0 +1,73 @@
+package ru.staffly.training.service.transfer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Потоково читает файл импорта и отдаёт записи по одной.
+ * Ошибка разбора конкретной строки не прерывает чтение — она передаётся в {@link Sink#error}.
+ */
+final class TransferReader<T> {
+
+    interface Sink<T> {
+        void record(long row, T record);
+
+        void error(long row, String message);
+    }
+
+    private final Class<T> type;
+    private final Predicate<List<String>> isHeader;
+    private final Function<List<String>, T> fromCells;
+    private final ObjectMapper objectMapper;
+
+    TransferReader(Class<T> type,
+                   Predicate<List<String>> isHeader,
+                   Function<List<String>, T> fromCells,
+                   ObjectMapper objectMapper) {
+        this.type = type;
+        this.isHeader = isHeader;
+        this.fromCells = fromCells;
+        this.objectMapper = objectMapper;
+    }
+
+    void read(Path file, TransferFormat format, Sink<T> sink) throws IOException {
+        switch (format) {
+            case XLSX -> XlsxRowReader.read(file, (row, cells) -> {
+                if (isBlankRow(cells) || isHeader.test(cells)) return;
+                try {
+                    sink.record(row, fromCells.apply(cells));
+                } catch (RuntimeException e) {
+                    sink.error(row, e.getMessage());
+                }
+            });
+            case JSONL -> {
+                try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    String line;
+                    long row = 0;
+                    while ((line = reader.readLine()) != null) {
+                        row++;
+                        if (line.isBlank()) continue;
+                        try {
+                            sink.record(row, objectMapper.readValue(line, type));
+                        } catch (JsonProcessingException e) {
+                            sink.error(row, "Некорректный JSON: " + e.getOriginalMessage());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isBlankRow(List<String> cells) {
+        return cells.stream().allMatch(c -> c == null || c.isBlank());
+    }
+}
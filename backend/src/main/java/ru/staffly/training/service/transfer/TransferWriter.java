@@ -0,0 +1,76 @@
+package ru.staffly.training.service.transfer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Потоковая запись экспорта. Для XLSX используется SXSSF: в памяти держится
+ * только окно из последних строк, остальное сбрасывается во временный файл.
+ */
+final class TransferWriter<T> implements Closeable {
+
+    private static final int XLSX_ROW_WINDOW = 100;
+
+    private final TransferFormat format;
+    private final OutputStream out;
+    private final Function<T, List<String>> toCells;
+    private final ObjectMapper objectMapper;
+
+    private SXSSFWorkbook workbook;
+    private Sheet sheet;
+    private int nextRow;
+
+    TransferWriter(TransferFormat format,
+                   OutputStream out,
+                   List<String> header,
+                   Function<T, List<String>> toCells,
+                   ObjectMapper objectMapper) {
+        this.format = format;
+        this.out = out;
+        this.toCells = toCells;
+        this.objectMapper = objectMapper;
+        if (format == TransferFormat.XLSX) {
+            workbook = new SXSSFWorkbook(XLSX_ROW_WINDOW);
+            sheet = workbook.createSheet("data");
+            writeRow(header);
+        }
+    }
+
+    void write(T record) throws IOException {
+        if (format == TransferFormat.XLSX) {
+            writeRow(toCells.apply(record));
+            return;
+        }
+        out.write(objectMapper.writeValueAsString(record).getBytes(StandardCharsets.UTF_8));
+        out.write('\n');
+    }
+
+    private void writeRow(List<String> cells) {
+        Row row = sheet.createRow(nextRow++);
+        for (int i = 0; i < cells.size(); i++) {
+            row.createCell(i).setCellValue(cells.get(i));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (workbook != null) {
+            try {
+                workbook.write(out);
+            } finally {
+                workbook.dispose();
+                workbook.close();
+            }
+        }
+        out.flush();
+    }
+}
@@ -17,6 +17,7 @@ import ru.staffly.common.exception.ConflictException;
 import ru.staffly.common.exception.NotFoundException;
 import ru.staffly.common.time.TimeProvider;
 import ru.staffly.media.AvatarStorage;
+import ru.staffly.media.StoredImage;
 import ru.staffly.security.UserPrincipal;
 import ru.staffly.user.model.User;
 import ru.staffly.user.repository.UserRepository;
@@ -24,6 +25,7 @@ import ru.staffly.user.repository.UserRepository;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
 
@@ -64,6 +66,7 @@ public class UserProfileController {
             String lastName,
             String fullName,
             String avatarUrl,
+            String avatarSrcset,
             String birthDate,
             String theme
     ) {
@@ -76,6 +79,7 @@ public class UserProfileController {
                     u.getLastName(),
                     u.getFullName(),
                     u.getAvatarUrl(),
+                    u.getAvatarSrcset(),
                     u.getBirthDate() == null ? null : u.getBirthDate().toString(),
                     u.getTheme()
             );
@@ -196,11 +200,15 @@ public class UserProfileController {
         }
 
         // сохраняем новый и обновляем пользователя
-        String publicUrl = avatarStorage.saveForUser(u.getId(), file);
-        u.setAvatarUrl(publicUrl);
+        StoredImage stored = avatarStorage.saveForUser(u.getId(), file);
+        u.setAvatarUrl(stored.url());
+        u.setAvatarSrcset(stored.srcset());
         users.save(u);
 
-        return Map.of("avatarUrl", publicUrl);
+        Map<String, String> res = new LinkedHashMap<>();
+        res.put("avatarUrl", stored.url());
+        if (stored.srcset() != null) res.put("avatarSrcset", stored.srcset());
+        return res;
     }
 
     @PreAuthorize("isAuthenticated()")
@@ -212,6 +220,7 @@ public class UserProfileController {
         avatarStorage.deleteByPublicUrl(u.getAvatarUrl());
         if (u.getAvatarUrl() != null) {
             u.setAvatarUrl(null);
+            u.setAvatarSrcset(null);
             users.save(u);
         }
     }
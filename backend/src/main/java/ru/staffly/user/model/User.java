@@ -43,6 +43,12 @@ public class User {
     @Column(name = "avatar_url")
     private String avatarUrl;
 
+    @Column(name = "avatar_srcset", columnDefinition = "text")
+    private String avatarSrcset;
+
+    @Column(name = "calendar_token", length = 64)
+    private String calendarToken;
+
     @Column(name = "birth_date")
     private LocalDate birthDate;
 
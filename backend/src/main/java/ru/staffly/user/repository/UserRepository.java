@@ -9,6 +9,7 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByPhone(String phone);
     Optional<User> findByEmailIgnoreCase(String email);
+    Optional<User> findByCalendarToken(String calendarToken);
 
     boolean existsByPhone(String phone);
     boolean existsByEmailIgnoreCase(String email);
@@ -0,0 +1,7 @@
+-- Уменьшенные копии картинок (srcset), которые строит ImagePipeline.
+-- Для старых загрузок остаётся NULL — клиент берёт оригинал.
+ALTER TABLE users
+    ADD COLUMN IF NOT EXISTS avatar_srcset TEXT;
+
+ALTER TABLE training_knowledge_item
+    ADD COLUMN IF NOT EXISTS image_srcset TEXT;
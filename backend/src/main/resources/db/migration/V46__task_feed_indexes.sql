@@ -0,0 +1,18 @@
+-- Ключ сортировки ленты задач хранится в колонках, чтобы индекс отдавал строки сразу в порядке ленты:
+-- по выражениям (case по приоритету, coalesce по сроку) обычный индекс по priority/due_date не подходит.
+-- Ранг должен совпадать с TaskService.FeedCursor.priorityRank.
+alter table task
+    add column priority_rank int generated always as (
+        case priority when 'HIGH' then 0 when 'MEDIUM' then 1 when 'LOW' then 2 else 99 end
+    ) stored,
+    -- без срока — в конец ленты, как FeedCursor.NO_DUE_DATE
+    add column due_sort date generated always as (coalesce(due_date, date '9999-12-31')) stored;
+
+-- Лента задач: фильтр по ресторану среди неудалённых + keyset по (priority_rank, due_sort, id)
+create index if not exists idx_task_feed
+    on task(restaurant_id, priority_rank, due_sort, id)
+    where deleted_at is null;
+
+-- Комментарии листаются по task_id в порядке created_at
+create index if not exists idx_task_comment_task_created
+    on task_comment(task_id, created_at);
@@ -0,0 +1,10 @@
+-- Очистка отозванных сессий и лимит активных сессий на пользователя
+CREATE INDEX IF NOT EXISTS idx_auth_sessions_revoked_at
+    ON auth_sessions (revoked_at)
+    WHERE revoked_at IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_auth_sessions_user_active
+    ON auth_sessions (user_id, created_at DESC)
+    WHERE revoked_at IS NULL;
+
+-- Накопившиеся за всё время мёртвые строки удаляет AuthSessionPurgeJob пачками
@@ -0,0 +1,3 @@
+-- Оптимистическая блокировка графика: PUT/PATCH сверяют версию, чтобы не затирать чужие правки
+ALTER TABLE schedule
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
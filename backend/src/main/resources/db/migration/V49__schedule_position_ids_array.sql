@@ -0,0 +1,22 @@
+-- position_ids: строка "1,2,3" -> bigint[] с GIN-индексом, чтобы фильтровать графики по должности в SQL
+ALTER TABLE schedule
+    ALTER COLUMN position_ids TYPE BIGINT[]
+        USING CASE
+                  WHEN position_ids IS NULL OR btrim(position_ids) = '' THEN '{}'::BIGINT[]
+                  ELSE string_to_array(regexp_replace(position_ids, '[^0-9,]', '', 'g'), ',')::BIGINT[]
+              END;
+
+UPDATE schedule SET position_ids = '{}' WHERE position_ids IS NULL;
+
+ALTER TABLE schedule
+    ALTER COLUMN position_ids SET DEFAULT '{}',
+    ALTER COLUMN position_ids SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_schedule_position_ids ON schedule USING GIN (position_ids);
+
+-- список графиков ресторана идёт от новых к старым
+CREATE INDEX IF NOT EXISTS idx_schedule_restaurant_created ON schedule (restaurant_id, created_at DESC, id DESC);
+
+-- has_pending: EXISTS по (schedule_id, status)
+CREATE INDEX IF NOT EXISTS idx_schedule_shift_request_schedule_status
+    ON schedule_shift_request (schedule_id, status);
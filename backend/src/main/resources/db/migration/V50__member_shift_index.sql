@@ -0,0 +1,25 @@
+-- Денормализованный индекс смен сотрудника по всем графикам: "мои смены" и календарная подписка
+CREATE TABLE IF NOT EXISTS member_shift (
+    member_id     BIGINT      NOT NULL REFERENCES restaurant_member(id) ON DELETE CASCADE,
+    day           DATE        NOT NULL,
+    schedule_id   BIGINT      NOT NULL REFERENCES schedule(id) ON DELETE CASCADE,
+    restaurant_id BIGINT      NOT NULL REFERENCES restaurants(id) ON DELETE CASCADE,
+    value         TEXT        NOT NULL,
+    indexed_at    TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (member_id, day, schedule_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_member_shift_schedule ON member_shift(schedule_id);
+
+INSERT INTO member_shift (member_id, day, schedule_id, restaurant_id, value)
+SELECT r.member_id, c.day, s.id, s.restaurant_id, c.value
+FROM schedule_cell c
+JOIN schedule_row r ON r.id = c.row_id
+JOIN schedule s ON s.id = r.schedule_id
+WHERE r.member_id IS NOT NULL
+  AND btrim(c.value) <> ''
+ON CONFLICT DO NOTHING;
+
+-- Секрет для URL подписки на календарь (телефон не умеет слать Authorization)
+ALTER TABLE users ADD COLUMN IF NOT EXISTS calendar_token VARCHAR(64);
+CREATE UNIQUE INDEX IF NOT EXISTS uq_users_calendar_token ON users(calendar_token) WHERE calendar_token IS NOT NULL;
@@ -0,0 +1,10 @@
+-- Горячие таблицы переходят с IDENTITY на pooled-последовательности: Hibernate берёт блок из 50 id
+-- за один nextval и может батчить INSERT. Шаг последовательности обязан совпадать с allocationSize.
+-- Нативные INSERT по-прежнему берут id из DEFAULT nextval(...) — они получают верхушку нового блока,
+-- которую Hibernate никому не выдаёт, так что пересечений нет (только пропуски в нумерации).
+ALTER SEQUENCE schedule_cell_id_seq INCREMENT BY 50;
+ALTER SEQUENCE master_schedule_cell_id_seq INCREMENT BY 50;
+ALTER SEQUENCE checklist_item_id_seq INCREMENT BY 50;
+ALTER SEQUENCE inbox_recipients_id_seq INCREMENT BY 50;
+ALTER SEQUENCE training_exam_attempt_question_id_seq INCREMENT BY 50;
+ALTER SEQUENCE push_deliveries_id_seq INCREMENT BY 50;
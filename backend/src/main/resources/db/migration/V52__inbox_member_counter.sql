@@ -0,0 +1,15 @@
+-- Счётчик входящих на сотрудника для инкрементальной обрезки переполнения.
+-- Только растёт при доставке и пересчитывается точно после обрезки, поэтому не меньше реального числа:
+-- удаления в обход (retention, каскады) дают лишние проверки, но не пропущенное переполнение.
+CREATE TABLE IF NOT EXISTS inbox_member_counter (
+    member_id       BIGINT  PRIMARY KEY REFERENCES restaurant_member(id) ON DELETE CASCADE,
+    recipient_count INTEGER NOT NULL
+);
+
+INSERT INTO inbox_member_counter (member_id, recipient_count)
+SELECT member_id, count(*)
+FROM inbox_recipients
+GROUP BY member_id
+ON CONFLICT (member_id) DO NOTHING;
+
+CREATE INDEX IF NOT EXISTS idx_inbox_member_counter_count ON inbox_member_counter(recipient_count, member_id);
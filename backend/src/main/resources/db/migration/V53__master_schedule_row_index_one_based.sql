@@ -0,0 +1,11 @@
+-- Старые графики хранили row_index с нуля; раньше это правилось при каждом чтении графика.
+-- Переводим один раз, чтобы GET графика ничего не писал и мог идти на реплику.
+update master_schedule_row r
+set row_index = r.row_index + 1
+where exists (
+    select 1
+    from master_schedule_row z
+    where z.schedule_id = r.schedule_id
+      and z.position_id = r.position_id
+      and z.row_index = 0
+);
@@ -0,0 +1,3 @@
+-- Рассылки по должностям хранят только адресацию (inbox_message_positions), строки inbox_recipients
+-- создаются при прочтении/скрытии. Уже разосланные объявления остаются адресными.
+ALTER TABLE inbox_messages ADD COLUMN broadcast BOOLEAN NOT NULL DEFAULT FALSE;
@@ -0,0 +1,10 @@
+-- Аренды фоновой работы, которую должен выполнять один инстанс (DbLease)
+CREATE TABLE db_lease (
+    name       VARCHAR(100) PRIMARY KEY,
+    owner      VARCHAR(200) NOT NULL,
+    expires_at TIMESTAMPTZ  NOT NULL
+);
+
+-- Таймер напоминаний загружает горизонт по всем ресторанам сразу
+CREATE INDEX idx_reminder_active_next_fire_at ON reminder (next_fire_at)
+    WHERE active AND next_fire_at IS NOT NULL;
@@ -0,0 +1,5 @@
+-- Здоровье подписки: хронически падающие устройства push-воркер опрашивает реже
+ALTER TABLE push_devices
+    ADD COLUMN last_success_at      TIMESTAMPTZ NULL,
+    ADD COLUMN last_failure_at      TIMESTAMPTZ NULL,
+    ADD COLUMN consecutive_failures INT         NOT NULL DEFAULT 0;
@@ -0,0 +1,53 @@
+-- Завершённые доставки (SENT/FAILED/DEAD) переезжают из push_deliveries в историю, секционированную
+-- по месяцам завершения: в push_deliveries остаётся только незавершённая работа, и выборка очереди
+-- не растёт вместе с историей. Старые секции удаляет PushHistoryPartitionJob.
+-- Внешних ключей у истории нет: удаление секции не должно ничего проверять.
+CREATE TABLE push_delivery_history (
+    id               BIGINT      NOT NULL,
+    ref_type         VARCHAR(40) NOT NULL,
+    ref_id           BIGINT      NOT NULL,
+    restaurant_id    BIGINT      NOT NULL,
+    user_id          BIGINT      NOT NULL,
+    payload          JSONB       NOT NULL,
+    status           VARCHAR(20) NOT NULL,
+    attempts         INT         NOT NULL,
+    sent_at          TIMESTAMPTZ NULL,
+    last_error       TEXT        NULL,
+    last_http_status INT         NULL,
+    created_at       TIMESTAMPTZ NOT NULL,
+    finished_at      TIMESTAMPTZ NOT NULL
+) PARTITION BY RANGE (finished_at);
+
+-- Секции по UTC-месяцам: от самой старой завершённой доставки до следующего месяца включительно
+DO $$
+DECLARE
+    m TIMESTAMP := date_trunc('month', coalesce(
+            (SELECT min(updated_at) FROM push_deliveries WHERE status IN ('SENT', 'FAILED', 'DEAD')),
+            now()) AT TIME ZONE 'UTC');
+BEGIN
+    WHILE m <= date_trunc('month', now() AT TIME ZONE 'UTC') + INTERVAL '1 month' LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF push_delivery_history FOR VALUES FROM (%L) TO (%L)',
+                       'push_delivery_history_' || to_char(m, 'YYYY_MM'),
+                       m AT TIME ZONE 'UTC',
+                       (m + INTERVAL '1 month') AT TIME ZONE 'UTC');
+        m := m + INTERVAL '1 month';
+    END LOOP;
+END $$;
+
+-- Страховка на случай, если задача не успела создать секцию месяца
+CREATE TABLE push_delivery_history_default PARTITION OF push_delivery_history DEFAULT;
+
+INSERT INTO push_delivery_history (id, ref_type, ref_id, restaurant_id, user_id, payload, status, attempts,
+                                   sent_at, last_error, last_http_status, created_at, finished_at)
+SELECT id, ref_type, ref_id, restaurant_id, user_id, payload, status, attempts,
+       sent_at, last_error, last_http_status, created_at, updated_at
+FROM push_deliveries
+WHERE status IN ('SENT', 'FAILED', 'DEAD');
+
+DELETE FROM push_deliveries WHERE status IN ('SENT', 'FAILED', 'DEAD');
+
+-- Очередь выбирается только по PENDING/RETRY
+DROP INDEX IF EXISTS idx_push_deliveries_status_run_at;
+DROP INDEX IF EXISTS idx_push_deliveries_next_attempt_at;
+CREATE INDEX idx_push_deliveries_pending_run_at ON push_deliveries (run_at) WHERE status = 'PENDING';
+CREATE INDEX idx_push_deliveries_retry_next_attempt_at ON push_deliveries (next_attempt_at) WHERE status = 'RETRY';
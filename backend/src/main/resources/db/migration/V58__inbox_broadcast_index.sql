@@ -0,0 +1,2 @@
+-- Ветка рассылок во входящих выбирает сообщения ресторана, а не строки получателя
+CREATE INDEX idx_inbox_messages_broadcast ON inbox_messages (restaurant_id, created_at) WHERE broadcast;
@@ -0,0 +1,17 @@
+-- Ключи уже поставленных доставок. Завершённые доставки уходят из push_deliveries в историю, и уникальный
+-- индекс очереди больше не защищает от повторной постановки того же (ref_type, ref_id, user_id).
+-- Ключи не архивируются: живут, пока живёт сообщение, и удаляются вместе с ним.
+CREATE TABLE push_delivery_keys (
+    ref_type   VARCHAR(40) NOT NULL,
+    ref_id     BIGINT      NOT NULL,
+    user_id    BIGINT      NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL,
+    PRIMARY KEY (ref_type, ref_id, user_id)
+);
+
+INSERT INTO push_delivery_keys (ref_type, ref_id, user_id, created_at)
+SELECT ref_type, ref_id, user_id, min(created_at)
+FROM (SELECT ref_type, ref_id, user_id, created_at FROM push_deliveries
+      UNION ALL
+      SELECT ref_type, ref_id, user_id, created_at FROM push_delivery_history) d
+GROUP BY ref_type, ref_id, user_id;
@@ -0,0 +1,18 @@
+-- Прогресс фоновых импортов обучения. Задача выполняется на узле, принявшем файл, а опрос статуса
+-- может прийти на любой узел — поэтому состояние в БД, а не в памяти узла.
+CREATE TABLE training_import_jobs (
+    id            VARCHAR(36) PRIMARY KEY,
+    restaurant_id BIGINT      NOT NULL,
+    kind          VARCHAR(40) NOT NULL,
+    status        VARCHAR(20) NOT NULL,
+    processed     INT         NOT NULL DEFAULT 0,
+    imported      INT         NOT NULL DEFAULT 0,
+    failed        INT         NOT NULL DEFAULT 0,
+    errors        JSONB       NOT NULL DEFAULT '[]',
+    message       TEXT        NULL,
+    created_at    TIMESTAMPTZ NOT NULL,
+    updated_at    TIMESTAMPTZ NOT NULL,
+    finished_at   TIMESTAMPTZ NULL
+);
+
+CREATE INDEX idx_training_import_jobs_finished_at ON training_import_jobs (finished_at) WHERE finished_at IS NOT NULL;
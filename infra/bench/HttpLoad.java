@@ -0,0 +1,132 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Замкнутая нагрузка на один URL: N клиентов шлют запросы без пауз, после прогрева считаем
+ * пропускную способность и перцентили латентности. Без зависимостей, запуск: java HttpLoad.java --url ...
+ * Клиентские потоки платформенные — чтобы режим сервера был единственной переменной.
+ */
+public class HttpLoad {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parse(args);
+        String url = required(opts, "url");
+        String token = opts.get("token");
+        String label = opts.getOrDefault("label", "run");
+        int concurrency = Integer.parseInt(opts.getOrDefault("concurrency", "200"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(opts.getOrDefault("warmup", "10")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(opts.getOrDefault("duration", "30")));
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Runnable::run)
+                .build();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).GET();
+        if (token != null) builder.header("Authorization", "Bearer " + token);
+        HttpRequest request = builder.build();
+
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long stopAt = measureFrom + duration.toNanos();
+        Worker[] workers = new Worker[concurrency];
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers[i] = new Worker(client, request, measureFrom, stopAt, done);
+            Thread thread = new Thread(workers[i], "load-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+
+        int total = 0;
+        long errors = 0;
+        for (Worker w : workers) {
+            total += w.count;
+            errors += w.errors;
+        }
+        long[] all = new long[total];
+        int pos = 0;
+        for (Worker w : workers) {
+            System.arraycopy(w.latencies, 0, all, pos, w.count);
+            pos += w.count;
+        }
+        Arrays.sort(all);
+        double seconds = duration.toNanos() / 1e9;
+        System.out.printf(
+                "{\"label\":\"%s\",\"concurrency\":%d,\"requests\":%d,\"errors\":%d,\"rps\":%.1f,"
+                        + "\"p50_ms\":%.2f,\"p99_ms\":%.2f,\"max_ms\":%.2f}%n",
+                label, concurrency, total, errors, total / seconds,
+                percentile(all, 0.50), percentile(all, 0.99), total == 0 ? 0 : all[total - 1] / 1e6);
+    }
+
+    private static final class Worker implements Runnable {
+        private final HttpClient client;
+        private final HttpRequest request;
+        private final long measureFrom;
+        private final long stopAt;
+        private final CountDownLatch done;
+        private long[] latencies = new long[4096];
+        private int count;
+        private long errors;
+
+        Worker(HttpClient client, HttpRequest request, long measureFrom, long stopAt, CountDownLatch done) {
+            this.client = client;
+            this.request = request;
+            this.measureFrom = measureFrom;
+            this.stopAt = stopAt;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            try {
+                long start;
+                while ((start = System.nanoTime()) < stopAt) {
+                    boolean ok;
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        ok = response.statusCode() < 400;
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    if (start < measureFrom) continue;
+                    if (!ok) {
+                        errors++;
+                        continue;
+                    }
+                    if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+                    latencies[count++] = System.nanoTime() - start;
+                }
+            } finally {
+                done.countDown();
+            }
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            opts.put(args[i].substring(2), args[i + 1]);
+        }
+        return opts;
+    }
+
+    private static String required(Map<String, String> opts, String key) {
+        String value = opts.get(key);
+        if (value == null) throw new IllegalArgumentException("--" + key + " is required");
+        return value;
+    }
+}
@@ -0,0 +1,51 @@
+#!/usr/bin/env bash
+# Сравнивает платформенные и виртуальные потоки при одинаковом пуле Hikari.
+# Нужны Java 21+, собранный backend (mvn -DskipTests package) и поднятая БД (infra/docker-compose.dev.yml).
+#
+#   BENCH_PATH=/api/restaurants/1/schedules BENCH_TOKEN=<jwt> infra/bench/virtual-threads.sh
+#
+# Переменные: BENCH_PATH (по умолчанию /api/ping), BENCH_TOKEN, POOL_SIZE (10), CONCURRENCY (200),
+# WARMUP (10), DURATION (30), PORT (18080). Результат — по строке JSON на режим.
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/../.." && pwd)"
+JAR="$(ls "$ROOT"/backend/target/backend-*-exec.jar | head -n 1)"
+PORT="${PORT:-18080}"
+BENCH_PATH="${BENCH_PATH:-/api/ping}"
+
+java_major="$(java -XshowSettings:properties -version 2>&1 | awk -F'= ' '/java.specification.version/ {print $2}')"
+if [ "${java_major%%.*}" -lt 21 ]; then
+  echo "Java 21+ required for virtual threads, found $java_major" >&2
+  exit 1
+fi
+
+run_mode() {
+  local label="$1" virtual="$2"
+  VIRTUAL_THREADS="$virtual" \
+  SERVER_PORT="$PORT" \
+  MANAGEMENT_PORT="$((PORT + 1))" \
+  SPRING_DATASOURCE_HIKARI_MAXIMUM_POOL_SIZE="${POOL_SIZE:-10}" \
+    java -jar "$JAR" >"/tmp/staffly-bench-$label.log" 2>&1 &
+  local pid=$!
+  trap "kill $pid 2>/dev/null || true" EXIT
+
+  for _ in $(seq 1 120); do
+    curl -fsS "http://localhost:$PORT/api/ping" >/dev/null 2>&1 && break
+    sleep 1
+  done
+
+  java "$ROOT/infra/bench/HttpLoad.java" \
+    --url "http://localhost:$PORT$BENCH_PATH" \
+    ${BENCH_TOKEN:+--token "$BENCH_TOKEN"} \
+    --label "$label" \
+    --concurrency "${CONCURRENCY:-200}" \
+    --warmup "${WARMUP:-10}" \
+    --duration "${DURATION:-30}"
+
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  trap - EXIT
+}
+
+run_mode platform false
+run_mode virtual true